@@ -0,0 +1,102 @@
+package com.example.bankaccount.benchmarks;
+
+import com.example.bankaccount.AccountRegistry;
+import com.example.bankaccount.BankAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transfers between random account pairs, directly on BankAccount and through the
+// registry's stripe locks. Fewer accounts means more contention; each method runs at a
+// fixed thread count because JMH cannot take threads as a @Param.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountTransferBenchmark {
+    private static final String PIN = "1234";
+
+    @State(Scope.Benchmark)
+    public static class Book {
+        @Param({"16", "1024", "65536"})
+        int accounts;
+
+        AccountRegistry registry;
+        BankAccount[] byIndex;
+        String[] ids;
+
+        @Setup
+        public void setUp() {
+            registry = new AccountRegistry();
+            byIndex = new BankAccount[accounts];
+            ids = new String[accounts];
+            for (int i = 0; i < accounts; i++) {
+                ids[i] = "ACC" + i;
+                byIndex[i] = registry.openAccount(ids[i], 1_000_000_000.0, "USD", 0.0, PIN);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean accountTransfer1Thread(Book book, Picker picker) {
+        return accountTransfer(book, picker);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean accountTransfer4Threads(Book book, Picker picker) {
+        return accountTransfer(book, picker);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean registryTransfer1Thread(Book book, Picker picker) {
+        return registryTransfer(book, picker);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean registryTransfer4Threads(Book book, Picker picker) {
+        return registryTransfer(book, picker);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean registryTransferMaxThreads(Book book, Picker picker) {
+        return registryTransfer(book, picker);
+    }
+
+    private static boolean accountTransfer(Book book, Picker picker) {
+        BankAccount from = book.byIndex[picker.next(book.accounts)];
+        BankAccount to = book.byIndex[picker.next(book.accounts)];
+        return from.transfer(to, 0.01, PIN);
+    }
+
+    private static boolean registryTransfer(Book book, Picker picker) {
+        return book.registry.transfer(book.ids[picker.next(book.accounts)], book.ids[picker.next(book.accounts)],
+                0.01, PIN);
+    }
+}
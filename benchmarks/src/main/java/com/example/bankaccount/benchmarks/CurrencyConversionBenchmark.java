@@ -0,0 +1,115 @@
+package com.example.bankaccount.benchmarks;
+
+import com.example.bankaccount.CurrencyConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Per-call conversion against the batch APIs over the same balances. Extra currencies widen
+// the cross-rate table, which is what mixed-pair lookups walk.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConversionBenchmark {
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "INR"};
+
+    @Param({"1024", "65536"})
+    int size;
+
+    @Param({"4", "64"})
+    int currencies;
+
+    CurrencyConverter converter;
+    double[] amounts;
+    long[] minorAmounts;
+    int[] fromOrdinals;
+    int[] toOrdinals;
+    String[] fromCodes;
+    String[] toCodes;
+    double[] results;
+    long[] minorResults;
+
+    @Setup
+    public void setUp() {
+        converter = new CurrencyConverter();
+        SplittableRandom random = new SplittableRandom(42);
+        String[] codes = new String[Math.max(currencies, CURRENCIES.length)];
+        System.arraycopy(CURRENCIES, 0, codes, 0, CURRENCIES.length);
+        for (int c = CURRENCIES.length; c < codes.length; c++) {
+            codes[c] = String.format("X%02d", c);
+            converter.updateExchangeRate(codes[c], random.nextDouble(0.01, 200.0));
+        }
+        amounts = new double[size];
+        minorAmounts = new long[size];
+        fromOrdinals = new int[size];
+        toOrdinals = new int[size];
+        fromCodes = new String[size];
+        toCodes = new String[size];
+        results = new double[size];
+        minorResults = new long[size];
+        for (int i = 0; i < size; i++) {
+            minorAmounts[i] = random.nextLong(1, 10_000_000);
+            amounts[i] = minorAmounts[i] / 100.0;
+            fromCodes[i] = codes[random.nextInt(codes.length)];
+            toCodes[i] = codes[random.nextInt(codes.length)];
+            fromOrdinals[i] = converter.ordinalOf(fromCodes[i]);
+            toOrdinals[i] = converter.ordinalOf(toCodes[i]);
+        }
+    }
+
+    @Benchmark
+    public double[] perCallSinglePair() {
+        for (int i = 0; i < size; i++) {
+            results[i] = converter.convert("USD", "EUR", amounts[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double[] batchSinglePair() {
+        converter.convertAll(0, 1, amounts, results);
+        return results;
+    }
+
+    @Benchmark
+    public double[] perCallMixedPairs() {
+        for (int i = 0; i < size; i++) {
+            results[i] = converter.convert(fromCodes[i], toCodes[i], amounts[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double[] batchMixedPairs() {
+        converter.convertAll(fromOrdinals, toOrdinals, amounts, results);
+        return results;
+    }
+
+    @Benchmark
+    public long[] perCallMinor() {
+        for (int i = 0; i < size; i++) {
+            minorResults[i] = converter.convertMinor("USD", "EUR", minorAmounts[i]);
+        }
+        return minorResults;
+    }
+
+    @Benchmark
+    public long[] batchMinor() {
+        converter.convertMinorAll(0, 1, minorAmounts, minorResults);
+        return minorResults;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bankaccount.benchmarks;
+
+import com.example.bankaccount.AccountRegistry;
+import com.example.bankaccount.AccountType;
+import com.example.bankaccount.BankAccount;
+import com.example.bankaccount.InterestAccrualEngine;
+import com.example.bankaccount.InterestCalculator;
+import com.example.bankaccount.Journal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// One night's accrual over the whole book: per-balance calculator calls against the
+// column-wise fork/join engine, and the engine end to end over a registry, where gathering
+// balances and posting the interest back (locks, journal, ledger) are part of the cost.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class InterestAccrualBenchmark {
+    private static final String PIN = "1234";
+
+    @State(Scope.Benchmark)
+    public static class Columns {
+        @Param({"1000000", "10000000"})
+        int size;
+
+        InterestCalculator calculator;
+        InterestAccrualEngine engine;
+        long[] balances;
+        double[] rates;
+        double[] majorBalances;
+        long[] interest;
+
+        @Setup
+        public void setUp() {
+            calculator = new InterestCalculator();
+            engine = new InterestAccrualEngine();
+            SplittableRandom random = new SplittableRandom(42);
+            balances = new long[size];
+            majorBalances = new double[size];
+            for (int i = 0; i < size; i++) {
+                balances[i] = random.nextLong(0, 100_000_000);
+                majorBalances[i] = balances[i] / 100.0;
+            }
+            rates = new double[size];
+            Arrays.fill(rates, 0.03);
+            interest = new long[size];
+        }
+    }
+
+    // Registry-backed book; with journaled set, every posting is also written ahead and forced
+    @State(Scope.Benchmark)
+    public static class Book {
+        @Param({"100000", "1000000"})
+        int accounts;
+
+        @Param({"false", "true"})
+        boolean journaled;
+
+        InterestAccrualEngine engine;
+        AccountRegistry registry;
+        Journal journal;
+        Path directory;
+
+        @Setup
+        public void setUp() throws IOException {
+            engine = new InterestAccrualEngine();
+            registry = new AccountRegistry();
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < accounts; i++) {
+                registry.register(new BankAccount("SAV" + i, random.nextLong(0, 100_000_000) / 100.0, "USD",
+                        AccountType.SAVINGS, PIN));
+            }
+            if (journaled) {
+                directory = Files.createTempDirectory("accrual-journal");
+                journal = Journal.open(directory);
+                registry.setJournal(journal);
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            if (journal == null) {
+                return;
+            }
+            journal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long[] perAccountCalculator(Columns columns) {
+        for (int i = 0; i < columns.size; i++) {
+            columns.interest[i] = Math.round(columns.calculator.calculateDailyInterest(columns.majorBalances[i]) * 100);
+        }
+        return columns.interest;
+    }
+
+    @Benchmark
+    public long[] columnarForkJoin(Columns columns) {
+        columns.engine.accrue(columns.balances, columns.rates, 1, columns.interest);
+        return columns.interest;
+    }
+
+    @Benchmark
+    public int registryAccrual(Book book) {
+        return book.engine.accrue(book.registry, AccountType.SAVINGS, 0.03, 1);
+    }
+}
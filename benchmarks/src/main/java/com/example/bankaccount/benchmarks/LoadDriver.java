@@ -0,0 +1,333 @@
+package com.example.bankaccount.benchmarks;
+
+import com.example.bankaccount.AccountRegistry;
+import com.example.bankaccount.AccountType;
+import com.example.bankaccount.BankAccount;
+import com.example.bankaccount.CurrencyConverter;
+import com.example.bankaccount.LatencyHistogram;
+import com.example.bankaccount.LoanManagement;
+import com.example.bankaccount.ScheduledTransfer;
+import com.example.bankaccount.TransferExecutionEngine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a synthetic production mix against a fresh book of SAVINGS and CURRENT accounts and
+// reports latency percentiles per operation. Accounts are picked from a Zipf distribution so
+// that a few hot accounts contend the way real ones do.
+//
+// Closed loop: each worker issues its next request as soon as the last one returns. A stall
+// therefore hides the requests that would have queued behind it (coordinated omission), so
+// the corrected figures back-fill them at the worker's warmup median interval.
+// Open loop: requests are due at a fixed total rate whether or not the system keeps up, and
+// latency is measured from when a request was due rather than when it was sent.
+//
+//   java -cp benchmarks/target/benchmarks.jar com.example.bankaccount.benchmarks.LoadDriver \
+//       --accounts 10000 --threads 4 --mode open --rate 20000 --duration 30 --zipf 0.99
+public class LoadDriver {
+    private static final String PIN = "1234";
+    private static final String BASE_CURRENCY = "USD";
+    private static final int[] TENURES = {12, 24, 36, 60};
+    private static final WorkloadMix.Operation[] OPERATIONS = WorkloadMix.Operation.values();
+
+    enum Mode {
+        OPEN, CLOSED
+    }
+
+    private final Mode mode;
+    private final int threads;
+    private final double rate;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final long seed;
+    private final WorkloadMix mix;
+    private final ZipfDistribution hotAccounts;
+    private final String[] accountIds;
+
+    private final AccountRegistry registry = new AccountRegistry();
+    private final CurrencyConverter converter = new CurrencyConverter();
+    private final LoanManagement loans = new LoanManagement();
+    private final ScheduledTransfer scheduled = new ScheduledTransfer();
+    private final TransferExecutionEngine engine = new TransferExecutionEngine(registry);
+    private final AtomicLong scheduledExecuted = new AtomicLong();
+    private final int baseOrdinal;
+    private final int[] quoteOrdinals;
+
+    LoadDriver(Map<String, String> options) {
+        mode = Mode.valueOf(options.getOrDefault("mode", "closed").toUpperCase(Locale.ROOT));
+        threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+        rate = Double.parseDouble(options.getOrDefault("rate", "10000"));
+        warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "5")));
+        durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        mix = WorkloadMix.parse(options.getOrDefault("mix", WorkloadMix.DEFAULT));
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "10000"));
+        double savingsShare = Double.parseDouble(options.getOrDefault("savings-share", "0.5"));
+        hotAccounts = new ZipfDistribution(accounts, Double.parseDouble(options.getOrDefault("zipf", "0.99")));
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        if (mode == Mode.OPEN && !(rate > 0)) {
+            throw new IllegalArgumentException("Open loop needs a positive --rate");
+        }
+
+        accountIds = new String[accounts];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = "ACC" + i;
+            AccountType type = random.nextDouble() < savingsShare ? AccountType.SAVINGS : AccountType.CURRENT;
+            registry.register(new BankAccount(accountIds[i], 10_000.0, BASE_CURRENCY, type, PIN));
+        }
+        baseOrdinal = converter.ordinalOf(BASE_CURRENCY);
+        List<Integer> quotes = new ArrayList<>();
+        for (String currency : converter.getExchangeRates().keySet()) {
+            if (!currency.equals(BASE_CURRENCY)) {
+                quotes.add(converter.ordinalOf(currency));
+            }
+        }
+        quoteOrdinals = quotes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadDriver driver = new LoadDriver(parseOptions(args));
+        driver.report(driver.run());
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value pairs, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    List<Worker> run() throws InterruptedException {
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> running = new ArrayList<>();
+        long begin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(i, begin);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "load-worker-" + i);
+            running.add(thread);
+            thread.start();
+        }
+        // Scheduled transfers are dated today, so a background job keeps draining them
+        ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor();
+        drainer.scheduleWithFixedDelay(this::drainScheduled, 50, 50, TimeUnit.MILLISECONDS);
+        for (Thread thread : running) {
+            thread.join();
+        }
+        drainer.shutdown();
+        drainer.awaitTermination(1, TimeUnit.MINUTES);
+        drainScheduled();
+        return workers;
+    }
+
+    // ScheduledTransfer is not thread-safe, so scheduling and draining share its monitor
+    private void drainScheduled() {
+        synchronized (scheduled) {
+            for (TransferExecutionEngine.Outcome outcome : scheduled.executeDueTransfers(engine)) {
+                if (outcome.status() == TransferExecutionEngine.Status.EXECUTED) {
+                    scheduledExecuted.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Returns false when the bank turned the request down (insufficient funds, existing loan, ...)
+    boolean execute(WorkloadMix.Operation operation, SplittableRandom random) {
+        String account = accountIds[hotAccounts.sample(random)];
+        try {
+            return switch (operation) {
+                case DEPOSIT -> registry.depositMinor(account, random.nextLong(100, 50_000), PIN);
+                case WITHDRAW -> registry.withdrawMinor(account, random.nextLong(100, 50_000), PIN);
+                case TRANSFER -> registry.transferMinor(account, counterparty(account, random),
+                        random.nextLong(100, 20_000), PIN);
+                case CONVERT -> {
+                    int quote = quoteOrdinals[random.nextInt(quoteOrdinals.length)];
+                    converter.convertMinor(baseOrdinal, quote, registry.getBalanceMinor(account));
+                    yield true;
+                }
+                case LOAN_APPLY -> {
+                    loans.applyForLoan(account, random.nextInt(1_000, 50_000), random.nextDouble(0.05, 0.12),
+                            TENURES[random.nextInt(TENURES.length)]);
+                    yield true;
+                }
+                case LOAN_REPAY -> {
+                    // Rejected when the account has no loan; a large enough payment closes it
+                    loans.repayLoanMinor(account, random.nextLong(5_000, 500_000));
+                    yield true;
+                }
+                case SCHEDULE -> {
+                    synchronized (scheduled) {
+                        scheduled.scheduleTransfer(account, counterparty(account, random),
+                                random.nextInt(1, 200), LocalDate.now());
+                    }
+                    yield true;
+                }
+            };
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private String counterparty(String account, SplittableRandom random) {
+        String other = accountIds[hotAccounts.sample(random)];
+        return other.equals(account) ? accountIds[random.nextInt(accountIds.length)] : other;
+    }
+
+    void report(List<Worker> workers) {
+        LatencyHistogram[] corrected = new LatencyHistogram[OPERATIONS.length];
+        LatencyHistogram[] service = new LatencyHistogram[OPERATIONS.length];
+        LatencyHistogram allCorrected = new LatencyHistogram();
+        LatencyHistogram allService = new LatencyHistogram();
+        long[] accepted = new long[OPERATIONS.length];
+        long[] rejected = new long[OPERATIONS.length];
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            corrected[op] = new LatencyHistogram();
+            service[op] = new LatencyHistogram();
+            for (Worker worker : workers) {
+                corrected[op].add(worker.corrected[op]);
+                service[op].add(worker.service[op]);
+                accepted[op] += worker.accepted[op];
+                rejected[op] += worker.rejected[op];
+            }
+            allCorrected.add(corrected[op]);
+            allService.add(service[op]);
+        }
+        double seconds = durationNanos / 1e9;
+        System.out.printf(Locale.ROOT, "Mode %s, %d threads, %d accounts, mix %s%n", mode, threads,
+                accountIds.length, mix);
+        if (mode == Mode.OPEN) {
+            System.out.printf(Locale.ROOT, "Target rate %.0f ops/s%n", rate);
+        }
+        System.out.printf(Locale.ROOT, "Hottest 1%% of accounts take %.1f%% of requests%n",
+                100 * hotAccounts.headShare(Math.max(1, accountIds.length / 100)));
+        System.out.printf(Locale.ROOT, "Completed %d requests in %.1f s: %.0f ops/s; %d scheduled transfers executed%n",
+                allService.getCount(), seconds, allService.getCount() / seconds, scheduledExecuted.get());
+        System.out.printf(Locale.ROOT, "%n%-12s %10s %10s %s%n", "operation", "accepted", "rejected",
+                "latency us (p50 / p90 / p99 / p99.9 / max)");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            if (service[op].getCount() == 0) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%-12s %10d %10d corrected %s%n", OPERATIONS[op], accepted[op],
+                    rejected[op], percentiles(corrected[op]));
+            System.out.printf(Locale.ROOT, "%-12s %10s %10s service   %s%n", "", "", "", percentiles(service[op]));
+        }
+        System.out.printf(Locale.ROOT, "%-34s corrected %s%n", "ALL", percentiles(allCorrected));
+        System.out.printf(Locale.ROOT, "%-34s service   %s%n", "", percentiles(allService));
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "%.1f / %.1f / %.1f / %.1f / %.1f",
+                histogram.valueAtPercentile(50) / 1e3, histogram.valueAtPercentile(90) / 1e3,
+                histogram.valueAtPercentile(99) / 1e3, histogram.valueAtPercentile(99.9) / 1e3,
+                histogram.getMax() / 1e3);
+    }
+
+    // One load thread. Histograms and counters are private to it and only read after join.
+    final class Worker implements Runnable {
+        private final int index;
+        private final long begin;
+        private final SplittableRandom random;
+        private final LatencyHistogram warmup = new LatencyHistogram();
+        final LatencyHistogram[] corrected = new LatencyHistogram[OPERATIONS.length];
+        final LatencyHistogram[] service = new LatencyHistogram[OPERATIONS.length];
+        final long[] accepted = new long[OPERATIONS.length];
+        final long[] rejected = new long[OPERATIONS.length];
+
+        Worker(int index, long begin) {
+            this.index = index;
+            this.begin = begin;
+            this.random = new SplittableRandom(seed + index + 1);
+            for (int op = 0; op < OPERATIONS.length; op++) {
+                corrected[op] = new LatencyHistogram();
+                service[op] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (mode == Mode.OPEN) {
+                runOpenLoop();
+            } else {
+                runClosedLoop();
+            }
+        }
+
+        // Each worker owns every threads-th slot of the global arrival schedule
+        private void runOpenLoop() {
+            long measureFrom = begin + warmupNanos;
+            long end = measureFrom + durationNanos;
+            double interval = threads * 1e9 / rate;
+            double offset = index * 1e9 / rate;
+            for (long k = 0; ; k++) {
+                long due = begin + (long) (offset + k * interval);
+                if (due >= end) {
+                    return;
+                }
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                WorkloadMix.Operation operation = mix.next(random);
+                long start = System.nanoTime();
+                boolean ok = execute(operation, random);
+                long done = System.nanoTime();
+                if (due >= measureFrom) {
+                    count(operation, ok);
+                    corrected[operation.ordinal()].record(done - due);
+                    service[operation.ordinal()].record(done - start);
+                }
+            }
+        }
+
+        private void runClosedLoop() {
+            long measureFrom = begin + warmupNanos;
+            long end = measureFrom + durationNanos;
+            long expectedInterval = -1;
+            while (true) {
+                WorkloadMix.Operation operation = mix.next(random);
+                long start = System.nanoTime();
+                if (start >= end) {
+                    return;
+                }
+                boolean ok = execute(operation, random);
+                long elapsed = System.nanoTime() - start;
+                if (start < measureFrom) {
+                    warmup.record(elapsed);
+                    continue;
+                }
+                if (expectedInterval < 0) {
+                    expectedInterval = warmup.valueAtPercentile(50);
+                }
+                count(operation, ok);
+                corrected[operation.ordinal()].recordCorrected(elapsed, expectedInterval);
+                service[operation.ordinal()].record(elapsed);
+            }
+        }
+
+        private void count(WorkloadMix.Operation operation, boolean ok) {
+            if (ok) {
+                accepted[operation.ordinal()]++;
+            } else {
+                rejected[operation.ordinal()]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bankaccount.benchmarks;
+
+import com.example.bankaccount.AccountRegistry;
+import com.example.bankaccount.ScheduledTransfer;
+import com.example.bankaccount.TransferExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One run of the due-transfer job. Executing drains the queue, so every invocation gets a
+// freshly scheduled book; a tenth of the transfers fall due later and stay queued.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduledTransferBenchmark {
+    private static final String PIN = "1234";
+
+    @Param({"1024", "65536"})
+    int accounts;
+
+    @Param({"10000"})
+    int transfers;
+
+    AccountRegistry registry;
+    TransferExecutionEngine engine;
+    ScheduledTransfer scheduled;
+    String[] ids;
+
+    @Setup(Level.Trial)
+    public void openAccounts() {
+        registry = new AccountRegistry();
+        engine = new TransferExecutionEngine(registry);
+        ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = "ACC" + i;
+            registry.openAccount(ids[i], 1_000_000_000.0, "USD", 0.0, PIN);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void schedule() {
+        scheduled = new ScheduledTransfer();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < transfers; i++) {
+            LocalDate date = i % 10 == 0 ? today.plusDays(1) : today;
+            scheduled.scheduleTransfer(ids[random.nextInt(accounts)], ids[random.nextInt(accounts)], 1.0, date);
+        }
+    }
+
+    @Benchmark
+    public List<TransferExecutionEngine.Outcome> executeDueTransfers() {
+        return scheduled.executeDueTransfers(engine);
+    }
+}
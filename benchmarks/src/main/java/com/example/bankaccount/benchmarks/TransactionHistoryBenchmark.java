@@ -0,0 +1,82 @@
+package com.example.bankaccount.benchmarks;
+
+import com.example.bankaccount.TransactionHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Keyword filtering and indexed search over histories of increasing length. About a third of
+// the entries are transfers, which cycle through 333 merchants and end in " by card", so the
+// rare keyword "MERCHANT42 " matches about one entry in a thousand (and not MERCHANT420..429).
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+    private static final int MERCHANTS = 333;
+
+    @Param({"1000", "100000"})
+    int historyLength;
+
+    TransactionHistory history;
+    LocalDateTime from;
+    LocalDateTime to;
+
+    @Setup
+    public void setUp() {
+        history = new TransactionHistory();
+        SplittableRandom random = new SplittableRandom(42);
+        int transfers = 0;
+        for (int i = 0; i < historyLength; i++) {
+            int kind = random.nextInt(3);
+            double amount = random.nextInt(1, 100_000) / 100.0;
+            history.addTransaction(switch (kind) {
+                case 0 -> "Deposited: " + amount;
+                case 1 -> "Withdrew: " + amount;
+                default -> "Transferred: " + amount + " to MERCHANT" + (transfers++ % MERCHANTS) + " by card";
+            });
+        }
+        int rareHits = filterRareKeyword().size();
+        if (rareHits == 0 || rareHits > historyLength / 100) {
+            throw new IllegalStateException("Rare keyword matched " + rareHits + " of " + historyLength);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        from = now.minusMinutes(1);
+        to = now.plusMinutes(1);
+    }
+
+    @Benchmark
+    public List<String> filterCommonKeyword() {
+        return history.filterTransactionsByKeyword("Deposited");
+    }
+
+    @Benchmark
+    public List<String> filterRareKeyword() {
+        return history.filterTransactionsByKeyword("MERCHANT42 ");
+    }
+
+    @Benchmark
+    public TransactionHistory.Page searchAllFirstPage() {
+        return history.searchAll(List.of("transferred", "merchant42"), 50, 0);
+    }
+
+    @Benchmark
+    public TransactionHistory.Page timeRangeFirstPage() {
+        return history.between(from, to, 50, 0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.bankaccount.benchmarks;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Relative weights of the operations a load run issues, parsed from e.g.
+// "deposit=30,withdraw=20,transfer=30,convert=10,loan_apply=3,loan_repay=4,schedule=3".
+// Operations left out of the spec are never issued.
+public class WorkloadMix {
+    public enum Operation {
+        DEPOSIT, WITHDRAW, TRANSFER, CONVERT, LOAN_APPLY, LOAN_REPAY, SCHEDULE
+    }
+
+    public static final String DEFAULT =
+            "deposit=30,withdraw=20,transfer=30,convert=10,loan_apply=3,loan_repay=4,schedule=3";
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Map<Operation, Integer> weights;
+    private final int[] cumulative = new int[OPERATIONS.length];
+
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        int total = 0;
+        for (Operation operation : OPERATIONS) {
+            total += weights.getOrDefault(operation, 0);
+            cumulative[operation.ordinal()] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Workload mix must have a positive weight");
+        }
+    }
+
+    public static WorkloadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid workload mix entry: " + part);
+            }
+            Operation operation;
+            int weight;
+            try {
+                operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+                weight = Integer.parseInt(pair[1].trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid workload mix entry: " + part, e);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Workload weights must not be negative");
+            }
+            weights.put(operation, weight);
+        }
+        return new WorkloadMix(weights);
+    }
+
+    public Operation next(SplittableRandom random) {
+        int draw = random.nextInt(cumulative[cumulative.length - 1]);
+        for (Operation operation : OPERATIONS) {
+            if (draw < cumulative[operation.ordinal()]) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bankaccount.benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Ranks 0..n-1 drawn with probability proportional to 1 / (rank + 1)^exponent, so a handful of
+// hot accounts take most of the traffic. Exponent 0 is uniform. Sampling is a binary search of
+// the precomputed CDF, which is exact and cheap next to the operation being driven.
+public class ZipfDistribution {
+    private final double[] cdf;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Zipf population must be positive");
+        }
+        if (!(exponent >= 0) || Double.isInfinite(exponent)) {
+            throw new IllegalArgumentException("Zipf exponent must not be negative");
+        }
+        cdf = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += Math.pow(rank + 1, -exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= total;
+        }
+        cdf[n - 1] = 1.0;
+    }
+
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // Share of all draws that land on the first ranks
+    public double headShare(int ranks) {
+        return ranks <= 0 ? 0 : cdf[Math.min(ranks, cdf.length) - 1];
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankaccount;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// One account's chain of entries in a shared Ledger. Appends swap the tail atomically and then
+// link the previous tail to the new entry, so concurrent writers never lock and readers walk
+// the chain through a LedgerCursor without copying it. On a reopened ledger the account
+// carries on from the chain it left there.
+public final class AccountLedger {
+    private static final VarHandle TAIL;
+    private static final VarHandle SIZE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(AccountLedger.class, "tail", long.class);
+            SIZE = lookup.findVarHandle(AccountLedger.class, "size", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Ledger ledger;
+    private final int owner;
+    private final int scale;
+    private volatile long head;
+    private volatile long tail;
+    private volatile int size;
+
+    public AccountLedger(Ledger ledger, String accountId, int scale) {
+        this.ledger = ledger;
+        this.owner = ledger.intern(accountId);
+        this.scale = scale;
+        long[] restored = ledger.takeRestoredChain(owner);
+        this.head = restored == null ? -1 : restored[0];
+        this.tail = restored == null ? -1 : restored[1];
+        this.size = restored == null ? 0 : (int) restored[2];
+    }
+
+    // counterparty is the other account or target currency, or for a NOTE the note text
+    public void record(Ledger.EntryType type, long amount, long balanceAfter, String counterparty) {
+        long index = type == Ledger.EntryType.NOTE
+                ? ledger.appendNote(owner, balanceAfter, counterparty == null ? "" : counterparty)
+                : ledger.append(owner, type, amount, balanceAfter,
+                        counterparty == null ? -1 : ledger.intern(counterparty));
+        attach(index);
+    }
+
+    // Records an entry without a counterparty into a slot the caller reserved from this
+    // account's ledger (see Ledger.reserve)
+    void recordAt(long index, Ledger.EntryType type, long amount, long balanceAfter) {
+        ledger.write(index, owner, type, amount, balanceAfter, -1);
+        attach(index);
+    }
+
+    private void attach(long index) {
+        long previous = (long) TAIL.getAndSet(this, index);
+        if (previous < 0) {
+            head = index;
+        } else {
+            ledger.link(previous, index);
+        }
+        SIZE.getAndAdd(this, 1);
+    }
+
+    Ledger getLedger() {
+        return ledger;
+    }
+
+    public LedgerCursor cursor() {
+        return new LedgerCursor(ledger, head, scale);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Detaches the chain; the entries stay in the ledger but are no longer reachable, and the
+    // marker left behind keeps a reopened ledger from restoring them.
+    public void clear() {
+        ledger.markCleared(owner);
+        tail = -1;
+        head = -1;
+        size = 0;
+    }
+}
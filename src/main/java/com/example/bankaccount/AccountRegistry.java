@@ -0,0 +1,573 @@
+package com.example.bankaccount;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AccountRegistry {
+    private static final int MIN_STRIPES = 64;
+    private static final int STRIPES_PER_CORE = 16;
+
+    private final ConcurrentMap<String, BankAccount> accounts;
+    private final Set<String> lockFreeAccounts;
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private volatile Journal journal;
+    private volatile Metrics metrics = Metrics.getDefault();
+    private volatile Ledger ledger = Ledger.getDefault();
+
+    public AccountRegistry() {
+        this(Runtime.getRuntime().availableProcessors() * STRIPES_PER_CORE);
+    }
+
+    public AccountRegistry(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(stripes, MIN_STRIPES) - 1) << 1;
+        this.accounts = new ConcurrentHashMap<>();
+        this.lockFreeAccounts = ConcurrentHashMap.newKeySet();
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Ledger that registered accounts keep their history in. One opened on a kept directory
+    // carries history across restarts; the default is a temporary one.
+    public void setLedger(Ledger ledger) {
+        if (!accounts.isEmpty()) {
+            throw new IllegalStateException("Ledger must be set before accounts are registered");
+        }
+        this.ledger = ledger;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public BankAccount openAccount(String accountId, double balance, String currency, double overdraftLimit, String pin) {
+        BankAccount account = new BankAccount(accountId, balance, currency, overdraftLimit, pin);
+        register(account);
+        return account;
+    }
+
+    public void register(BankAccount account) {
+        account.useLedger(ledger);
+        if (accounts.putIfAbsent(account.getAccountId(), account) != null) {
+            throw new IllegalStateException("Account already exists: " + account.getAccountId());
+        }
+        if (account instanceof CollectionAccount) {
+            lockFreeAccounts.add(account.getAccountId());
+        }
+        sync(log(JournalRecord.openAccount(account, account.pinHash())));
+    }
+
+    // Single-account deposits and withdrawals on a lock-free account skip the stripe lock and
+    // rely on the account's CAS balance cell; transfers still take both stripes. While a journal
+    // is attached the stripe lock is taken anyway (see lockFree).
+    public void enableLockFree(String accountId) {
+        require(accountId);
+        lockFreeAccounts.add(accountId);
+    }
+
+    public boolean isLockFree(String accountId) {
+        return lockFreeAccounts.contains(accountId);
+    }
+
+    public BankAccount getAccount(String accountId) {
+        return accounts.get(accountId);
+    }
+
+    public List<BankAccount> getAccounts() {
+        return new ArrayList<>(accounts.values());
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+
+    public double getBalance(String accountId) {
+        BankAccount account = require(accountId);
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            return account.getBalance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBalanceMinor(String accountId) {
+        BankAccount account = require(accountId);
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            return account.getBalanceMinor();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<String> getTransactionHistory(String accountId) {
+        BankAccount account = require(accountId);
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            return account.getTransactionHistory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean deposit(String accountId, double amount, String pin) {
+        BankAccount account = require(accountId, Metrics.Operation.DEPOSIT, System.nanoTime());
+        return depositMinor(accountId, Money.toMinor(amount, account.getScale()), pin);
+    }
+
+    public boolean depositMinor(String accountId, long amount, String pin) {
+        long start = System.nanoTime();
+        BankAccount account = require(accountId, Metrics.Operation.DEPOSIT, start);
+        boolean success;
+        Metrics.Result result;
+        long lsn = 0;
+        if (lockFree(accountId)) {
+            success = account.depositMinor(amount, pin);
+            if (success) {
+                lsn = log(JournalRecord.deposit(accountId, amount));
+            }
+            result = result(success, account, null, amount, pin);
+        } else {
+            ReentrantLock lock = lockFor(accountId);
+            acquire(lock, accountId);
+            try {
+                success = account.depositMinor(amount, pin);
+                if (success) {
+                    lsn = log(JournalRecord.deposit(accountId, amount), account, null);
+                }
+                result = result(success, account, null, amount, pin);
+            } finally {
+                lock.unlock();
+            }
+        }
+        sync(lsn);
+        metrics.record(Metrics.Operation.DEPOSIT, result, start);
+        return success;
+    }
+
+    public boolean withdraw(String accountId, double amount, String pin) {
+        BankAccount account = require(accountId, Metrics.Operation.WITHDRAW, System.nanoTime());
+        return withdrawMinor(accountId, Money.toMinor(amount, account.getScale()), pin);
+    }
+
+    public boolean withdrawMinor(String accountId, long amount, String pin) {
+        long start = System.nanoTime();
+        BankAccount account = require(accountId, Metrics.Operation.WITHDRAW, start);
+        boolean success;
+        Metrics.Result result;
+        long lsn = 0;
+        if (lockFree(accountId)) {
+            success = account.withdrawMinor(amount, pin);
+            if (success) {
+                lsn = log(JournalRecord.withdraw(accountId, amount));
+            }
+            result = result(success, account, null, amount, pin);
+        } else {
+            ReentrantLock lock = lockFor(accountId);
+            acquire(lock, accountId);
+            try {
+                success = account.withdrawMinor(amount, pin);
+                if (success) {
+                    lsn = log(JournalRecord.withdraw(accountId, amount), account, null);
+                }
+                result = result(success, account, null, amount, pin);
+            } finally {
+                lock.unlock();
+            }
+        }
+        sync(lsn);
+        metrics.record(Metrics.Operation.WITHDRAW, result, start);
+        return success;
+    }
+
+    public boolean transfer(String fromAccountId, String toAccountId, double amount, String pin) {
+        BankAccount source = require(fromAccountId, Metrics.Operation.TRANSFER, System.nanoTime());
+        return transferMinor(fromAccountId, toAccountId, Money.toMinor(amount, source.getScale()), pin);
+    }
+
+    public boolean transferMinor(String fromAccountId, String toAccountId, long amount, String pin) {
+        return transfer(fromAccountId, toAccountId, amount, pin, null) == Metrics.Result.SUCCESS;
+    }
+
+    // Executes a scheduled transfer; its execution marker is journaled in the transfer record.
+    // A scheduled transfer was authorised when it was scheduled, so its PIN is not checked.
+    // Returns why the transfer was turned down, worked out while the stripe locks are held.
+    Metrics.Result transfer(String fromAccountId, String toAccountId, long amount, String pin,
+                            ScheduledTransfer.Transfer scheduled) {
+        return transfer(fromAccountId, toAccountId, amount, pin, scheduled, null);
+    }
+
+    // With durable set, the transfer does not wait for its journal record: it raises durable[0]
+    // to the record's LSN, and the caller passes that to sync once for a whole batch
+    Metrics.Result transfer(String fromAccountId, String toAccountId, long amount, String pin,
+                            ScheduledTransfer.Transfer scheduled, long[] durable) {
+        long start = System.nanoTime();
+        BankingEvents.Transfer event = new BankingEvents.Transfer();
+        event.begin();
+        BankAccount source = require(fromAccountId, Metrics.Operation.TRANSFER, start);
+        BankAccount target = require(toAccountId, Metrics.Operation.TRANSFER, start);
+        int first = stripe(fromAccountId);
+        int second = stripe(toAccountId);
+        if (first > second) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        boolean authorised = scheduled != null || source.authenticate(pin);
+        boolean success;
+        Metrics.Result result;
+        long lsn = 0;
+        long lockWait = acquire(locks[first], fromAccountId);
+        try {
+            if (first != second) {
+                lockWait += acquire(locks[second], toAccountId);
+            }
+            try {
+                success = authorised && source.moveTo(target, amount);
+                if (success) {
+                    long credited = Money.rescale(amount, source.getScale(), target.getScale());
+                    lsn = log(scheduled == null
+                            ? JournalRecord.transfer(fromAccountId, toAccountId, amount, credited)
+                            : JournalRecord.transfer(fromAccountId, toAccountId, amount, credited, scheduled),
+                            source, target);
+                }
+                result = result(success, authorised, source, target, amount);
+            } finally {
+                if (first != second) {
+                    locks[second].unlock();
+                }
+            }
+        } finally {
+            locks[first].unlock();
+        }
+        if (durable == null) {
+            sync(lsn);
+        } else {
+            durable[0] = Math.max(durable[0], lsn);
+        }
+        source.commitTransfer(event, target, amount, lockWait, success);
+        metrics.record(Metrics.Operation.TRANSFER, result, start);
+        return result;
+    }
+
+    // Credits interest[i] to accounts[i] for the whole batch, skipping zero amounts. Postings
+    // are grouped by stripe so each stripe lock is taken once; a stripe's journal records go
+    // in with one append, and the batch claims its ledger entries in one reservation and waits
+    // once for durability. Returns the number of accounts credited.
+    int postInterest(BankAccount[] accounts, long[] interest) {
+        int[] stripeOf = new int[accounts.length];
+        int[] starts = new int[locks.length + 1];
+        int posted = 0;
+        for (int i = 0; i < accounts.length; i++) {
+            if (interest[i] != 0) {
+                stripeOf[i] = stripe(accounts[i].getAccountId());
+                starts[stripeOf[i] + 1]++;
+                posted++;
+            }
+        }
+        for (int s = 0; s < locks.length; s++) {
+            starts[s + 1] += starts[s];
+        }
+        int[] order = new int[posted];
+        int[] fill = starts.clone();
+        for (int i = 0; i < accounts.length; i++) {
+            if (interest[i] != 0) {
+                order[fill[stripeOf[i]]++] = i;
+            }
+        }
+        long ledgerIndex = ledger.reserve(posted);
+        Journal current = journal;
+        List<JournalRecord> records = new ArrayList<>();
+        long lsn = 0;
+        for (int s = 0; s < locks.length; s++) {
+            if (starts[s] == starts[s + 1]) {
+                continue;
+            }
+            acquire(locks[s], accounts[order[starts[s]]].getAccountId());
+            try {
+                try {
+                    for (int k = starts[s]; k < starts[s + 1]; k++) {
+                        int i = order[k];
+                        accounts[i].receiveInterest(interest[i], ledgerIndex++);
+                        if (current != null) {
+                            records.add(JournalRecord.interest(accounts[i].getAccountId(), interest[i]));
+                            addAccrual(records, accounts[i]);
+                        }
+                    }
+                } finally {
+                    // Postings made before a credit overflowed are journaled all the same
+                    if (current != null) {
+                        lsn = Math.max(lsn, current.appendAll(records));
+                        records.clear();
+                    }
+                }
+            } finally {
+                locks[s].unlock();
+            }
+        }
+        sync(lsn);
+        return posted;
+    }
+
+    public void convertBalance(String accountId, double rate, String targetCurrency) {
+        BankAccount account = require(accountId);
+        long lsn;
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            account.convertBalance(rate, targetCurrency);
+            lsn = log(JournalRecord.convert(accountId, rate, targetCurrency), account, null);
+        } finally {
+            lock.unlock();
+        }
+        sync(lsn);
+    }
+
+    public void lockAccount(String accountId) {
+        BankAccount account = require(accountId);
+        long lsn;
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            account.lockAccount();
+            lsn = log(JournalRecord.lock(accountId));
+        } finally {
+            lock.unlock();
+        }
+        sync(lsn);
+    }
+
+    public void changePin(String accountId, String oldPin, String newPin) {
+        BankAccount account = require(accountId);
+        long lsn;
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            account.changePin(oldPin, newPin);
+            lsn = log(JournalRecord.changePin(accountId, account.pinHash()));
+        } finally {
+            lock.unlock();
+        }
+        sync(lsn);
+    }
+
+    public void unlockAccount(String accountId, String pin) {
+        BankAccount account = require(accountId);
+        long lsn;
+        ReentrantLock lock = lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            account.unlockAccount(pin);
+            lsn = log(JournalRecord.unlock(accountId));
+        } finally {
+            lock.unlock();
+        }
+        sync(lsn);
+    }
+
+    // Re-applies a journaled mutation during recovery. Checks that already passed when the
+    // record was written (PIN, floor) are not repeated, and nothing is journaled again.
+    void apply(JournalRecord record) {
+        switch (record.getType()) {
+            case OPEN_ACCOUNT -> restore(restoreAccount(record));
+            case DEPOSIT, INTEREST -> require(record.getAccountId()).credit(record.getAmount());
+            case WITHDRAW -> require(record.getAccountId()).credit(-record.getAmount());
+            case TRANSFER -> {
+                require(record.getAccountId()).credit(-record.getAmount());
+                require(record.getCounterparty()).credit(record.getSecondaryAmount());
+            }
+            case CONVERT -> require(record.getAccountId()).applyRate(record.getRate());
+            case LOCK -> require(record.getAccountId()).lockAccount();
+            case UNLOCK -> require(record.getAccountId()).forceUnlock();
+            case CHANGE_PIN -> require(record.getAccountId()).restorePinHash(record.getText());
+            case ACCRUAL -> require(record.getAccountId()).restoreAccrual(record.getAmount(), record.getRate());
+            default -> {
+            }
+        }
+    }
+
+    private static BankAccount restoreAccount(JournalRecord record) {
+        return restoreAccount(record.getAccountId(), record.getCounterparty(), record.getReference(),
+                record.getAmount(), record.getSecondaryAmount(), record.getText());
+    }
+
+    // pinHash is the stored PinHash form (or, from older files, the PIN itself)
+    static BankAccount restoreAccount(String accountId, String currency, long reference, long balance,
+                                      long overdraftLimit, String pinHash) {
+        int scale = Money.scaleOf(currency);
+        double openingBalance = Money.toMajor(balance, scale);
+        AccountType accountType = JournalRecord.accountType(reference);
+        BankAccount account;
+        if ((reference & JournalRecord.FLAG_COLLECTION) != 0) {
+            account = new CollectionAccount(accountId, openingBalance, currency, null);
+        } else if (accountType != null) {
+            account = new BankAccount(accountId, openingBalance, currency, accountType, null);
+        } else {
+            account = new BankAccount(accountId, openingBalance, currency, Money.toMajor(overdraftLimit, scale), null);
+        }
+        account.restorePinHash(pinHash);
+        return account;
+    }
+
+    // Installs an account exactly as captured in a snapshot, bypassing the journal.
+    void restore(BankAccount account) {
+        account.useLedger(ledger);
+        accounts.put(account.getAccountId(), account);
+        if (account instanceof CollectionAccount) {
+            lockFreeAccounts.add(account.getAccountId());
+        }
+    }
+
+    // Whether a single-account update may skip the stripe lock. With a journal, every update
+    // of an account has to reach the log in the order it was applied, or replaying a
+    // conversion against deposits that overtook it would rebuild a different balance, so
+    // append and apply then share the stripe lock for every account.
+    private boolean lockFree(String accountId) {
+        return journal == null && lockFreeAccounts.contains(accountId);
+    }
+
+    // Takes an account's stripe lock and returns how long the caller was blocked. The
+    // uncontended case is a single tryLock; only a thread that has to queue reads the clock
+    // and reports the wait as an AccountLockWait event.
+    private long acquire(ReentrantLock lock, String accountId) {
+        if (lock.tryLock()) {
+            return 0;
+        }
+        BankingEvents.AccountLockWait event = new BankingEvents.AccountLockWait();
+        long start = System.nanoTime();
+        event.begin();
+        lock.lock();
+        event.end();
+        long waited = System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.accountId = accountId;
+            event.stripe = stripe(accountId);
+            event.queueLength = lock.getQueueLength();
+            event.commit();
+        }
+        return waited;
+    }
+
+    ReentrantLock lockFor(String accountId) {
+        return locks[stripe(accountId)];
+    }
+
+    int stripe(String accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private long log(JournalRecord record) {
+        Journal current = journal;
+        return current == null ? 0 : current.append(record);
+    }
+
+    // Journals a balance change together with the accrual state of the accounts it touched
+    // that accrue interest on touch, so recovery resumes their accrual where it stood.
+    // target is null for single-account operations.
+    private long log(JournalRecord record, BankAccount account, BankAccount target) {
+        Journal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        if (account.getInterestCalculator() == null && (target == null || target.getInterestCalculator() == null)) {
+            return current.append(record);
+        }
+        List<JournalRecord> records = new ArrayList<>(3);
+        records.add(record);
+        addAccrual(records, account);
+        if (target != null) {
+            addAccrual(records, target);
+        }
+        return current.appendAll(records);
+    }
+
+    private static void addAccrual(List<JournalRecord> records, BankAccount account) {
+        if (account.getInterestCalculator() != null) {
+            records.add(account.accrualRecord());
+        }
+    }
+
+    // Waits until the journal holds every record up to lsn; 0 means nothing was journaled
+    void sync(long lsn) {
+        Journal current = journal;
+        if (current != null && lsn > 0) {
+            current.awaitDurable(lsn);
+        }
+    }
+
+    // Works out why the account turned an operation down, only once it has. target is null
+    // for single-account operations.
+    private static Metrics.Result result(boolean success, BankAccount account, BankAccount target, long amount,
+                                         String pin) {
+        return result(success, success || account.authenticate(pin), account, target, amount);
+    }
+
+    private static Metrics.Result result(boolean success, boolean authorised, BankAccount account,
+                                         BankAccount target, long amount) {
+        if (success) {
+            return Metrics.Result.SUCCESS;
+        }
+        if (!authorised) {
+            return Metrics.Result.AUTHENTICATION_FAILED;
+        }
+        if (amount <= 0) {
+            return Metrics.Result.INVALID_AMOUNT;
+        }
+        if (account.isLocked() || (target != null && target.isLocked())) {
+            return Metrics.Result.ACCOUNT_LOCKED;
+        }
+        return Metrics.Result.INSUFFICIENT_FUNDS;
+    }
+
+    private BankAccount require(String accountId, Metrics.Operation operation, long start) {
+        BankAccount account = accounts.get(accountId);
+        if (account == null) {
+            metrics.record(operation, Metrics.Result.UNKNOWN_ACCOUNT, start);
+            throw new IllegalArgumentException("Unknown account: " + accountId);
+        }
+        return account;
+    }
+
+    private BankAccount require(String accountId) {
+        BankAccount account = accounts.get(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Unknown account: " + accountId);
+        }
+        return account;
+    }
+}
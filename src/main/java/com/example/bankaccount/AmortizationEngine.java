@@ -0,0 +1,101 @@
+package com.example.bankaccount;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Equated monthly installment (EMI) schedules for reducing-balance loans, used to quote terms;
+// Loan itself bills flat interest in equal installments. A portfolio holds
+// many loans with the same terms, so annuity factors are cached per (rate, tenure) and whole
+// schedules per (principal, rate, tenure); identical loans share one immutable schedule.
+public class AmortizationEngine {
+    static final int MAX_CACHED_SCHEDULES = 10_000;
+
+    public record Installment(int number, long payment, long principal, long interest, long balance) {
+    }
+
+    // Amounts are minor units of the loan currency
+    public record Schedule(long emi, List<Installment> installments) {
+        public long totalInterest() {
+            long total = 0;
+            for (Installment installment : installments) {
+                total += installment.interest();
+            }
+            return total;
+        }
+    }
+
+    private record Terms(long principal, double annualRate, int tenureMonths) {
+    }
+
+    private record FactorKey(double annualRate, int tenureMonths) {
+    }
+
+    private final Map<FactorKey, Double> factors = new ConcurrentHashMap<>();
+    private final Map<Terms, Schedule> schedules = new ConcurrentHashMap<>();
+
+    public Schedule schedule(long principal, double annualRate, int tenureMonths) {
+        if (principal <= 0) {
+            throw new IllegalArgumentException("Principal must be positive");
+        }
+        if (tenureMonths <= 0) {
+            throw new IllegalArgumentException("Tenure must be positive");
+        }
+        if (!(annualRate >= 0) || Double.isInfinite(annualRate)) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        Terms terms = new Terms(principal, annualRate, tenureMonths);
+        Schedule cached = schedules.get(terms);
+        if (cached != null) {
+            return cached;
+        }
+        Schedule schedule = build(terms);
+        // Past the bound, unusual terms are computed on demand rather than growing the cache
+        if (schedules.size() < MAX_CACHED_SCHEDULES) {
+            Schedule raced = schedules.putIfAbsent(terms, schedule);
+            return raced != null ? raced : schedule;
+        }
+        return schedule;
+    }
+
+    public long emi(long principal, double annualRate, int tenureMonths) {
+        return Money.multiply(principal, annuityFactor(annualRate, tenureMonths));
+    }
+
+    // r / (1 - (1 + r)^-n) for monthly rate r, or 1/n for an interest-free loan
+    double annuityFactor(double annualRate, int tenureMonths) {
+        return factors.computeIfAbsent(new FactorKey(annualRate, tenureMonths), key -> {
+            double monthlyRate = key.annualRate() / 12;
+            if (monthlyRate == 0) {
+                return 1.0 / key.tenureMonths();
+            }
+            return monthlyRate / -Math.expm1(-key.tenureMonths() * Math.log1p(monthlyRate));
+        });
+    }
+
+    int cachedFactors() {
+        return factors.size();
+    }
+
+    int cachedSchedules() {
+        return schedules.size();
+    }
+
+    // Interest is charged on the opening balance each month; the final installment settles
+    // whatever rounding has left over
+    private Schedule build(Terms terms) {
+        long emi = emi(terms.principal(), terms.annualRate(), terms.tenureMonths());
+        double monthlyRate = terms.annualRate() / 12;
+        List<Installment> installments = new ArrayList<>(terms.tenureMonths());
+        long balance = terms.principal();
+        for (int month = 1; month <= terms.tenureMonths(); month++) {
+            long interest = Money.multiply(balance, monthlyRate);
+            long principalPart = month == terms.tenureMonths() ? balance : Math.min(emi - interest, balance);
+            balance -= principalPart;
+            installments.add(new Installment(month, principalPart + interest, principalPart, interest, balance));
+        }
+        return new Schedule(emi, Collections.unmodifiableList(installments));
+    }
+}
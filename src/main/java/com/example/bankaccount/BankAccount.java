@@ -1,25 +1,62 @@
 package com.example.bankaccount;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
 
 public class BankAccount {
+    static final long REJECTED = Long.MIN_VALUE;
+    // accruedThroughDay of an account that has never accrued interest
+    static final long NEVER_ACCRUED = Long.MIN_VALUE;
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(BankAccount.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final String accountId;
-    private double balance;
+    private volatile long balance;
     private final String currency;
-    private double overdraftLimit;
-    private final List<String> transactionHistory;
-    private String pin;
-    private boolean isLocked;
+    private final int scale;
+    private final AccountType accountType;
+    private long overdraftLimit;
+    private final long minimumBalance;
+    private AccountLedger transactionHistory; // replaced only by useLedger, before the account is shared
+    private volatile String pinHash; // see PinHash
+    // Read inside the balance CAS loops, so a lock set by another thread stops the next attempt
+    private volatile boolean isLocked;
+    // Accrual on touch, off unless enabled. accruedThroughDay is volatile so an account that
+    // is already up to date today costs one read; catching up takes the monitor.
+    private volatile InterestCalculator interestCalculator;
+    private volatile long accruedThroughDay = NEVER_ACCRUED;
+    private double unpostedInterest; // minor units, guarded by this
 
 
     public BankAccount(String accountId, double balance, String currency, double overdraftLimit, String pin) {
+        this(accountId, balance, currency, null, overdraftLimit, 0.0, pin);
+    }
+
+    public BankAccount(String accountId, double balance, String currency, AccountType accountType, String pin) {
+        this(accountId, balance, currency, accountType,
+                accountType.getOverdraftLimit(), accountType.getMinimumBalance(), pin);
+    }
+
+    private BankAccount(String accountId, double balance, String currency, AccountType accountType,
+                        double overdraftLimit, double minimumBalance, String pin) {
         this.accountId = accountId;
-        this.balance = balance;
         this.currency = currency;
-        this.overdraftLimit = overdraftLimit;
-        this.pin = pin;
-        this.transactionHistory = new ArrayList<>();
+        this.scale = Money.scaleOf(currency);
+        this.accountType = accountType;
+        this.balance = Money.toMinor(balance, scale);
+        this.overdraftLimit = Money.toMinor(overdraftLimit, scale);
+        this.minimumBalance = Money.toMinor(minimumBalance, scale);
+        this.pinHash = PinHash.create(pin);
+        this.transactionHistory = new AccountLedger(Ledger.getDefault(), accountId, scale);
     }
 
     public String getAccountId() {
@@ -27,13 +64,31 @@ public class BankAccount {
     }
 
     public double getBalance() {
+        return Money.toMajor(getBalanceMinor(), scale);
+    }
+
+    // Balance in minor units (e.g. cents) of the account currency
+    public long getBalanceMinor() {
+        accrueInterest();
         return balance;
     }
 
+    public Money getBalanceAsMoney() {
+        return Money.ofMinor(getBalanceMinor(), currency);
+    }
+
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
     public String getCurrency() {
         return currency;
     }
 
+    public int getScale() {
+        return scale;
+    }
+
     public boolean isLocked() {
         return isLocked;
     }
@@ -42,6 +97,10 @@ public class BankAccount {
         isLocked = true;
     }
 
+    void forceUnlock() {
+        isLocked = false;
+    }
+
     public void unlockAccount(String pin) {
         if (authenticate(pin)) {
             isLocked = false;
@@ -51,62 +110,294 @@ public class BankAccount {
     }
 
     public boolean deposit(double amount, String pin) {
-        if (!authenticate(pin)) return false;
-        if (amount > 0) {
-            balance += amount;
-            logTransaction("Deposited: " + amount);
-            return true;
+        return depositMinor(Money.toMinor(amount, scale), pin);
+    }
+
+    public boolean depositMinor(long amount, String pin) {
+        if (!authenticate(pin) || amount <= 0) return false;
+        long balanceAfter = creditUnlessLocked(amount);
+        if (balanceAfter == REJECTED) {
+            return false;
         }
-        return false;
+        transactionHistory.record(Ledger.EntryType.DEPOSIT, amount, balanceAfter, null);
+        return true;
     }
 
     // Clear transaction history for testing
     public void clearTransactionHistory() {
-        this.transactionHistory.clear();
+        transactionHistory.clear();
+    }
+
+    // Moves an account that has no history yet onto ledger, picking up the chain it left there
+    // before a restart. AccountRegistry calls this before publishing the account.
+    void useLedger(Ledger ledger) {
+        if (transactionHistory.getLedger() == ledger) {
+            return;
+        }
+        if (transactionHistory.size() != 0) {
+            throw new IllegalStateException("Account already has history in another ledger: " + accountId);
+        }
+        transactionHistory = new AccountLedger(ledger, accountId, scale);
     }
 
-    // Log transaction method
+    // Free-text entries go to the ledger's notes file, a read per note when history is listed
     public void logTransaction(String transactionDetails) {
-        transactionHistory.add(transactionDetails);
+        transactionHistory.record(Ledger.EntryType.NOTE, 0, getBalanceMinor(), transactionDetails);
+    }
+
+    // Batch interest posting: the history entry goes into ledgerIndex, a slot the caller
+    // reserved from the registry's ledger that every account it holds records into
+    void receiveInterest(long amount, long ledgerIndex) {
+        long balanceAfter = credit(amount);
+        transactionHistory.recordAt(ledgerIndex, Ledger.EntryType.INTEREST, amount, balanceAfter);
+    }
+
+    // From now on interest accrues lazily whenever the balance is read or changed, and is
+    // posted by calculator.postAccruedInterest. An account that accrued before, including one
+    // recovered from the journal, carries on from the day it had reached with what it had
+    // not yet posted.
+    public void enableInterestAccrual(InterestCalculator calculator) {
+        synchronized (this) {
+            if (accruedThroughDay == NEVER_ACCRUED) {
+                accruedThroughDay = calculator.today();
+                unpostedInterest = 0;
+            }
+            interestCalculator = calculator;
+        }
+    }
+
+    // Reinstates journaled or snapshotted accrual state; it takes effect once accrual is enabled
+    synchronized void restoreAccrual(long accruedThroughDay, double unpostedInterest) {
+        this.accruedThroughDay = accruedThroughDay;
+        this.unpostedInterest = unpostedInterest;
+    }
+
+    long getAccruedThroughDay() {
+        return accruedThroughDay;
+    }
+
+    synchronized double getUnpostedInterest() {
+        return unpostedInterest;
+    }
+
+    // Both halves of the accrual state, read together under the monitor
+    synchronized JournalRecord accrualRecord() {
+        return JournalRecord.accrual(accountId, accruedThroughDay, unpostedInterest);
+    }
+
+    InterestCalculator getInterestCalculator() {
+        return interestCalculator;
+    }
+
+    // Accrued but not yet posted interest, brought up to today
+    public double getAccruedInterest() {
+        accrueInterest();
+        synchronized (this) {
+            return unpostedInterest * Money.scaleFactor(scale, 0);
+        }
+    }
+
+    // Charges the days since the last accrual at the balance held throughout them. Runs before
+    // every balance change, so each day is charged at its closing balance.
+    void accrueInterest() {
+        InterestCalculator calculator = interestCalculator;
+        if (calculator == null) {
+            return;
+        }
+        long today = calculator.today();
+        if (accruedThroughDay >= today) {
+            return;
+        }
+        synchronized (this) {
+            long days = today - accruedThroughDay;
+            if (days > 0) {
+                unpostedInterest += calculator.accrue(accountType, balance, scale, days);
+                accruedThroughDay = today;
+            }
+        }
+    }
+
+    // Removes the whole minor units of accrued interest for posting; the fraction carries over
+    synchronized long takeAccruedInterest() {
+        accrueInterest();
+        long whole = (long) unpostedInterest;
+        unpostedInterest -= whole;
+        return whole;
+    }
+
+    // Returns the balance after the credit. Bank-side credits (interest, recovery, the target
+    // leg of a transfer whose locks are held) ignore the account lock. Throws
+    // ArithmeticException rather than let the balance wrap.
+    long credit(long amount) {
+        accrueInterest();
+        long current;
+        long updated;
+        do {
+            current = balance;
+            updated = Math.addExact(current, amount);
+        } while (!BALANCE.compareAndSet(this, current, updated));
+        return updated;
+    }
+
+    // Returns the balance after the credit, or REJECTED if the account is locked
+    long creditUnlessLocked(long amount) {
+        accrueInterest();
+        long current;
+        long updated;
+        do {
+            if (isLocked) {
+                return REJECTED;
+            }
+            current = balance;
+            updated = Math.addExact(current, amount);
+        } while (!BALANCE.compareAndSet(this, current, updated));
+        return updated;
+    }
+
+    // Lowest balance a withdrawal may leave behind. Typed accounts follow their AccountType
+    // rules; untyped accounts keep the original no-overdraft behaviour.
+    long withdrawalFloor() {
+        return accountType == null ? 0 : minimumBalance - overdraftLimit;
+    }
+
+    // Returns the balance after the debit, or REJECTED if the account is locked or the debit
+    // would cross the withdrawal floor
+    long debit(long amount) {
+        accrueInterest();
+        long floor = withdrawalFloor();
+        long current;
+        do {
+            if (isLocked) {
+                return REJECTED;
+            }
+            current = balance;
+            if (current - amount < floor) {
+                return REJECTED;
+            }
+        } while (!BALANCE.compareAndSet(this, current, current - amount));
+        return current - amount;
     }
 
     public boolean withdraw(double amount, String pin) {
-        if (!authenticate(pin)) return false;
-        if (amount > 0 && balance >= amount) {
-            balance -= amount;
-            logTransaction("Withdrew: " + amount);
-            return true;
+        return withdrawMinor(Money.toMinor(amount, scale), pin);
+    }
+
+    public boolean withdrawMinor(long amount, String pin) {
+        return withdrawAndRecord(amount, pin) != REJECTED;
+    }
+
+    private long withdrawAndRecord(long amount, String pin) {
+        if (!authenticate(pin) || amount <= 0) return REJECTED;
+        long balanceAfter = debit(amount);
+        if (balanceAfter != REJECTED) {
+            transactionHistory.record(Ledger.EntryType.WITHDRAWAL, amount, balanceAfter, null);
         }
-        return false;
+        return balanceAfter;
     }
 
 
     public boolean transfer(BankAccount targetAccount, double amount, String pin) {
-        if (this.withdraw(amount, pin)) {  // Withdraw from the source account
-            targetAccount.deposit(amount, pin);  // Deposit into the target account
-            logTransaction("Transferred: " + amount + " to " + targetAccount.getAccountId());
-            return true;
+        return transferMinor(targetAccount, Money.toMinor(amount, scale), pin);
+    }
+
+    public boolean transferMinor(BankAccount targetAccount, long amount, String pin) {
+        BankingEvents.Transfer event = new BankingEvents.Transfer();
+        event.begin();
+        boolean success = authenticate(pin) && moveTo(targetAccount, amount);
+        commitTransfer(event, targetAccount, amount, 0, success);
+        return success;
+    }
+
+    // The transfer itself, already authorised, for callers that report it in their own Transfer
+    // event. The source is debited before the target is credited, so a credit that would
+    // overflow the target puts the money back before the ArithmeticException propagates.
+    boolean moveTo(BankAccount targetAccount, long amount) {
+        if (amount <= 0 || targetAccount.isLocked) {
+            return false;
+        }
+        long credited = Money.rescale(amount, scale, targetAccount.scale);
+        long balanceAfter = debit(amount);  // Withdraw from the source account
+        if (balanceAfter == REJECTED) {
+            return false;
+        }
+        long targetBalanceAfter;
+        try {
+            targetBalanceAfter = targetAccount.credit(credited);  // Credit the target account, whose PIN may differ
+        } catch (ArithmeticException e) {
+            credit(amount);
+            throw e;
+        }
+        transactionHistory.record(Ledger.EntryType.WITHDRAWAL, amount, balanceAfter, null);
+        targetAccount.transactionHistory.record(Ledger.EntryType.DEPOSIT, credited, targetBalanceAfter, null);
+        transactionHistory.record(Ledger.EntryType.TRANSFER, amount, balanceAfter, targetAccount.getAccountId());
+        return true;
+    }
+
+    void commitTransfer(BankingEvents.Transfer event, BankAccount targetAccount, long amount, long lockWait,
+                        boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.fromAccount = accountId;
+            event.toAccount = targetAccount.getAccountId();
+            event.amount = amount;
+            event.currency = currency;
+            event.lockWait = lockWait;
+            event.succeeded = success;
+            event.commit();
         }
-        return false;
     }
 
 
     public void convertBalance(double rate, String targetCurrency) {
-        balance *= rate;
-        logTransaction("Converted balance to: " + balance + " " + targetCurrency);
+        long converted = applyRate(rate);
+        transactionHistory.record(Ledger.EntryType.CONVERSION, converted, converted, targetCurrency);
     }
 
+    long applyRate(double rate) {
+        accrueInterest();
+        long current;
+        long converted;
+        do {
+            current = balance;
+            converted = Money.multiply(current, rate);
+        } while (!BALANCE.compareAndSet(this, current, converted));
+        return converted;
+    }
+
+    // Materialises the legacy text form; use historyCursor() to read entries without copying
     public List<String> getTransactionHistory() {
-        return new ArrayList<>(transactionHistory);
+        List<String> history = new ArrayList<>(transactionHistory.size());
+        LedgerCursor cursor = transactionHistory.cursor();
+        while (cursor.next()) {
+            history.add(cursor.describe());
+        }
+        return history;
+    }
+
+    public LedgerCursor historyCursor() {
+        return transactionHistory.cursor();
+    }
+
+    public int getTransactionCount() {
+        return transactionHistory.size();
+    }
+
+    String pinHash() {
+        return pinHash;
+    }
+
+    // Installs a hash read back from the journal or a snapshot
+    void restorePinHash(String pinHash) {
+        this.pinHash = PinHash.fromStored(pinHash);
     }
 
     public boolean authenticate(String pin) {
-        return this.pin.equals(pin);
+        return PinHash.matches(pinHash, pin);
     }
 
     public void changePin(String oldPin, String newPin) {
         if (authenticate(oldPin)) {
-            this.pin = newPin;
+            this.pinHash = PinHash.create(newPin);
         } else {
             throw new SecurityException("Incorrect old PIN.");
         }
@@ -116,14 +407,18 @@ public class BankAccount {
     public String toString() {
         return "BankAccount{" +
                 "accountId='" + accountId + '\'' +
-                ", balance=" + balance +
+                ", balance=" + getBalance() +
                 ", currency='" + currency + '\'' +
-                ", overdraftLimit=" + overdraftLimit +
+                ", overdraftLimit=" + getOverdraftLimit() +
                 '}';
     }
 
     // Getter and Setter for overdraftLimit
     public double getOverdraftLimit() {
+        return Money.toMajor(overdraftLimit, scale);
+    }
+
+    public long getOverdraftLimitMinor() {
         return overdraftLimit;
     }
 
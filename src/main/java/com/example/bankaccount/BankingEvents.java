@@ -0,0 +1,144 @@
+package com.example.bankaccount;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+// JDK Flight Recorder events for telling lock contention, slow fsyncs and batch jobs apart
+// when latency spikes. Call sites follow the usual pattern: begin, do the work, then fill in
+// fields only if shouldCommit(), so with recording off an event is a dead allocation that C2
+// removes. Per-operation events carry a threshold so that only slow operations are written;
+// lower it in the recording settings (e.g. com.example.bankaccount.Transfer#threshold=0 ms)
+// to see everything.
+public final class BankingEvents {
+    private BankingEvents() {
+    }
+
+    @Name("com.example.bankaccount.Transfer")
+    @Label("Transfer")
+    @Category({"Banking", "Accounts"})
+    @Description("Money moved between two accounts, including any wait for the registry's stripe locks")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class Transfer extends Event {
+        @Label("Source Account")
+        String fromAccount;
+
+        @Label("Target Account")
+        String toAccount;
+
+        @Label("Amount")
+        @Description("Debited amount in minor units of the currency")
+        long amount;
+
+        @Label("Currency")
+        String currency;
+
+        @Label("Lock Wait")
+        @Timespan(Timespan.NANOSECONDS)
+        long lockWait;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.example.bankaccount.AccountLockWait")
+    @Label("Account Lock Wait")
+    @Category({"Banking", "Accounts"})
+    @Description("A thread blocked on a contended registry stripe lock")
+    @Threshold("1 ms")
+    public static final class AccountLockWait extends Event {
+        @Label("Account")
+        String accountId;
+
+        @Label("Stripe")
+        int stripe;
+
+        @Label("Queue Length")
+        @Description("Threads waiting for the stripe when this one got it")
+        int queueLength;
+    }
+
+    @Name("com.example.bankaccount.JournalFlush")
+    @Label("Journal Flush")
+    @Category({"Banking", "Journal"})
+    @Description("One group commit: a batch of journal records written and forced to disk")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class JournalFlush extends Event {
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Durable LSN")
+        long lsn;
+
+        @Label("Force Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long forceTime;
+
+        @Label("Segment Rotated")
+        boolean rotated;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.example.bankaccount.ScheduledTransferBatch")
+    @Label("Scheduled Transfer Batch")
+    @Category({"Banking", "Batch Jobs"})
+    @Description("One run of the due scheduled transfer job")
+    @StackTrace(false)
+    public static final class ScheduledTransferBatch extends Event {
+        @Label("Due Transfers")
+        int due;
+
+        @Label("Executed")
+        int executed;
+
+        @Label("Failed")
+        int failed;
+    }
+
+    @Name("com.example.bankaccount.InterestBatch")
+    @Label("Interest Batch")
+    @Category({"Banking", "Batch Jobs"})
+    @Description("Interest accrued or posted over a set of accounts")
+    @StackTrace(false)
+    public static final class InterestBatch extends Event {
+        @Label("Job")
+        String job;
+
+        @Label("Accounts")
+        int accounts;
+
+        @Label("Credited")
+        int credited;
+
+        @Label("Total Interest")
+        @Description("Sum of the credited amounts in minor units")
+        long totalInterest;
+    }
+
+    @Name("com.example.bankaccount.LoanBatch")
+    @Label("Loan Batch")
+    @Category({"Banking", "Batch Jobs"})
+    @Description("A pass over the loan book")
+    @StackTrace(false)
+    public static final class LoanBatch extends Event {
+        @Label("Job")
+        String job;
+
+        @Label("Loans")
+        long loans;
+
+        @Label("Results")
+        int results;
+    }
+}
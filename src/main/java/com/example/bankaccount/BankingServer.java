@@ -0,0 +1,474 @@
+package com.example.bankaccount;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// HTTP/JSON front end on the JDK's built-in server. Connections are HTTP/1.1 keep-alive, and
+// requests pipelined on one connection are answered in order. Every response carries a
+// Content-Length and every request body is drained, so a connection stays reusable. Each
+// request runs on its own virtual thread when the JVM has them (JDK 21+), otherwise on a
+// cached platform pool.
+//
+// Anything that reads or changes one account's money or loan needs that account's PIN: POST
+// requests carry it in the body and GET requests in the X-Account-Pin header. Running the due
+// scheduled transfers moves money for every account, so it takes the operator token the server
+// was started with (BANKING_ADMIN_TOKEN) in X-Admin-Token, and is refused when none was set. A
+// wrong PIN or token is answered 403. Bodies over MAX_BODY_BYTES are refused with 413, and an unexpected failure is
+// logged and answered 500 without its details.
+//
+//   POST /accounts                      {accountId, balance, currency, type | overdraftLimit, pin}
+//   GET  /accounts/{id}                 X-Account-Pin
+//   GET  /accounts/{id}/transactions    X-Account-Pin
+//   POST /accounts/{id}/deposits        {amount, pin}
+//   POST /accounts/{id}/withdrawals     {amount, pin}
+//   POST /transfers                     {fromAccount, toAccount, amount, pin}
+//   GET  /conversions?from=USD&to=EUR&amount=10
+//   POST /loans                         {accountId, amount, interestRate, tenureMonths, pin}
+//   GET  /loans/{accountId}             X-Account-Pin
+//   POST /loans/{accountId}/repayments  {amount, pin}
+//   GET  /scheduled-transfers?fromAccount={id}  X-Account-Pin
+//   POST /scheduled-transfers           {fromAccount, toAccount, amount, date, pin}
+//   POST /scheduled-transfers/executions  X-Admin-Token
+//   GET  /metrics
+public class BankingServer implements AutoCloseable {
+    static final int MAX_BODY_BYTES = 64 * 1024;
+    static final String PIN_HEADER = "X-Account-Pin";
+    static final String ADMIN_HEADER = "X-Admin-Token";
+    private static final int BACKLOG = 1024;
+    private static final System.Logger LOG = System.getLogger(BankingServer.class.getName());
+
+    private final AccountRegistry registry;
+    private final CurrencyConverter converter;
+    private final LoanManagement loans;
+    private final ScheduledTransfer scheduled;
+    private final TransferExecutionEngine engine;
+    // UTF-8 bytes of the operator token, or null when operator endpoints are refused
+    private final byte[] adminToken;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    public BankingServer(InetSocketAddress address, AccountRegistry registry, CurrencyConverter converter,
+                         LoanManagement loans, ScheduledTransfer scheduled) {
+        this(address, registry, converter, loans, scheduled, null);
+    }
+
+    public BankingServer(InetSocketAddress address, AccountRegistry registry, CurrencyConverter converter,
+                         LoanManagement loans, ScheduledTransfer scheduled, String adminToken) {
+        this.registry = registry;
+        this.converter = converter;
+        this.loans = loans;
+        this.scheduled = scheduled;
+        this.engine = new TransferExecutionEngine(registry);
+        this.adminToken = adminToken == null || adminToken.isEmpty() ? null
+                : adminToken.getBytes(StandardCharsets.UTF_8);
+        this.executor = requestExecutor();
+        try {
+            this.server = HttpServer.create(address, BACKLOG);
+        } catch (IOException e) {
+            executor.shutdown();
+            throw new UncheckedIOException("Cannot bind " + address, e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        AccountRegistry registry = new AccountRegistry();
+        String ledgerDirectory = System.getenv("BANKING_LEDGER_DIR");
+        if (ledgerDirectory != null) {
+            registry.setLedger(Ledger.open(Path.of(ledgerDirectory)));
+        }
+        BankingServer server = new BankingServer(new InetSocketAddress(port), registry,
+                new CurrencyConverter(), new LoanManagement(), new ScheduledTransfer(),
+                System.getenv("BANKING_ADMIN_TOKEN"));
+        System.out.println("Banking API listening on port " + server.getPort());
+    }
+
+    // Virtual threads are looked up reflectively so the build can keep targeting Java 18
+    static ExecutorService requestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Reply(int status, Object body) {
+        static Reply ok(Object body) {
+            return new Reply(200, body);
+        }
+
+        static Reply error(int status, String message) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("error", message);
+            return new Reply(status, body);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Reply reply;
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                // The rest of the body is left unread, so the connection cannot be reused
+                exchange.getResponseHeaders().set("Connection", "close");
+                reply = Reply.error(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            } else {
+                Headers headers = exchange.getRequestHeaders();
+                reply = route(exchange.getRequestMethod(), exchange.getRequestURI(), headers.getFirst(PIN_HEADER),
+                        headers.getFirst(ADMIN_HEADER), new String(body, StandardCharsets.UTF_8));
+            }
+        } catch (SecurityException e) {
+            reply = Reply.error(403, e.getMessage());
+        } catch (IllegalStateException e) {
+            reply = Reply.error(409, e.getMessage());
+        } catch (IllegalArgumentException | ArithmeticException | ClassCastException | DateTimeParseException e) {
+            reply = Reply.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.log(System.Logger.Level.ERROR, "Failed to handle " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getPath(), e);
+            reply = Reply.error(500, "Internal server error");
+        }
+        byte[] bytes = (reply.body() instanceof String text ? text : Json.write(reply.body()))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", reply.body() instanceof String
+                ? "text/plain; charset=utf-8" : "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(reply.status(), bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // pin and admin are the X-Account-Pin and X-Admin-Token headers, or null without them
+    private Reply route(String method, URI uri, String pin, String admin, String body) {
+        String[] path = uri.getPath().replaceAll("^/+|/+$", "").split("/+");
+        String resource = path[0];
+        return switch (resource) {
+            case "accounts" -> accounts(method, path, pin, body);
+            case "transfers" -> path.length == 1 ? post(method, () -> transfer(Json.parseObject(body)))
+                    : notFound();
+            case "conversions" -> path.length == 1 ? get(method, () -> convert(query(uri))) : notFound();
+            case "loans" -> loans(method, path, pin, body);
+            case "scheduled-transfers" -> scheduledTransfers(method, uri, path, pin, admin, body);
+            case "metrics" -> path.length == 1
+                    ? get(method, () -> Reply.ok(registry.getMetrics().snapshot().format()))
+                    : notFound();
+            default -> notFound();
+        };
+    }
+
+    private Reply accounts(String method, String[] path, String pin, String body) {
+        if (path.length == 1) {
+            return post(method, () -> openAccount(Json.parseObject(body)));
+        }
+        BankAccount account = registry.getAccount(path[1]);
+        if (account == null) {
+            return Reply.error(404, "Unknown account: " + path[1]);
+        }
+        if (path.length == 2) {
+            return get(method, () -> {
+                authenticate(account.getAccountId(), pin);
+                return Reply.ok(describe(account));
+            });
+        }
+        if (path.length > 3) {
+            return notFound();
+        }
+        return switch (path[2]) {
+            case "transactions" -> get(method, () -> {
+                authenticate(account.getAccountId(), pin);
+                return Reply.ok(registry.getTransactionHistory(account.getAccountId()));
+            });
+            case "deposits" -> post(method, () -> {
+                Map<String, Object> request = Json.parseObject(body);
+                return outcome(registry.deposit(account.getAccountId(), number(request, "amount"),
+                        string(request, "pin")), account);
+            });
+            case "withdrawals" -> post(method, () -> {
+                Map<String, Object> request = Json.parseObject(body);
+                return outcome(registry.withdraw(account.getAccountId(), number(request, "amount"),
+                        string(request, "pin")), account);
+            });
+            default -> notFound();
+        };
+    }
+
+    private Reply openAccount(Map<String, Object> request) {
+        String accountId = string(request, "accountId");
+        double balance = number(request, "balance");
+        String currency = string(request, "currency");
+        String pin = string(request, "pin");
+        Object type = request.get("type");
+        BankAccount account;
+        if (type != null) {
+            account = new BankAccount(accountId, balance, currency,
+                    AccountType.valueOf(String.valueOf(type).toUpperCase(Locale.ROOT)), pin);
+        } else {
+            Object overdraft = request.get("overdraftLimit");
+            account = new BankAccount(accountId, balance, currency,
+                    overdraft == null ? 0.0 : ((Number) overdraft).doubleValue(), pin);
+        }
+        registry.register(account);
+        return new Reply(201, describe(account));
+    }
+
+    private Reply transfer(Map<String, Object> request) {
+        String from = string(request, "fromAccount");
+        boolean success = registry.transfer(from, string(request, "toAccount"), number(request, "amount"),
+                string(request, "pin"));
+        return outcome(success, registry.getAccount(from));
+    }
+
+    private Reply convert(Map<String, String> query) {
+        String from = required(query, "from");
+        String to = required(query, "to");
+        double amount;
+        try {
+            amount = Double.parseDouble(required(query, "amount"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount must be a number");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("from", from);
+        body.put("to", to);
+        body.put("amount", amount);
+        body.put("converted", converter.convert(from, to, amount));
+        return Reply.ok(body);
+    }
+
+    private Reply loans(String method, String[] path, String pin, String body) {
+        if (path.length == 1) {
+            return post(method, () -> {
+                Map<String, Object> request = Json.parseObject(body);
+                String accountId = string(request, "accountId");
+                authenticate(accountId, string(request, "pin"));
+                loans.applyForLoan(accountId, number(request, "amount"), number(request, "interestRate"),
+                        (int) number(request, "tenureMonths"));
+                return new Reply(201, describe(loans.getLoanDetails(accountId)));
+            });
+        }
+        String accountId = path[1];
+        if (path.length == 2) {
+            return get(method, () -> {
+                authenticate(accountId, pin);
+                Loan loan = loans.getLoanDetails(accountId);
+                return loan == null ? Reply.error(404, "No active loan for this account") : Reply.ok(describe(loan));
+            });
+        }
+        if (path.length == 3 && path[2].equals("repayments")) {
+            return post(method, () -> {
+                Map<String, Object> request = Json.parseObject(body);
+                authenticate(accountId, string(request, "pin"));
+                loans.repayLoan(accountId, number(request, "amount"));
+                Loan loan = loans.getLoanDetails(accountId);
+                Map<String, Object> reply = new LinkedHashMap<>();
+                reply.put("accountId", accountId);
+                reply.put("outstandingAmount", loan == null ? 0.0 : loan.getOutstandingAmount());
+                reply.put("closed", loan == null);
+                return Reply.ok(reply);
+            });
+        }
+        return notFound();
+    }
+
+    // ScheduledTransfer is not thread-safe, so every request that touches it holds its monitor
+    private Reply scheduledTransfers(String method, URI uri, String[] path, String pin, String admin,
+                                     String body) {
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                String from = required(query(uri), "fromAccount");
+                authenticate(from, pin);
+                List<Object> transfers = new ArrayList<>();
+                synchronized (scheduled) {
+                    for (ScheduledTransfer.Transfer transfer : scheduled.getScheduledTransfers()) {
+                        if (transfer.fromAccount.equals(from)) {
+                            transfers.add(describe(transfer));
+                        }
+                    }
+                }
+                return Reply.ok(transfers);
+            }
+            return post(method, () -> {
+                Map<String, Object> request = Json.parseObject(body);
+                String from = string(request, "fromAccount");
+                String to = string(request, "toAccount");
+                double amount = number(request, "amount");
+                LocalDate date = LocalDate.parse(string(request, "date"));
+                // Scheduled transfers run later without a PIN, so the source account authorises them now
+                authenticate(from, string(request, "pin"));
+                synchronized (scheduled) {
+                    scheduled.scheduleTransfer(from, to, amount, date);
+                }
+                Map<String, Object> reply = new LinkedHashMap<>();
+                reply.put("fromAccount", from);
+                reply.put("toAccount", to);
+                reply.put("amount", amount);
+                reply.put("date", date.toString());
+                return new Reply(201, reply);
+            });
+        }
+        if (path.length == 2 && path[1].equals("executions")) {
+            return post(method, () -> {
+                authorizeOperator(admin);
+                List<Object> outcomes = new ArrayList<>();
+                synchronized (scheduled) {
+                    for (TransferExecutionEngine.Outcome outcome : scheduled.executeDueTransfers(engine)) {
+                        Map<String, Object> entry = describe(outcome.transfer());
+                        entry.put("status", outcome.status().name());
+                        outcomes.add(entry);
+                    }
+                }
+                return Reply.ok(outcomes);
+            });
+        }
+        return notFound();
+    }
+
+    // Loans are keyed by account id, so a loan request for an account the registry does not
+    // hold is refused like a wrong PIN
+    private void authenticate(String accountId, String pin) {
+        BankAccount account = registry.getAccount(accountId);
+        if (account == null || !account.authenticate(pin)) {
+            throw new SecurityException("Invalid account or PIN");
+        }
+    }
+
+    private void authorizeOperator(String token) {
+        if (adminToken == null || token == null
+                || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new SecurityException("Operator token required");
+        }
+    }
+
+    private static Reply get(String method, Supplier<Reply> action) {
+        return method.equals("GET") ? action.get() : Reply.error(405, "Method not allowed");
+    }
+
+    private static Reply post(String method, Supplier<Reply> action) {
+        return method.equals("POST") ? action.get() : Reply.error(405, "Method not allowed");
+    }
+
+    private static Reply notFound() {
+        return Reply.error(404, "Not found");
+    }
+
+    private static Reply outcome(boolean success, BankAccount account) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", success);
+        body.put("balance", account.getBalance());
+        return new Reply(success ? 200 : 422, body);
+    }
+
+    private static Map<String, Object> describe(BankAccount account) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("accountId", account.getAccountId());
+        body.put("balance", account.getBalance());
+        body.put("currency", account.getCurrency());
+        body.put("type", account.getAccountType() == null ? null : account.getAccountType().name());
+        body.put("overdraftLimit", account.getOverdraftLimit());
+        body.put("locked", account.isLocked());
+        return body;
+    }
+
+    private static Map<String, Object> describe(Loan loan) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("accountId", loan.accountId);
+        body.put("principal", loan.getPrincipal());
+        body.put("interestRate", loan.getInterestRate());
+        body.put("tenureMonths", loan.getTenureMonths());
+        body.put("outstandingAmount", loan.getOutstandingAmount());
+        body.put("nextDueDate", String.valueOf(loan.getNextDueDate()));
+        return body;
+    }
+
+    private static Map<String, Object> describe(ScheduledTransfer.Transfer transfer) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("fromAccount", transfer.fromAccount);
+        body.put("toAccount", transfer.toAccount);
+        body.put("amount", transfer.amount);
+        body.put("date", transfer.date.toString());
+        return body;
+    }
+
+    private static String string(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (!(value instanceof String text)) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return text;
+    }
+
+    private static double number(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+        return number.doubleValue();
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing query parameter: " + name);
+        }
+        return value;
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+}
@@ -22,7 +22,8 @@ public class BankingSystem {
         System.out.println("4. View Loan Details");
         System.out.println("5. Schedule a Transfer");
         System.out.println("6. Execute Scheduled Transfers");
-        System.out.println("7. Exit");
+        System.out.println("7. View Metrics");
+        System.out.println("8. Exit");
     }
 
     public void convertCurrency() {
@@ -131,6 +132,10 @@ public class BankingSystem {
         System.out.println("Done.");
     }
 
+    public void viewMetrics() {
+        System.out.print(Metrics.getDefault().snapshot().format());
+    }
+
     public void start() {
         Scanner scanner = new Scanner(System.in);
         while (true) {
@@ -146,7 +151,8 @@ public class BankingSystem {
                 case 4 -> viewLoanDetails();
                 case 5 -> scheduleTransfer();
                 case 6 -> executeScheduledTransfers();
-                case 7 -> {
+                case 7 -> viewMetrics();
+                case 8 -> {
                     System.out.println("Exiting the Banking System. Goodbye!");
                     return;
                 }
@@ -0,0 +1,79 @@
+package com.example.bankaccount;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Deposit-heavy account (merchant collections, fee sinks) whose credits land in a striped
+// LongAdder instead of the single balance cell. The balance it reports is a reconciled floor:
+// credits only ever add, so it never overstates the funds actually available.
+public class CollectionAccount extends BankAccount {
+    private final LongAdder pendingCredits;
+
+    public CollectionAccount(String accountId, double balance, String currency, String pin) {
+        super(accountId, balance, currency, 0.0, pin);
+        this.pendingCredits = new LongAdder();
+    }
+
+    // The hot path only adds to a cell: overflow is caught when reconcile drains the cells, and
+    // the balance returned is the floor (base cell plus this credit) rather than a full sum.
+    // Recovery replays withdrawals as negative credits; they go to the base cell so the striped
+    // total only ever grows.
+    @Override
+    long credit(long amount) {
+        if (amount < 0) {
+            return super.credit(amount);
+        }
+        pendingCredits.add(amount);
+        return super.getBalanceMinor() + amount;
+    }
+
+    @Override
+    long creditUnlessLocked(long amount) {
+        if (isLocked()) {
+            return REJECTED;
+        }
+        return credit(amount);
+    }
+
+    // Saturates at Long.MAX_VALUE once the credits outgrow a long (the same test Math.addExact
+    // makes), so a read never reports a wrapped balance; reconcile refuses to fold them in
+    @Override
+    public long getBalanceMinor() {
+        long base = super.getBalanceMinor();
+        long pending = pendingCredits.sum();
+        long total = base + pending;
+        return pending < 0 || ((base ^ total) & (pending ^ total)) < 0 ? Long.MAX_VALUE : total;
+    }
+
+    @Override
+    long debit(long amount) {
+        reconcile();
+        long balanceAfter = super.debit(amount);
+        return balanceAfter == REJECTED ? REJECTED : balanceAfter + pendingCredits.sum();
+    }
+
+    @Override
+    long applyRate(double rate) {
+        reconcile();
+        return super.applyRate(rate);
+    }
+
+    // Folds the striped credits into the base balance cell and returns the amount moved. A
+    // total that wrapped negative, or that the base cell cannot absorb, is put back and the
+    // reconcile fails with ArithmeticException rather than let the balance wrap.
+    public long reconcile() {
+        long drained = pendingCredits.sumThenReset();
+        if (drained == 0) {
+            return 0;
+        }
+        try {
+            if (drained < 0) {
+                throw new ArithmeticException("long overflow");
+            }
+            super.credit(drained);
+        } catch (ArithmeticException e) {
+            pendingCredits.add(drained);
+            throw e;
+        }
+        return drained;
+    }
+}
@@ -1,32 +1,207 @@
 package com.example.bankaccount;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class CurrencyConverter {
-    private final Map<String, Double> exchangeRates;
+    // Immutable; every rate update publishes a new table, so readers never lock
+    private volatile RateTable table;
+    private volatile Metrics metrics = Metrics.getDefault();
 
     public CurrencyConverter() {
-        exchangeRates = new HashMap<>();
-        exchangeRates.put("USD", 1.0); // Base currency
-        exchangeRates.put("EUR", 0.9);
-        exchangeRates.put("GBP", 0.78);
-        exchangeRates.put("INR", 83.0);
+        table = RateTable.EMPTY
+                .with("USD", 1.0) // Base currency
+                .with("EUR", 0.9)
+                .with("GBP", 0.78)
+                .with("INR", 83.0);
     }
 
-    public void updateExchangeRate(String currency, double rate) {
-        exchangeRates.put(currency, rate);
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
     }
 
+    // Writers serialise among themselves; readers keep using the table they loaded
+    public synchronized void updateExchangeRate(String currency, double rate) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Exchange rate must be positive");
+        }
+        table = table.with(currency, rate);
+    }
+
+    // Currencies keep their ordinal for the life of the converter; new ones are appended
+    public int ordinalOf(String currency) {
+        return table.ordinalOf(currency);
+    }
+
+    // The currency-code conversions are metered; the ordinal and batch forms are left bare for
+    // hot loops, where a clock read per call would cost more than the conversion
     public double convert(String fromCurrency, String toCurrency, double amount) {
-        if (!exchangeRates.containsKey(fromCurrency) || !exchangeRates.containsKey(toCurrency)) {
-            throw new IllegalArgumentException("Unsupported currency");
+        long start = System.nanoTime();
+        RateTable current = table;
+        double converted = amount * current.cross[crossIndex(current, fromCurrency, toCurrency, start)];
+        metrics.record(Metrics.Operation.CONVERT, Metrics.Result.SUCCESS, start);
+        return converted;
+    }
+
+    public double convert(int fromOrdinal, int toOrdinal, double amount) {
+        RateTable current = table;
+        return amount * current.cross[current.index(fromOrdinal, toOrdinal)];
+    }
+
+    // Converts an amount held in minor units of fromCurrency into minor units of toCurrency
+    public long convertMinor(String fromCurrency, String toCurrency, long amount) {
+        long start = System.nanoTime();
+        RateTable current = table;
+        long converted = Money.multiply(amount,
+                current.minorCross[crossIndex(current, fromCurrency, toCurrency, start)]);
+        metrics.record(Metrics.Operation.CONVERT, Metrics.Result.SUCCESS, start);
+        return converted;
+    }
+
+    private int crossIndex(RateTable current, String fromCurrency, String toCurrency, long start) {
+        try {
+            return current.ordinalOf(fromCurrency) * current.size + current.ordinalOf(toCurrency);
+        } catch (IllegalArgumentException e) {
+            metrics.record(Metrics.Operation.CONVERT, Metrics.Result.UNSUPPORTED_CURRENCY, start);
+            throw e;
+        }
+    }
+
+    public long convertMinor(int fromOrdinal, int toOrdinal, long amount) {
+        RateTable current = table;
+        return Money.multiply(amount, current.minorCross[current.index(fromOrdinal, toOrdinal)]);
+    }
+
+    // Batch conversion for revaluation runs. With one currency pair the loop is a plain
+    // multiply over the array, which C2 turns into SIMD code.
+    public void convertAll(int fromOrdinal, int toOrdinal, double[] amounts, double[] results) {
+        checkBatch(amounts.length, results.length);
+        RateTable current = table;
+        double rate = current.cross[current.index(fromOrdinal, toOrdinal)];
+        for (int i = 0; i < amounts.length; i++) {
+            results[i] = amounts[i] * rate;
+        }
+    }
+
+    // Mixed currency pairs: one table snapshot for the whole batch and a branch-free loop,
+    // though the per-element rate lookup is a gather that stays scalar.
+    public void convertAll(int[] fromOrdinals, int[] toOrdinals, double[] amounts, double[] results) {
+        checkBatch(amounts.length, results.length);
+        checkBatch(amounts.length, fromOrdinals.length);
+        checkBatch(amounts.length, toOrdinals.length);
+        RateTable current = table;
+        current.checkOrdinals(fromOrdinals);
+        current.checkOrdinals(toOrdinals);
+        double[] cross = current.cross;
+        int size = current.size;
+        for (int i = 0; i < amounts.length; i++) {
+            results[i] = amounts[i] * cross[fromOrdinals[i] * size + toOrdinals[i]];
+        }
+    }
+
+    public void convertMinorAll(int fromOrdinal, int toOrdinal, long[] amounts, long[] results) {
+        checkBatch(amounts.length, results.length);
+        RateTable current = table;
+        double factor = current.minorCross[current.index(fromOrdinal, toOrdinal)];
+        for (int i = 0; i < amounts.length; i++) {
+            results[i] = Money.multiply(amounts[i], factor);
+        }
+    }
+
+    private static void checkBatch(int expected, int length) {
+        if (length != expected) {
+            throw new IllegalArgumentException("Batch arrays must have the same length");
         }
-        double rate = exchangeRates.get(toCurrency) / exchangeRates.get(fromCurrency);
-        return amount * rate;
+    }
+
+    public Money convert(Money amount, String toCurrency) {
+        return Money.ofMinor(convertMinor(amount.getCurrency(), toCurrency, amount.getMinorUnits()), toCurrency);
     }
 
     public Map<String, Double> getExchangeRates() {
-        return new HashMap<>(exchangeRates);
+        RateTable current = table;
+        Map<String, Double> rates = new HashMap<>();
+        for (int i = 0; i < current.size; i++) {
+            rates.put(current.codes[i], current.rates[i]);
+        }
+        return rates;
+    }
+
+    // Rates against the base currency plus the N x N cross rates derived from them.
+    // cross[from * size + to] converts major units; minorCross also folds in the
+    // difference in minor-unit scale between the two currencies.
+    private static final class RateTable {
+        static final RateTable EMPTY = new RateTable(new String[0], new double[0], Map.of());
+
+        final int size;
+        final String[] codes;
+        final double[] rates;
+        final Map<String, Integer> ordinals;
+        final double[] cross;
+        final double[] minorCross;
+
+        private RateTable(String[] codes, double[] rates, Map<String, Integer> ordinals) {
+            this.size = codes.length;
+            this.codes = codes;
+            this.rates = rates;
+            this.ordinals = ordinals;
+            this.cross = new double[size * size];
+            this.minorCross = new double[size * size];
+            int[] scales = new int[size];
+            for (int i = 0; i < size; i++) {
+                scales[i] = Money.scaleOf(codes[i]);
+            }
+            for (int from = 0; from < size; from++) {
+                for (int to = 0; to < size; to++) {
+                    double rate = rates[to] / rates[from];
+                    cross[from * size + to] = rate;
+                    minorCross[from * size + to] = rate * Money.scaleFactor(scales[from], scales[to]);
+                }
+            }
+        }
+
+        RateTable with(String currency, double rate) {
+            Integer ordinal = ordinals.get(currency);
+            if (ordinal != null) {
+                double[] updated = rates.clone();
+                updated[ordinal] = rate;
+                return new RateTable(codes, updated, ordinals);
+            }
+            String[] grownCodes = Arrays.copyOf(codes, size + 1);
+            double[] grownRates = Arrays.copyOf(rates, size + 1);
+            grownCodes[size] = currency;
+            grownRates[size] = rate;
+            Map<String, Integer> grownOrdinals = new HashMap<>(ordinals);
+            grownOrdinals.put(currency, size);
+            return new RateTable(grownCodes, grownRates, Map.copyOf(grownOrdinals));
+        }
+
+        // Map.copyOf rejects null lookups, so a null code is checked first to fail like any unknown one
+        int ordinalOf(String currency) {
+            Integer ordinal = currency == null ? null : ordinals.get(currency);
+            if (ordinal == null) {
+                throw new IllegalArgumentException("Unsupported currency");
+            }
+            return ordinal;
+        }
+
+        void checkOrdinals(int[] ordinals) {
+            for (int ordinal : ordinals) {
+                if (ordinal < 0 || ordinal >= size) {
+                    throw new IllegalArgumentException("Unsupported currency");
+                }
+            }
+        }
+
+        int index(int fromOrdinal, int toOrdinal) {
+            if (fromOrdinal < 0 || fromOrdinal >= size || toOrdinal < 0 || toOrdinal >= size) {
+                throw new IllegalArgumentException("Unsupported currency");
+            }
+            return fromOrdinal * size + toOrdinal;
+        }
     }
 }
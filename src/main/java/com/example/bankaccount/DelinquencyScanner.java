@@ -0,0 +1,86 @@
+package com.example.bankaccount;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Daily delinquency run over the loan book's due-date index. A loan's age is the number of
+// days since its oldest unpaid installment fell due, so it enters a bucket exactly when that
+// due date is the bucket's threshold behind today. Each scan therefore only reads the index
+// ranges whose loans crossed a threshold since the previous scan, not every overdue loan.
+public class DelinquencyScanner {
+    public enum AgingBucket {
+        OVERDUE(1), DAYS_30(30), DAYS_60(60), DAYS_90(90);
+
+        private final int minimumDays;
+
+        AgingBucket(int minimumDays) {
+            this.minimumDays = minimumDays;
+        }
+
+        public int getMinimumDays() {
+            return minimumDays;
+        }
+    }
+
+    public record OverdueEvent(String accountId, LocalDate dueDate, long daysOverdue, AgingBucket bucket) {
+    }
+
+    private static final AgingBucket[] BUCKETS = AgingBucket.values();
+
+    private final LoanManagement loanManagement;
+    private LocalDate lastScan;
+
+    public DelinquencyScanner(LoanManagement loanManagement) {
+        this.loanManagement = loanManagement;
+    }
+
+    // Reports each loan that aged into a new bucket since the previous scan, at the bucket it
+    // is in today. The first scan reports every delinquent loan.
+    public synchronized List<OverdueEvent> scan(LocalDate today) {
+        BankingEvents.LoanBatch batch = new BankingEvents.LoanBatch();
+        batch.begin();
+        List<OverdueEvent> events = new ArrayList<>();
+        for (int b = 0; b < BUCKETS.length; b++) {
+            AgingBucket bucket = BUCKETS[b];
+            // Due dates that reached this bucket's age by today...
+            LocalDate through = today.minusDays(bucket.getMinimumDays());
+            // ...but had not reached it at the last scan, and have not yet passed the next bucket
+            LocalDate after = lastScan == null ? null : lastScan.minusDays(bucket.getMinimumDays());
+            if (b + 1 < BUCKETS.length) {
+                LocalDate nextBucket = today.minusDays(BUCKETS[b + 1].getMinimumDays());
+                after = after == null || after.isBefore(nextBucket) ? nextBucket : after;
+            }
+            if (after != null && !after.isBefore(through)) {
+                continue;
+            }
+            for (Loan loan : loanManagement.loansDue(after, through)) {
+                LocalDate dueDate = loan.getNextDueDate();
+                events.add(new OverdueEvent(loan.accountId, dueDate, ChronoUnit.DAYS.between(dueDate, today), bucket));
+            }
+        }
+        lastScan = today;
+        batch.end();
+        if (batch.shouldCommit()) {
+            batch.job = "delinquency scan";
+            batch.loans = loanManagement.getPortfolioSummary().loanCount();
+            batch.results = events.size();
+            batch.commit();
+        }
+        return events;
+    }
+
+    // Number of loans in each bucket as of today, counted from the index without visiting loans
+    public Map<AgingBucket, Integer> agingBuckets(LocalDate today) {
+        Map<AgingBucket, Integer> counts = new EnumMap<>(AgingBucket.class);
+        for (int b = 0; b < BUCKETS.length; b++) {
+            LocalDate through = today.minusDays(BUCKETS[b].getMinimumDays());
+            LocalDate after = b + 1 < BUCKETS.length ? today.minusDays(BUCKETS[b + 1].getMinimumDays()) : null;
+            counts.put(BUCKETS[b], loanManagement.countDue(after, through));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bankaccount;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Accrues interest over a whole book in one pass. Balances and rates are laid out as parallel
+// primitive columns and split into contiguous ranges across a fork/join pool, so the hot loop
+// has no virtual calls, boxing or locks; the results are then posted back in a single sweep.
+public class InterestAccrualEngine {
+    private static final int DAYS_IN_YEAR = 365;
+    private static final int LEAF_SIZE = 1 << 15;
+
+    private final ForkJoinPool pool;
+
+    public InterestAccrualEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public InterestAccrualEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // interest[i] = simple interest on balances[i] (minor units) at annualRates[i] for days,
+    // rounded to the nearest minor unit. Balances at or below zero earn nothing.
+    public void accrue(long[] balances, double[] annualRates, int days, long[] interest) {
+        if (annualRates.length != balances.length || interest.length != balances.length) {
+            throw new IllegalArgumentException("Batch arrays must have the same length");
+        }
+        if (days < 0) {
+            throw new IllegalArgumentException("Days must not be negative");
+        }
+        pool.invoke(new AccrualTask(balances, annualRates, (double) days / DAYS_IN_YEAR, interest, 0,
+                balances.length));
+    }
+
+    // interest[i] = balances[i] * factors[i], where factors are interest-per-unit growth factors
+    // such as InterestRateTable.interestFactor
+    public void accrue(long[] balances, double[] factors, long[] interest) {
+        if (factors.length != balances.length || interest.length != balances.length) {
+            throw new IllegalArgumentException("Batch arrays must have the same length");
+        }
+        pool.invoke(new AccrualTask(balances, factors, 1.0, interest, 0, balances.length));
+    }
+
+    // Accrues days of interest at annualRate on every account of the given type and credits
+    // it. Returns the number of accounts credited.
+    public int accrue(AccountRegistry registry, AccountType type, double annualRate, int days) {
+        BankingEvents.InterestBatch event = new BankingEvents.InterestBatch();
+        event.begin();
+        List<BankAccount> book = new ArrayList<>();
+        for (BankAccount account : registry.getAccounts()) {
+            if (account.getAccountType() == type) {
+                book.add(account);
+            }
+        }
+        BankAccount[] accounts = book.toArray(new BankAccount[0]);
+        long[] balances = new long[accounts.length];
+        double[] annualRates = new double[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            balances[i] = accounts[i].getBalanceMinor();
+            annualRates[i] = annualRate;
+        }
+        long[] interest = new long[accounts.length];
+        accrue(balances, annualRates, days, interest);
+        int credited = registry.postInterest(accounts, interest);
+        commitBatch(event, "accrual", interest, credited);
+        return credited;
+    }
+
+    // Compounds days of interest on every typed account at its tier rate from rates, and
+    // credits it; types without a rate earn nothing. Each account's factor comes from the
+    // table's cache, so days of downtime cost no more than one. Returns the number credited.
+    public int accrue(AccountRegistry registry, InterestRateTable rates, int days) {
+        BankingEvents.InterestBatch event = new BankingEvents.InterestBatch();
+        event.begin();
+        List<BankAccount> book = new ArrayList<>();
+        for (BankAccount account : registry.getAccounts()) {
+            if (account.getAccountType() != null) {
+                book.add(account);
+            }
+        }
+        BankAccount[] accounts = book.toArray(new BankAccount[0]);
+        long[] balances = new long[accounts.length];
+        double[] factors = new double[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            balances[i] = accounts[i].getBalanceMinor();
+            factors[i] = rates.interestFactor(accounts[i].getAccountType(),
+                    Money.toMajor(balances[i], accounts[i].getScale()), days);
+        }
+        long[] interest = new long[accounts.length];
+        accrue(balances, factors, interest);
+        int credited = registry.postInterest(accounts, interest);
+        commitBatch(event, "tiered accrual", interest, credited);
+        return credited;
+    }
+
+    static void commitBatch(BankingEvents.InterestBatch event, String job, long[] interest, int credited) {
+        event.end();
+        if (event.shouldCommit()) {
+            long total = 0;
+            for (long amount : interest) {
+                total += amount;
+            }
+            event.job = job;
+            event.accounts = interest.length;
+            event.credited = credited;
+            event.totalInterest = total;
+            event.commit();
+        }
+    }
+
+    // interest[i] = balances[i] * factors[i] * scale, with scale folding in a shared year fraction
+    private static final class AccrualTask extends RecursiveAction {
+        private final long[] balances;
+        private final double[] factors;
+        private final double scale;
+        private final long[] interest;
+        private final int from;
+        private final int to;
+
+        AccrualTask(long[] balances, double[] factors, double scale, long[] interest, int from, int to) {
+            this.balances = balances;
+            this.factors = factors;
+            this.scale = scale;
+            this.interest = interest;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    long balance = balances[i];
+                    interest[i] = balance > 0 ? Money.multiply(balance, factors[i] * scale) : 0;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new AccrualTask(balances, factors, scale, interest, from, mid),
+                    new AccrualTask(balances, factors, scale, interest, mid, to));
+        }
+    }
+}
@@ -1,14 +1,95 @@
 package com.example.bankaccount;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
 public class InterestCalculator {
-    private static final double SAVINGS_INTEREST_RATE = 0.03; // 3% annual
     private static final int DAYS_IN_YEAR = 365;
 
+    private final InterestRateTable rates;
+    private final Clock clock;
+    // Accrual-on-touch interest is posted on the first day of each month
+    private long nextPostingDay;
+
+    public InterestCalculator() {
+        this(InterestRateTable.defaults());
+    }
+
+    public InterestCalculator(InterestRateTable rates) {
+        this(rates, Clock.systemDefaultZone());
+    }
+
+    public InterestCalculator(InterestRateTable rates, Clock clock) {
+        this.rates = rates;
+        this.clock = clock;
+        this.nextPostingDay = firstOfNextMonth(today());
+    }
+
+    public InterestRateTable getRates() {
+        return rates;
+    }
+
+    // Simple interest at the savings rate for the balance's tier
     public double calculateDailyInterest(double balance) {
-        return balance * (SAVINGS_INTEREST_RATE / DAYS_IN_YEAR);
+        return balance * (rates.rateFor(AccountType.SAVINGS, balance) / DAYS_IN_YEAR);
     }
 
     public double applyInterest(double balance, int days) {
         return balance + (calculateDailyInterest(balance) * days);
     }
+
+    // Compound interest for the account type and tier over days, computed in one step
+    public double calculateInterest(AccountType accountType, double balance, int days) {
+        return balance * rates.interestFactor(accountType, balance, days);
+    }
+
+    public double applyInterest(AccountType accountType, double balance, int days) {
+        return balance + calculateInterest(accountType, balance, days);
+    }
+
+    // Nightly job for accounts accruing on touch. Between posting days it returns at once;
+    // on a posting day it credits the interest every such account has accrued, bringing
+    // untouched accounts up to date on the way. Returns the number of accounts credited.
+    public synchronized int postAccruedInterest(AccountRegistry registry) {
+        long today = today();
+        if (today < nextPostingDay) {
+            return 0;
+        }
+        BankingEvents.InterestBatch event = new BankingEvents.InterestBatch();
+        event.begin();
+        List<BankAccount> due = new ArrayList<>();
+        for (BankAccount account : registry.getAccounts()) {
+            if (account.getInterestCalculator() == this) {
+                due.add(account);
+            }
+        }
+        BankAccount[] accounts = due.toArray(new BankAccount[0]);
+        long[] interest = new long[accounts.length];
+        for (int i = 0; i < accounts.length; i++) {
+            interest[i] = accounts[i].takeAccruedInterest();
+        }
+        nextPostingDay = firstOfNextMonth(today);
+        int credited = registry.postInterest(accounts, interest);
+        InterestAccrualEngine.commitBatch(event, "monthly posting", interest, credited);
+        return credited;
+    }
+
+    long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    // Interest in minor units earned by a balance held for days
+    double accrue(AccountType accountType, long balanceMinor, int scale, long days) {
+        if (balanceMinor <= 0 || accountType == null) {
+            return 0.0;
+        }
+        int clamped = (int) Math.min(days, Integer.MAX_VALUE);
+        return balanceMinor * rates.interestFactor(accountType, Money.toMajor(balanceMinor, scale), clamped);
+    }
+
+    private static long firstOfNextMonth(long day) {
+        return LocalDate.ofEpochDay(day).withDayOfMonth(1).plusMonths(1).toEpochDay();
+    }
 }
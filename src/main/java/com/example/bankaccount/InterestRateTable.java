@@ -0,0 +1,151 @@
+package com.example.bankaccount;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Annual interest rates by AccountType and balance tier, with each type's compounding period.
+// Immutable: every with... call returns a new table. Interest over any number of days is
+// closed-form, (1 + r/n)^(n * days / 365) - 1, and is cached per tier for the first
+// CACHED_DAYS days, so catching up after downtime costs the same as a single day.
+public final class InterestRateTable {
+    static final int DAYS_IN_YEAR = 365;
+    static final int CACHED_DAYS = 400;
+
+    public enum Compounding {
+        DAILY(365), MONTHLY(12);
+
+        private final int periodsPerYear;
+
+        Compounding(int periodsPerYear) {
+            this.periodsPerYear = periodsPerYear;
+        }
+
+        public int getPeriodsPerYear() {
+            return periodsPerYear;
+        }
+    }
+
+    private static final InterestRateTable EMPTY = new InterestRateTable(new EnumMap<>(AccountType.class));
+
+    private final Map<AccountType, Schedule> schedules;
+
+    private InterestRateTable(Map<AccountType, Schedule> schedules) {
+        this.schedules = schedules;
+    }
+
+    public static InterestRateTable empty() {
+        return EMPTY;
+    }
+
+    // Savings earn 3% a year compounded daily; current accounts earn nothing
+    public static InterestRateTable defaults() {
+        return EMPTY.withTier(AccountType.SAVINGS, 0.0, 0.03);
+    }
+
+    // Balances of at least minimumBalance earn annualRate on the whole balance, up to the next tier
+    public InterestRateTable withTier(AccountType accountType, double minimumBalance, double annualRate) {
+        if (!(annualRate >= 0) || Double.isInfinite(annualRate)) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        Schedule current = schedules.getOrDefault(accountType, Schedule.NONE);
+        return with(accountType, current.withTier(minimumBalance, annualRate));
+    }
+
+    public InterestRateTable withCompounding(AccountType accountType, Compounding compounding) {
+        Schedule current = schedules.getOrDefault(accountType, Schedule.NONE);
+        return with(accountType, new Schedule(compounding, current.floors, current.rates));
+    }
+
+    public double rateFor(AccountType accountType, double balance) {
+        Schedule schedule = schedules.get(accountType);
+        if (schedule == null) {
+            return 0.0;
+        }
+        int tier = schedule.tierFor(balance);
+        return tier < 0 ? 0.0 : schedule.rates[tier];
+    }
+
+    public Compounding compoundingFor(AccountType accountType) {
+        return schedules.getOrDefault(accountType, Schedule.NONE).compounding;
+    }
+
+    // Interest earned per unit of balance over days, i.e. the growth factor minus one
+    public double interestFactor(AccountType accountType, double balance, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days must not be negative");
+        }
+        Schedule schedule = schedules.get(accountType);
+        if (schedule == null) {
+            return 0.0;
+        }
+        int tier = schedule.tierFor(balance);
+        return tier < 0 ? 0.0 : schedule.interestFactor(tier, days);
+    }
+
+    private InterestRateTable with(AccountType accountType, Schedule schedule) {
+        Map<AccountType, Schedule> updated = new EnumMap<>(AccountType.class);
+        updated.putAll(schedules);
+        updated.put(accountType, schedule);
+        return new InterestRateTable(updated);
+    }
+
+    // Tiers of one account type, sorted by floor, with factors[tier][days] precomputed
+    private static final class Schedule {
+        static final Schedule NONE = new Schedule(Compounding.DAILY, new double[0], new double[0]);
+
+        final Compounding compounding;
+        final double[] floors;
+        final double[] rates;
+        final double[][] factors;
+
+        Schedule(Compounding compounding, double[] floors, double[] rates) {
+            this.compounding = compounding;
+            this.floors = floors;
+            this.rates = rates;
+            this.factors = new double[rates.length][];
+            for (int tier = 0; tier < rates.length; tier++) {
+                double[] cached = new double[CACHED_DAYS + 1];
+                for (int days = 0; days <= CACHED_DAYS; days++) {
+                    cached[days] = compute(tier, days);
+                }
+                factors[tier] = cached;
+            }
+        }
+
+        Schedule withTier(double floor, double rate) {
+            int at = Arrays.binarySearch(floors, floor);
+            if (at >= 0) {
+                double[] updatedRates = rates.clone();
+                updatedRates[at] = rate;
+                return new Schedule(compounding, floors, updatedRates);
+            }
+            int insert = -at - 1;
+            double[] grownFloors = new double[floors.length + 1];
+            double[] grownRates = new double[rates.length + 1];
+            System.arraycopy(floors, 0, grownFloors, 0, insert);
+            System.arraycopy(rates, 0, grownRates, 0, insert);
+            grownFloors[insert] = floor;
+            grownRates[insert] = rate;
+            System.arraycopy(floors, insert, grownFloors, insert + 1, floors.length - insert);
+            System.arraycopy(rates, insert, grownRates, insert + 1, rates.length - insert);
+            return new Schedule(compounding, grownFloors, grownRates);
+        }
+
+        // Highest tier whose floor the balance reaches, or -1 below the lowest tier
+        int tierFor(double balance) {
+            int at = Arrays.binarySearch(floors, balance);
+            return at >= 0 ? at : -at - 2;
+        }
+
+        double interestFactor(int tier, int days) {
+            return days <= CACHED_DAYS ? factors[tier][days] : compute(tier, days);
+        }
+
+        // expm1/log1p keep full precision for the tiny per-period rates of daily compounding
+        private double compute(int tier, int days) {
+            int periods = compounding.getPeriodsPerYear();
+            return Math.expm1((double) days * periods / DAYS_IN_YEAR * Math.log1p(rates[tier] / periods));
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.example.bankaccount;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead journal. Writers append under a short lock and then wait for
+// durability; a single flusher thread writes everything appended since the previous flush
+// and covers the whole batch with one force(), so concurrent mutations share an fsync.
+public class Journal implements Closeable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final ReentrantLock lock;
+    private final Condition pending;
+    private final Condition durable;
+    private final CRC32 crc;
+    private final Thread flusher;
+    private FileChannel channel;
+    private long segmentFirstLsn;
+    private boolean rotateRequested;
+    private ByteBuffer active;
+    private ByteBuffer flushing;
+    private long nextLsn;
+    private long appendedLsn;
+    private long durableLsn;
+    private long flushCount;
+    private IOException failure;
+    private boolean closed;
+
+    private Journal(Path directory, FileChannel channel, long segmentFirstLsn, long lastLsn) {
+        this.directory = directory;
+        this.channel = channel;
+        this.segmentFirstLsn = segmentFirstLsn;
+        this.lock = new ReentrantLock();
+        this.pending = lock.newCondition();
+        this.durable = lock.newCondition();
+        this.crc = new CRC32();
+        this.active = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.flushing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.nextLsn = lastLsn + 1;
+        this.appendedLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static Journal open(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments(directory);
+            long lastLsn = 0;
+            Path tail;
+            if (segments.isEmpty()) {
+                // A snapshot may already cover earlier LSNs whose segments were truncated
+                lastLsn = SnapshotManager.latestSnapshotLsn(directory);
+                tail = segmentPath(directory, lastLsn + 1);
+            } else {
+                tail = segments.get(segments.size() - 1);
+                lastLsn = firstLsn(tail) - 1;
+            }
+            FileChannel channel = FileChannel.open(tail, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            forceDirectory(directory);
+            ScanResult scan = scan(channel, record -> { });
+            if (scan.lastLsn > 0) {
+                lastLsn = scan.lastLsn;
+            }
+            // Drop a torn tail left by a crash mid-write so new records follow the last good one
+            channel.truncate(scan.validBytes);
+            channel.position(scan.validBytes);
+            return new Journal(directory, channel, firstLsn(tail), lastLsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static long replay(Path directory, Consumer<JournalRecord> consumer) {
+        return replay(directory, 0, Long.MAX_VALUE, consumer);
+    }
+
+    // Makes renames, creations and deletions in directory durable. Windows cannot open a
+    // directory as a channel, and NTFS journals its metadata anyway, so there this is a no-op.
+    static void forceDirectory(Path directory) throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Replays records with afterLsn < lsn < beforeLsn, skipping segments entirely outside that range.
+    static long replay(Path directory, long afterLsn, long beforeLsn, Consumer<JournalRecord> consumer) {
+        if (!Files.isDirectory(directory)) {
+            return afterLsn;
+        }
+        try {
+            long lastLsn = afterLsn;
+            List<Path> segments = segments(directory);
+            for (int i = 0; i < segments.size(); i++) {
+                if (firstLsn(segments.get(i)) >= beforeLsn) {
+                    break;
+                }
+                if (i + 1 < segments.size() && firstLsn(segments.get(i + 1)) <= afterLsn + 1) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                    ScanResult scan = scan(channel, record -> {
+                        if (record.getLsn() > afterLsn && record.getLsn() < beforeLsn) {
+                            consumer.accept(record);
+                        }
+                    });
+                    lastLsn = Math.max(lastLsn, Math.min(scan.lastLsn, beforeLsn - 1));
+                }
+            }
+            return lastLsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Replays the journal in directory into freshly constructed components and attaches a
+    // journal opened on the same directory so that subsequent mutations are recorded.
+    public static Journal recover(Path directory, AccountRegistry registry, LoanManagement loanManagement,
+                                  ScheduledTransfer scheduledTransfer) {
+        return recoverAfter(directory, 0, registry, loanManagement, scheduledTransfer);
+    }
+
+    static Journal recoverAfter(Path directory, long afterLsn, AccountRegistry registry,
+                                LoanManagement loanManagement, ScheduledTransfer scheduledTransfer) {
+        replay(directory, afterLsn, Long.MAX_VALUE, record -> {
+            registry.apply(record);
+            loanManagement.apply(record);
+            scheduledTransfer.apply(record);
+        });
+        Journal journal = open(directory);
+        registry.setJournal(journal);
+        loanManagement.setJournal(journal);
+        scheduledTransfer.setJournal(journal);
+        return journal;
+    }
+
+    // Seals the current segment and starts a new one. Every record with an LSN below the
+    // returned value lives in a sealed segment that will never be written again.
+    public long rotate() {
+        lock.lock();
+        try {
+            ensureOpen();
+            rotateRequested = true;
+            pending.signal();
+            while (rotateRequested) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal rotation failed", failure);
+                }
+                durable.awaitUninterruptibly();
+            }
+            return segmentFirstLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes sealed segments whose records all have LSNs at or below lsn.
+    void deleteSegmentsThrough(long lsn) {
+        try {
+            List<Path> segments = segments(directory);
+            long current;
+            lock.lock();
+            try {
+                current = segmentFirstLsn;
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                long nextFirst = firstLsn(segments.get(i + 1));
+                if (nextFirst - 1 <= lsn && firstLsn(segments.get(i)) < current) {
+                    Files.deleteIfExists(segments.get(i));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long append(JournalRecord record) {
+        lock.lock();
+        try {
+            ensureOpen();
+            int needed = FRAME_HEADER + record.maxEncodedSize();
+            if (active.remaining() < needed) {
+                active = grow(active, needed);
+            }
+            long lsn = nextLsn++;
+            int start = active.position();
+            active.position(start + FRAME_HEADER);
+            record.encode(active, lsn, System.currentTimeMillis());
+            int end = active.position();
+            int length = end - start - FRAME_HEADER;
+            crc.reset();
+            crc.update(active.array(), start + FRAME_HEADER, length);
+            active.putInt(start, length);
+            active.putInt(start + 4, (int) crc.getValue());
+            appendedLsn = lsn;
+            pending.signal();
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Appends records as consecutive entries under one acquisition of the lock and returns
+    // the last one's LSN, or 0 if there were none
+    public long appendAll(List<JournalRecord> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            long lsn = 0;
+            for (JournalRecord record : records) {
+                lsn = append(record);
+            }
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long lsn) {
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal flush failed", failure);
+                }
+                if (closed && appendedLsn < lsn) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appendAndSync(JournalRecord record) {
+        long lsn = append(record);
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    public long getDurableLsn() {
+        lock.lock();
+        try {
+            return durableLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastLsn() {
+        lock.lock();
+        try {
+            return appendedLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushCount() {
+        lock.lock();
+        try {
+            return flushCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long batchLsn;
+            ByteBuffer batch;
+            boolean rotate;
+            lock.lock();
+            try {
+                while (active.position() == 0 && !rotateRequested && !closed) {
+                    pending.awaitUninterruptibly();
+                }
+                if (active.position() == 0 && !rotateRequested) {
+                    return;
+                }
+                batch = active;
+                active = flushing;
+                flushing = batch;
+                batchLsn = appendedLsn;
+                rotate = rotateRequested;
+            } finally {
+                lock.unlock();
+            }
+            BankingEvents.JournalFlush event = new BankingEvents.JournalFlush();
+            event.begin();
+            IOException error = null;
+            long newSegmentFirstLsn = 0;
+            long bytes = 0;
+            long forceTime = 0;
+            try {
+                batch.flip();
+                bytes = batch.remaining();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                long forceStart = System.nanoTime();
+                channel.force(false);
+                forceTime = System.nanoTime() - forceStart;
+                if (rotate && batchLsn + 1 > segmentFirstLsn) {
+                    newSegmentFirstLsn = batchLsn + 1;
+                    FileChannel next = FileChannel.open(segmentPath(directory, newSegmentFirstLsn),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    // Records forced into the new segment are only durable once its name is
+                    forceDirectory(directory);
+                    channel.close();
+                    channel = next;
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                batch.clear();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.bytes = bytes;
+                event.lsn = batchLsn;
+                event.forceTime = forceTime;
+                event.rotated = newSegmentFirstLsn > 0;
+                event.succeeded = error == null;
+                event.commit();
+            }
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableLsn = batchLsn;
+                    flushCount++;
+                    if (newSegmentFirstLsn > 0) {
+                        segmentFirstLsn = newSegmentFirstLsn;
+                    }
+                    if (rotate) {
+                        rotateRequested = false;
+                    }
+                }
+                durable.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal flush failed", failure);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+
+    static Path segmentPath(Path directory, long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    static long firstLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static ScanResult scan(FileChannel channel, Consumer<JournalRecord> consumer) throws IOException {
+        long size = channel.size();
+        ByteBuffer data = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE - 8));
+        // A positional read may return short, so keep reading until the buffer is full or the file ends
+        while (data.hasRemaining()) {
+            if (channel.read(data, data.position()) < 0) {
+                break;
+            }
+        }
+        data.flip();
+        CRC32 checksum = new CRC32();
+        ScanResult result = new ScanResult();
+        while (data.remaining() >= FRAME_HEADER) {
+            int start = data.position();
+            int length = data.getInt();
+            int expected = data.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || data.remaining() < length) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(data.array(), data.position(), length);
+            if ((int) checksum.getValue() != expected) {
+                break;
+            }
+            ByteBuffer payload = data.slice(data.position(), length);
+            JournalRecord record = JournalRecord.decode(payload);
+            data.position(start + FRAME_HEADER + length);
+            result.lastLsn = record.getLsn();
+            result.validBytes = data.position();
+            consumer.accept(record);
+        }
+        return result;
+    }
+
+    private static final class ScanResult {
+        long lastLsn;
+        long validBytes;
+    }
+}
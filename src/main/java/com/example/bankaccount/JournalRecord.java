@@ -0,0 +1,271 @@
+package com.example.bankaccount;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+public final class JournalRecord {
+    public enum Type {
+        OPEN_ACCOUNT, DEPOSIT, WITHDRAW, TRANSFER, CONVERT, LOCK, UNLOCK, LOAN_APPLY, LOAN_REPAY,
+        SCHEDULE, SCHEDULE_DONE, STANDING_ORDER, OCCURRENCE_DONE, STANDING_ORDER_CANCEL, INTEREST, CHANGE_PIN,
+        ACCRUAL
+    }
+
+    static final int FLAG_COLLECTION = 1;
+
+    private static final Type[] TYPES = Type.values();
+
+    private final Type type;
+    private long lsn;
+    private long timestamp;
+    private final String accountId;
+    private final String counterparty;
+    private final long amount;
+    private final long secondaryAmount;
+    private final double rate;
+    private final long reference;
+    private final String text;
+
+    private JournalRecord(Type type, String accountId, String counterparty, long amount, long secondaryAmount,
+                          double rate, long reference, String text) {
+        this.type = type;
+        this.accountId = accountId;
+        this.counterparty = counterparty;
+        this.amount = amount;
+        this.secondaryAmount = secondaryAmount;
+        this.rate = rate;
+        this.reference = reference;
+        this.text = text;
+    }
+
+    // Carries the account's PinHash, never the PIN
+    static JournalRecord openAccount(BankAccount account, String pinHash) {
+        return new JournalRecord(Type.OPEN_ACCOUNT, account.getAccountId(), account.getCurrency(),
+                account.getBalanceMinor(), account.getOverdraftLimitMinor(), 0, accountReference(account), pinHash);
+    }
+
+    // Account opening packs the account flags into the low byte of the reference and the
+    // AccountType ordinal (plus one, zero meaning untyped) above it.
+    static long accountReference(BankAccount account) {
+        AccountType accountType = account.getAccountType();
+        return (account instanceof CollectionAccount ? FLAG_COLLECTION : 0)
+                | (long) (accountType == null ? 0 : accountType.ordinal() + 1) << 8;
+    }
+
+    static AccountType accountType(long reference) {
+        int ordinal = (int) (reference >>> 8);
+        return ordinal == 0 ? null : AccountType.values()[ordinal - 1];
+    }
+
+    static JournalRecord deposit(String accountId, long amount) {
+        return new JournalRecord(Type.DEPOSIT, accountId, null, amount, 0, 0, 0, null);
+    }
+
+    static JournalRecord interest(String accountId, long amount) {
+        return new JournalRecord(Type.INTEREST, accountId, null, amount, 0, 0, 0, null);
+    }
+
+    // An accruing account's state after a balance change: the day it has accrued through and
+    // its unposted interest in minor units
+    static JournalRecord accrual(String accountId, long accruedThroughDay, double unpostedInterest) {
+        return new JournalRecord(Type.ACCRUAL, accountId, null, accruedThroughDay, 0, unpostedInterest, 0, null);
+    }
+
+    static JournalRecord withdraw(String accountId, long amount) {
+        return new JournalRecord(Type.WITHDRAW, accountId, null, amount, 0, 0, 0, null);
+    }
+
+    static JournalRecord transfer(String fromAccountId, String toAccountId, long debited, long credited) {
+        return new JournalRecord(Type.TRANSFER, fromAccountId, toAccountId, debited, credited, 0, 0, null);
+    }
+
+    // Transfer that also marks a scheduled transfer executed, so the money movement and the
+    // marker become durable together. Occurrences carry their date alongside the order id.
+    static JournalRecord transfer(String fromAccountId, String toAccountId, long debited, long credited,
+                                  ScheduledTransfer.Transfer scheduled) {
+        if (scheduled.standingOrderId != 0) {
+            return new JournalRecord(Type.TRANSFER, fromAccountId, toAccountId, debited, credited, 0,
+                    scheduled.standingOrderId, scheduled.date.toString());
+        }
+        return new JournalRecord(Type.TRANSFER, fromAccountId, toAccountId, debited, credited, 0, scheduled.id,
+                null);
+    }
+
+    static JournalRecord convert(String accountId, double rate, String targetCurrency) {
+        return new JournalRecord(Type.CONVERT, accountId, null, 0, 0, rate, 0, targetCurrency);
+    }
+
+    static JournalRecord lock(String accountId) {
+        return new JournalRecord(Type.LOCK, accountId, null, 0, 0, 0, 0, null);
+    }
+
+    static JournalRecord unlock(String accountId) {
+        return new JournalRecord(Type.UNLOCK, accountId, null, 0, 0, 0, 0, null);
+    }
+
+    static JournalRecord changePin(String accountId, String pinHash) {
+        return new JournalRecord(Type.CHANGE_PIN, accountId, null, 0, 0, 0, 0, pinHash);
+    }
+
+    static JournalRecord loanApply(String accountId, long principal, double interestRate, int tenureMonths,
+                                   LocalDate startDate) {
+        return new JournalRecord(Type.LOAN_APPLY, accountId, null, principal, startDate.toEpochDay(), interestRate,
+                tenureMonths, null);
+    }
+
+    static JournalRecord loanRepay(String accountId, long amount) {
+        return new JournalRecord(Type.LOAN_REPAY, accountId, null, amount, 0, 0, 0, null);
+    }
+
+    // A scheduled amount is not tied to a currency until it runs, so it is kept at MAX_SCALE to
+    // hold any currency's minor units. The scale (plus one, zero meaning DEFAULT_SCALE in records
+    // written before it was stored) is packed above the epoch day in the secondary amount.
+    static JournalRecord schedule(ScheduledTransfer.Transfer transfer) {
+        return new JournalRecord(Type.SCHEDULE, transfer.fromAccount, transfer.toAccount,
+                Money.toMinor(transfer.amount, Money.MAX_SCALE), scheduledDate(transfer.date), 0, transfer.id, null);
+    }
+
+    private static long scheduledDate(LocalDate date) {
+        return date.toEpochDay() & 0xFFFF_FFFFL | (long) (Money.MAX_SCALE + 1) << 32;
+    }
+
+    static JournalRecord scheduleDone(long transferId) {
+        return new JournalRecord(Type.SCHEDULE_DONE, null, null, 0, 0, 0, transferId, null);
+    }
+
+    // Start date rather than first occurrence, so replay re-derives the first occurrence from the rule
+    static JournalRecord standingOrder(StandingOrder order, LocalDate start) {
+        return new JournalRecord(Type.STANDING_ORDER, order.fromAccount, order.toAccount,
+                Money.toMinor(order.amount, Money.MAX_SCALE), scheduledDate(start), 0, order.id,
+                order.rule.encode());
+    }
+
+    static JournalRecord occurrenceDone(long orderId, LocalDate date) {
+        return new JournalRecord(Type.OCCURRENCE_DONE, null, null, 0, date.toEpochDay(), 0, orderId, null);
+    }
+
+    static JournalRecord standingOrderCancel(long orderId) {
+        return new JournalRecord(Type.STANDING_ORDER_CANCEL, null, null, 0, 0, 0, orderId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getCounterparty() {
+        return counterparty;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getSecondaryAmount() {
+        return secondaryAmount;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public long getReference() {
+        return reference;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // The date of a SCHEDULE record, or the start date of a STANDING_ORDER
+    LocalDate getScheduledDate() {
+        return LocalDate.ofEpochDay((int) secondaryAmount);
+    }
+
+    double getScheduledAmount() {
+        int packedScale = (int) (secondaryAmount >>> 32);
+        return Money.toMajor(amount, packedScale == 0 ? Money.DEFAULT_SCALE : packedScale - 1);
+    }
+
+    void encode(ByteBuffer buffer, long lsn, long timestamp) {
+        this.lsn = lsn;
+        this.timestamp = timestamp;
+        buffer.put((byte) type.ordinal());
+        buffer.putLong(lsn);
+        buffer.putLong(timestamp);
+        putString(buffer, accountId);
+        putString(buffer, counterparty);
+        buffer.putLong(amount);
+        buffer.putLong(secondaryAmount);
+        buffer.putDouble(rate);
+        buffer.putLong(reference);
+        putString(buffer, text);
+    }
+
+    int maxEncodedSize() {
+        return 1 + 8 + 8 + 8 + 8 + 8 + 8 + stringSize(accountId) + stringSize(counterparty) + stringSize(text);
+    }
+
+    static JournalRecord decode(ByteBuffer buffer) {
+        Type type = TYPES[buffer.get()];
+        long lsn = buffer.getLong();
+        long timestamp = buffer.getLong();
+        String accountId = getString(buffer);
+        String counterparty = getString(buffer);
+        long amount = buffer.getLong();
+        long secondaryAmount = buffer.getLong();
+        double rate = buffer.getDouble();
+        long reference = buffer.getLong();
+        String text = getString(buffer);
+        JournalRecord record = new JournalRecord(type, accountId, counterparty, amount, secondaryAmount,
+                rate, reference, text);
+        record.lsn = lsn;
+        record.timestamp = timestamp;
+        return record;
+    }
+
+    private static int stringSize(String value) {
+        return 2 + (value == null ? 0 : value.length() * 3);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "lsn=" + lsn +
+                ", type=" + type +
+                ", accountId='" + accountId + '\'' +
+                ", amount=" + amount +
+                '}';
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bankaccount;
+
+// Log-linear histogram of nanosecond latencies: every power of two is split into 64 linear
+// buckets, so a value is reported within 1.6% from a fixed 20 KB of counters. Values past
+// 2^44 ns (about 4.9 hours) share the top bucket. Not thread-safe; concurrent writers keep
+// their own counters and add them up into one, as Metrics does.
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 6;
+    static final int MAX_VALUE_BITS = 44;
+    static final int BUCKETS = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+    private static final long MAX_TRACKABLE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        sum += clamped;
+        max = Math.max(max, clamped);
+    }
+
+    // Coordinated omission correction for a sender that meant to issue a request every
+    // expectedInterval: a stall of value also delayed the requests that should have gone out
+    // during it, so those are recorded too, at the latencies they would have seen.
+    public void recordCorrected(long value, long expectedInterval) {
+        record(value);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missed = value - expectedInterval; missed >= expectedInterval; missed -= expectedInterval) {
+            record(missed);
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        add(other.counts, other.sum, other.max);
+    }
+
+    // Adds raw bucket counts laid out as indexOf assigns them
+    void add(long[] bucketCounts, double valueSum, long valueMax) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += bucketCounts[i];
+            totalCount += bucketCounts[i];
+        }
+        sum += valueSum;
+        max = Math.max(max, valueMax);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    // Lowest recorded value, to bucket precision
+    public long getMin() {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                return lowestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    // Smallest value (to bucket precision) that at least percentile% of the values are at or below
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        long clamped = Math.min(value, MAX_TRACKABLE);
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(clamped) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (clamped >>> shift);
+    }
+
+    static long lowestEquivalentValue(int index) {
+        if (index < 2 << SUB_BUCKET_BITS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+    }
+
+    static long highestEquivalentValue(int index) {
+        int shift = Math.max(0, (index >>> SUB_BUCKET_BITS) - 1);
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.bankaccount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared append-only store for account history. Entries are fixed-width binary records in
+// memory-mapped segment files, so history lives off-heap and cursors read it in place. Each
+// entry holds the index of its account's next entry, which lets every account share one
+// ledger while reading only its own chain (see AccountLedger).
+//
+// Account ids and currency codes, a bounded vocabulary, are interned into small integer ids kept
+// in a names file. Free-text notes are appended to a notes file instead and referenced by
+// position, so they cost no heap. Reopening a directory keeps its entries: new entries append
+// after them and each AccountLedger picks its chain back up by account id.
+//
+// The ledger is a spill area for history, not a durability mechanism: nothing is forced to
+// disk, and account state is recovered from the Journal.
+public final class Ledger {
+    public enum EntryType {
+        DEPOSIT, WITHDRAWAL, TRANSFER, CONVERSION, NOTE, INTEREST
+    }
+
+    static final int ENTRY_SIZE = 48;
+    private static final int TIMESTAMP = 0;
+    private static final int AMOUNT = 8;
+    private static final int BALANCE_AFTER = 16;
+    private static final int NEXT = 24;
+    private static final int COUNTERPARTY = 32;
+    private static final int OWNER = 36;
+    private static final int TYPE = 40;
+    // TYPE of the marker AccountLedger.clear leaves; no chain ever links to one
+    private static final int CLEARED = -1;
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    private static final long SEGMENT_BYTES = (long) ENTRY_SIZE << SEGMENT_SHIFT;
+    private static final EntryType[] TYPES = EntryType.values();
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+    private final boolean temporary;
+    private final AtomicLong nextIndex;
+    private final Object segmentLock;
+    private volatile MappedByteBuffer[] segments;
+    private final ConcurrentMap<String, Integer> ids;
+    private volatile String[] names;
+    private int nameCount;
+    private final FileChannel nameFile;
+    private final FileChannel noteFile;
+    private long noteEnd; // guarded by noteFile
+    // Chains found when the directory was reopened, keyed by owner id, until their accounts claim them
+    private final ConcurrentMap<Integer, long[]> restoredChains;
+
+    private Ledger(Path directory, boolean temporary) throws IOException {
+        this.directory = directory;
+        this.temporary = temporary;
+        this.nextIndex = new AtomicLong();
+        this.segmentLock = new Object();
+        this.segments = new MappedByteBuffer[0];
+        this.ids = new ConcurrentHashMap<>();
+        this.names = new String[64];
+        this.restoredChains = new ConcurrentHashMap<>();
+        this.nameFile = openFile(directory.resolve("ledger-names.dat"));
+        this.noteFile = openFile(directory.resolve("ledger-notes.dat"));
+        this.noteEnd = noteFile.size();
+        loadNames();
+        restoreEntries();
+    }
+
+    public static Ledger open(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            return new Ledger(directory, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Ledger used by accounts that were not given one, backed by a temporary directory.
+    public static Ledger getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long size() {
+        return nextIndex.get();
+    }
+
+    long append(int owner, EntryType type, long amount, long balanceAfter, int counterparty) {
+        long index = nextIndex.getAndIncrement();
+        write(index, owner, type, amount, balanceAfter, counterparty);
+        return index;
+    }
+
+    // Claims count consecutive entries for a batch to fill in with write, and returns the
+    // first. An entry left unwritten keeps a zero timestamp and is skipped on reopen.
+    long reserve(int count) {
+        return nextIndex.getAndAdd(count);
+    }
+
+    void write(long index, int owner, EntryType type, long amount, long balanceAfter, int counterparty) {
+        MappedByteBuffer segment = segment(index);
+        int offset = offset(index);
+        LONGS.set(segment, offset + TIMESTAMP, System.currentTimeMillis());
+        LONGS.set(segment, offset + AMOUNT, amount);
+        LONGS.set(segment, offset + BALANCE_AFTER, balanceAfter);
+        INTS.set(segment, offset + COUNTERPARTY, counterparty);
+        INTS.set(segment, offset + OWNER, owner);
+        INTS.set(segment, offset + TYPE, type.ordinal());
+    }
+
+    // Records that owner's history was cleared, so a reopen does not bring the detached chain back
+    void markCleared(int owner) {
+        long index = nextIndex.getAndIncrement();
+        MappedByteBuffer segment = segment(index);
+        int offset = offset(index);
+        LONGS.set(segment, offset + TIMESTAMP, System.currentTimeMillis());
+        INTS.set(segment, offset + OWNER, owner);
+        INTS.set(segment, offset + TYPE, CLEARED);
+    }
+
+    // Notes carry no amount, so a note entry's amount slot holds the note's position in the notes file
+    long appendNote(int owner, long balanceAfter, String note) {
+        byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+        record.putInt(bytes.length).put(bytes).flip();
+        long position;
+        synchronized (noteFile) {
+            position = noteEnd;
+            try {
+                while (record.hasRemaining()) {
+                    noteFile.write(record, noteEnd + record.position());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            noteEnd += record.limit();
+        }
+        return append(owner, EntryType.NOTE, position, balanceAfter, -1);
+    }
+
+    // Publishes next as the entry following index in its account chain. Stored plus one so
+    // that the zero left in a freshly mapped segment means "no next entry".
+    void link(long index, long next) {
+        LONGS.setRelease(segment(index), offset(index) + NEXT, next + 1);
+    }
+
+    long next(long index) {
+        return (long) LONGS.getAcquire(segment(index), offset(index) + NEXT) - 1;
+    }
+
+    long timestamp(long index) {
+        return (long) LONGS.get(segment(index), offset(index) + TIMESTAMP);
+    }
+
+    long amount(long index) {
+        return type(index) == EntryType.NOTE ? 0 : (long) LONGS.get(segment(index), offset(index) + AMOUNT);
+    }
+
+    String note(long index) {
+        long position = (long) LONGS.get(segment(index), offset(index) + AMOUNT);
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(noteFile, length, position);
+            ByteBuffer bytes = ByteBuffer.allocate(length.getInt(0));
+            readFully(noteFile, bytes, position + Integer.BYTES);
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long balanceAfter(long index) {
+        return (long) LONGS.get(segment(index), offset(index) + BALANCE_AFTER);
+    }
+
+    int counterparty(long index) {
+        return (int) INTS.get(segment(index), offset(index) + COUNTERPARTY);
+    }
+
+    int owner(long index) {
+        return (int) INTS.get(segment(index), offset(index) + OWNER);
+    }
+
+    EntryType type(long index) {
+        return TYPES[rawType(index)];
+    }
+
+    private int rawType(long index) {
+        return (int) INTS.get(segment(index), offset(index) + TYPE);
+    }
+
+    // Account ids and currency codes are stored as small integer ids into this table. It only
+    // grows, so free text must go through appendNote instead.
+    int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (ids) {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = ByteBuffer.allocate(Short.BYTES + bytes.length);
+            record.putShort((short) bytes.length).put(bytes).flip();
+            try {
+                while (record.hasRemaining()) {
+                    nameFile.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return addName(value);
+        }
+    }
+
+    // Hands an account its chain from before the ledger was reopened, once: {head, tail, size}
+    long[] takeRestoredChain(int owner) {
+        return restoredChains.remove(owner);
+    }
+
+    private int addName(String value) {
+        String[] current = names;
+        if (nameCount == current.length) {
+            current = Arrays.copyOf(current, nameCount * 2);
+        }
+        current[nameCount] = value;
+        names = current;
+        ids.put(value, nameCount);
+        return nameCount++;
+    }
+
+    private void loadNames() throws IOException {
+        ByteBuffer contents = ByteBuffer.allocate(Math.toIntExact(nameFile.size()));
+        readFully(nameFile, contents, 0);
+        contents.flip();
+        // A record cut short by a crash mid-write is dropped and overwritten by the next name
+        while (contents.remaining() >= Short.BYTES) {
+            int length = contents.getShort(contents.position());
+            if (length < 0 || contents.remaining() < Short.BYTES + length) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            contents.position(contents.position() + Short.BYTES).get(bytes);
+            addName(new String(bytes, StandardCharsets.UTF_8));
+        }
+        nameFile.truncate(contents.position());
+        nameFile.position(contents.position());
+    }
+
+    // Maps the segments already in the directory, resumes appending after their last written
+    // entry and finds each owner's chain. A chain's head is the first entry of its owner that
+    // no other entry links to and that follows the owner's last clear marker; walking it from
+    // there gives the tail and size.
+    private void restoreEntries() {
+        int count = 0;
+        while (Files.exists(segmentPath(count))) {
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        segment((long) (count - 1) << SEGMENT_SHIFT); // maps segments 0 to count - 1
+        long end = (long) count << SEGMENT_SHIFT;
+        while (end > 0 && timestamp(end - 1) == 0) {
+            end--;
+        }
+        nextIndex.set(end);
+        BitSet linked = new BitSet(Math.toIntExact(end));
+        for (long index = 0; index < end; index++) {
+            long next = next(index);
+            if (next >= 0 && next < end) {
+                linked.set((int) next);
+            }
+        }
+        Map<Integer, Long> cleared = new HashMap<>();
+        for (long index = 0; index < end; index++) {
+            if (timestamp(index) != 0 && rawType(index) == CLEARED) {
+                cleared.put(owner(index), index);
+            }
+        }
+        Map<Integer, Long> heads = new HashMap<>();
+        for (long index = 0; index < end; index++) {
+            if (timestamp(index) != 0 && !linked.get((int) index) && rawType(index) != CLEARED
+                    && index > cleared.getOrDefault(owner(index), -1L)) {
+                heads.putIfAbsent(owner(index), index);
+            }
+        }
+        for (Map.Entry<Integer, Long> head : heads.entrySet()) {
+            long tail = head.getValue();
+            long size = 1;
+            for (long next = next(tail); next >= 0; next = next(tail)) {
+                tail = next;
+                size++;
+            }
+            restoredChains.put(head.getKey(), new long[]{head.getValue(), tail, size});
+        }
+    }
+
+    String name(int id) {
+        return id < 0 ? null : names[id];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & SEGMENT_MASK) * ENTRY_SIZE;
+    }
+
+    private MappedByteBuffer segment(long index) {
+        int number = (int) (index >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] current = segments;
+        if (number < current.length) {
+            return current[number];
+        }
+        synchronized (segmentLock) {
+            current = segments;
+            if (number < current.length) {
+                return current[number];
+            }
+            MappedByteBuffer[] grown = Arrays.copyOf(current, number + 1);
+            for (int i = current.length; i <= number; i++) {
+                grown[i] = map(i);
+            }
+            segments = grown;
+            return grown[number];
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("ledger-%010d.seg", number));
+    }
+
+    private MappedByteBuffer map(int number) {
+        Path path = segmentPath(number);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (temporary) {
+                path.toFile().deleteOnExit();
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FileChannel openFile(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (temporary) {
+            path.toFile().deleteOnExit();
+        }
+        return channel;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + channel);
+            }
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final Ledger INSTANCE = createTemporary();
+
+        private static Ledger createTemporary() {
+            try {
+                Path directory = Files.createTempDirectory("bank-ledger");
+                directory.toFile().deleteOnExit();
+                return new Ledger(directory, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankaccount;
+
+// Forward-only view over an account's ledger entries. Accessors read the current entry straight
+// from the mapped segment; entries appended while iterating are picked up as they are linked.
+public final class LedgerCursor {
+    private final Ledger ledger;
+    private final long start;
+    private final int scale;
+    private long current;
+
+    LedgerCursor(Ledger ledger, long start, int scale) {
+        this.ledger = ledger;
+        this.start = start;
+        this.scale = scale;
+        this.current = -1;
+    }
+
+    public boolean next() {
+        long candidate = current < 0 ? start : ledger.next(current);
+        if (candidate < 0) {
+            return false;
+        }
+        current = candidate;
+        return true;
+    }
+
+    public long timestamp() {
+        return ledger.timestamp(position());
+    }
+
+    public Ledger.EntryType type() {
+        return ledger.type(position());
+    }
+
+    // Amount in minor units of the account currency
+    public long amount() {
+        return ledger.amount(position());
+    }
+
+    public long balanceAfter() {
+        return ledger.balanceAfter(position());
+    }
+
+    // Counterparty account for transfers, target currency for conversions, text for notes
+    public String counterparty() {
+        long index = position();
+        return ledger.type(index) == Ledger.EntryType.NOTE
+                ? ledger.note(index)
+                : ledger.name(ledger.counterparty(index));
+    }
+
+    // Legacy text form of the entry, as returned by BankAccount.getTransactionHistory()
+    public String describe() {
+        return switch (type()) {
+            case DEPOSIT -> "Deposited: " + Money.toMajor(amount(), scale);
+            case WITHDRAWAL -> "Withdrew: " + Money.toMajor(amount(), scale);
+            case TRANSFER -> "Transferred: " + Money.toMajor(amount(), scale) + " to " + counterparty();
+            case CONVERSION -> "Converted balance to: " + Money.toMajor(balanceAfter(), scale) + " " + counterparty();
+            case NOTE -> counterparty();
+            case INTEREST -> "Interest credited: " + Money.toMajor(amount(), scale);
+        };
+    }
+
+    private long position() {
+        if (current < 0) {
+            throw new IllegalStateException("Cursor is not positioned on an entry");
+        }
+        return current;
+    }
+}
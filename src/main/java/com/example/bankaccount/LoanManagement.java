@@ -1,58 +1,380 @@
 package com.example.bankaccount;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collector;
 
+// Loan book keyed by account. Each mutation runs inside the map's per-key compute, so
+// applications and repayments for one account are serialised, and journaled in the same
+// order, while different accounts proceed in parallel.
 public class LoanManagement {
-    private final Map<String, Loan> loans;
+    private final ConcurrentMap<String, Loan> loans;
+    // Next installment due date -> accounts, kept in step with loans inside the same compute,
+    // so finding overdue loans never walks the whole book
+    private final NavigableMap<LocalDate, Set<String>> dueIndex;
+    // The same buckets by date. A skip list's compute can apply a function and still lose to a
+    // concurrent removal, so each date's bucket is created, filled, emptied and dropped inside
+    // this map's compute, which holds the date's lock; dueIndex is only written from there.
+    private final ConcurrentMap<LocalDate, Set<String>> dueBuckets;
+    // Portfolio running totals, adjusted by every change to the book so a summary is O(1).
+    // Adders are updated independently, so a summary read during a burst of changes can mix
+    // totals from either side of an in-flight update.
+    private final LongAdder loanCount;
+    private final LongAdder totalPrincipal;
+    private final LongAdder totalOutstanding;
+    private final DoubleAdder rateWeightedOutstanding;
+    private final ConcurrentMap<Integer, LongAdder> outstandingByTenure;
+    private final AmortizationEngine amortization;
+    private volatile Journal journal;
+    private volatile Metrics metrics = Metrics.getDefault();
 
     public LoanManagement() {
-        loans = new HashMap<>();
+        this(new AmortizationEngine());
+    }
+
+    public LoanManagement(AmortizationEngine amortization) {
+        this.loans = new ConcurrentHashMap<>();
+        this.dueIndex = new ConcurrentSkipListMap<>();
+        this.dueBuckets = new ConcurrentHashMap<>();
+        this.loanCount = new LongAdder();
+        this.totalPrincipal = new LongAdder();
+        this.totalOutstanding = new LongAdder();
+        this.rateWeightedOutstanding = new DoubleAdder();
+        this.outstandingByTenure = new ConcurrentHashMap<>();
+        this.amortization = amortization;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
     }
 
     public void applyForLoan(String accountId, double amount, double interestRate, int tenureMonths) {
-        if (loans.containsKey(accountId)) {
-            throw new IllegalStateException("Existing loan detected. Repay before applying for a new loan.");
+        applyForLoan(accountId, amount, interestRate, tenureMonths, LocalDate.now());
+    }
+
+    // Installments fall due monthly from one month after startDate
+    void applyForLoan(String accountId, double amount, double interestRate, int tenureMonths, LocalDate startDate) {
+        long start = System.nanoTime();
+        Journal current = journal;
+        long[] lsn = new long[1];
+        try {
+            loans.compute(accountId, (id, existing) -> {
+                if (existing != null) {
+                    throw new IllegalStateException("Existing loan detected. Repay before applying for a new loan.");
+                }
+                Loan loan = new Loan(id, amount, interestRate, tenureMonths, startDate);
+                if (current != null) {
+                    lsn[0] = current.append(JournalRecord.loanApply(id, loan.getPrincipalMinor(), interestRate,
+                            tenureMonths, startDate));
+                }
+                index(loan);
+                track(loan, 1, loan.getOutstandingMinor());
+                return loan;
+            });
+        } catch (IllegalStateException e) {
+            metrics.record(Metrics.Operation.LOAN_APPLY, Metrics.Result.EXISTING_LOAN, start);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            metrics.record(Metrics.Operation.LOAN_APPLY, Metrics.Result.INVALID_AMOUNT, start);
+            throw e;
         }
-        loans.put(accountId, new Loan(accountId, amount, interestRate, tenureMonths));
+        if (current != null) {
+            current.awaitDurable(lsn[0]);
+        }
+        metrics.record(Metrics.Operation.LOAN_APPLY, Metrics.Result.SUCCESS, start);
     }
 
     public void repayLoan(String accountId, double payment) {
+        repayLoanMinor(accountId, Money.toMinor(payment, Money.DEFAULT_SCALE));
+    }
+
+    public void repayLoanMinor(String accountId, long payment) {
+        long start = System.nanoTime();
+        Journal current = journal;
+        long[] lsn = {-1};
+        try {
+            loans.computeIfPresent(accountId, (id, active) -> {
+                Loan updated = repay(active, payment);
+                lsn[0] = current == null ? 0 : current.append(JournalRecord.loanRepay(id, payment));
+                return updated;
+            });
+        } catch (IllegalArgumentException e) {
+            metrics.record(Metrics.Operation.LOAN_REPAY, Metrics.Result.INVALID_AMOUNT, start);
+            throw e;
+        }
+        if (lsn[0] < 0) {
+            metrics.record(Metrics.Operation.LOAN_REPAY, Metrics.Result.NO_ACTIVE_LOAN, start);
+            throw new IllegalArgumentException("No active loan for this account");
+        }
+        if (lsn[0] > 0) {
+            current.awaitDurable(lsn[0]);
+        }
+        metrics.record(Metrics.Operation.LOAN_REPAY, Metrics.Result.SUCCESS, start);
+    }
+
+    // What the account's loan would cost as a reducing-balance EMI loan on the same principal,
+    // rate and tenure, e.g. to quote a refinance. It is a quote only: the loan itself is billed
+    // flat (see Loan), and its outstanding balance and due dates do not follow this schedule.
+    public AmortizationEngine.Schedule quoteEmiSchedule(String accountId) {
         Loan loan = loans.get(accountId);
         if (loan == null) {
             throw new IllegalArgumentException("No active loan for this account");
         }
-        loan.repay(payment);
-        if (loan.getOutstandingAmount() <= 0) {
-            loans.remove(accountId);
+        return amortization.schedule(loan.getPrincipalMinor(), loan.getInterestRate(), loan.getTenureMonths());
+    }
+
+    // Loans whose next installment is due on or before date, i.e. overdue after that day
+    public List<Loan> getLoansDueOnOrBefore(LocalDate date) {
+        return loansDue(null, date);
+    }
+
+    // Loans whose next installment is due in (after, through]; after may be null for no bound
+    List<Loan> loansDue(LocalDate after, LocalDate through) {
+        NavigableMap<LocalDate, Set<String>> range = after == null
+                ? dueIndex.headMap(through, true)
+                : dueIndex.subMap(after, false, through, true);
+        List<Loan> due = new ArrayList<>();
+        for (Set<String> accounts : range.values()) {
+            for (String accountId : accounts) {
+                Loan loan = loans.get(accountId);
+                if (loan != null) {
+                    due.add(loan);
+                }
+            }
+        }
+        return due;
+    }
+
+    int countDue(LocalDate after, LocalDate through) {
+        NavigableMap<LocalDate, Set<String>> range = after == null
+                ? dueIndex.headMap(through, true)
+                : dueIndex.subMap(after, false, through, true);
+        int count = 0;
+        for (Set<String> accounts : range.values()) {
+            count += accounts.size();
+        }
+        return count;
+    }
+
+    // Applies a repayment and moves the loan in the due index; null once it is paid off
+    private Loan repay(Loan loan, long payment) {
+        LocalDate dueBefore = loan.getNextDueDate();
+        long outstandingBefore = loan.getOutstandingMinor();
+        loan.repayMinor(payment);
+        if (loan.getOutstandingMinor() <= 0) {
+            unindex(loan.accountId, dueBefore);
+            track(loan, -1, -outstandingBefore);
+            return null;
+        }
+        track(loan, 0, loan.getOutstandingMinor() - outstandingBefore);
+        if (!loan.getNextDueDate().equals(dueBefore)) {
+            unindex(loan.accountId, dueBefore);
+            index(loan);
+        }
+        return loan;
+    }
+
+    private void index(Loan loan) {
+        dueBuckets.compute(loan.getNextDueDate(), (date, accounts) -> {
+            if (accounts == null) {
+                accounts = ConcurrentHashMap.newKeySet();
+                dueIndex.put(date, accounts);
+            }
+            accounts.add(loan.accountId);
+            return accounts;
+        });
+    }
+
+    private void unindex(String accountId, LocalDate dueDate) {
+        dueBuckets.computeIfPresent(dueDate, (date, accounts) -> {
+            accounts.remove(accountId);
+            if (accounts.isEmpty()) {
+                dueIndex.remove(date);
+                return null;
+            }
+            return accounts;
+        });
+    }
+
+    // Totals maintained as loans change: O(1) whatever the size of the book
+    public PortfolioSummary getPortfolioSummary() {
+        SortedMap<Integer, Long> exposure = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : outstandingByTenure.entrySet()) {
+            long amount = entry.getValue().sum();
+            if (amount != 0) {
+                exposure.put(entry.getKey(), amount);
+            }
+        }
+        long outstanding = totalOutstanding.sum();
+        return new PortfolioSummary(loanCount.sum(), totalPrincipal.sum(), outstanding,
+                outstanding == 0 ? 0.0 : rateWeightedOutstanding.sum() / outstanding,
+                Collections.unmodifiableSortedMap(exposure));
+    }
+
+    // Recomputes the same figures from every loan with one parallel pass over the book, for
+    // reconciliation against the running totals
+    public PortfolioSummary aggregatePortfolio() {
+        BankingEvents.LoanBatch event = new BankingEvents.LoanBatch();
+        event.begin();
+        PortfolioSummary summary = loans.values().parallelStream()
+                .collect(Collector.of(PortfolioTotals::new, PortfolioTotals::add, PortfolioTotals::merge))
+                .toSummary();
+        event.end();
+        if (event.shouldCommit()) {
+            event.job = "portfolio aggregation";
+            event.loans = summary.loanCount();
+            event.results = summary.outstandingByTenure().size();
+            event.commit();
+        }
+        return summary;
+    }
+
+    private void track(Loan loan, int count, long outstandingDelta) {
+        loanCount.add(count);
+        totalPrincipal.add(count * loan.getPrincipalMinor());
+        totalOutstanding.add(outstandingDelta);
+        rateWeightedOutstanding.add(loan.getInterestRate() * outstandingDelta);
+        outstandingByTenure.computeIfAbsent(loan.getTenureMonths(), tenure -> new LongAdder()).add(outstandingDelta);
+    }
+
+    List<Loan> getLoans() {
+        return new ArrayList<>(loans.values());
+    }
+
+    void restore(Loan loan) {
+        loans.compute(loan.accountId, (id, previous) -> {
+            if (previous != null) {
+                unindex(id, previous.getNextDueDate());
+                track(previous, -1, -previous.getOutstandingMinor());
+            }
+            index(loan);
+            track(loan, 1, loan.getOutstandingMinor());
+            return loan;
+        });
+    }
+
+    void apply(JournalRecord record) {
+        switch (record.getType()) {
+            case LOAN_APPLY -> restore(new Loan(record.getAccountId(),
+                    Money.toMajor(record.getAmount(), Money.DEFAULT_SCALE), record.getRate(),
+                    (int) record.getReference(), startDate(record)));
+            case LOAN_REPAY -> loans.computeIfPresent(record.getAccountId(),
+                    (id, loan) -> repay(loan, record.getAmount()));
+            default -> {
+            }
         }
     }
 
     public Loan getLoanDetails(String accountId) {
         return loans.get(accountId);
     }
+
+    // Records written before loans carried a start date fall back to the day they were journaled
+    private static LocalDate startDate(JournalRecord record) {
+        if (record.getSecondaryAmount() != 0) {
+            return LocalDate.ofEpochDay(record.getSecondaryAmount());
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(record.getTimestamp()), ZoneId.systemDefault());
+    }
+
+    // Amounts are minor units; the weighted average rate is weighted by outstanding balance
+    public record PortfolioSummary(long loanCount, long totalPrincipal, long totalOutstanding,
+                                   double weightedAverageRate, SortedMap<Integer, Long> outstandingByTenure) {
+    }
+
+    private static final class PortfolioTotals {
+        long count;
+        long principal;
+        long outstanding;
+        double rateWeighted;
+        final Map<Integer, Long> byTenure = new HashMap<>();
+
+        void add(Loan loan) {
+            count++;
+            principal += loan.getPrincipalMinor();
+            outstanding += loan.getOutstandingMinor();
+            rateWeighted += loan.getInterestRate() * loan.getOutstandingMinor();
+            byTenure.merge(loan.getTenureMonths(), loan.getOutstandingMinor(), Long::sum);
+        }
+
+        PortfolioTotals merge(PortfolioTotals other) {
+            count += other.count;
+            principal += other.principal;
+            outstanding += other.outstanding;
+            rateWeighted += other.rateWeighted;
+            other.byTenure.forEach((tenure, amount) -> byTenure.merge(tenure, amount, Long::sum));
+            return this;
+        }
+
+        PortfolioSummary toSummary() {
+            return new PortfolioSummary(count, principal, outstanding,
+                    outstanding == 0 ? 0.0 : rateWeighted / outstanding,
+                    Collections.unmodifiableSortedMap(new TreeMap<>(byTenure)));
+        }
+    }
 }
 
 class Loan {
     final String accountId;
-    private final double principal;
+    private final long principal;
     private final double interestRate;
     private final int tenureMonths;
-    private double outstandingAmount;
+    private final LocalDate startDate;
+    private final long totalPayable;
+    private final long installment;
+    // Flat total of principal plus simple interest, as originally agreed; written under the
+    // loan book's per-account lock and read without it
+    private volatile long outstandingAmount;
 
     public Loan(String accountId, double principal, double interestRate, int tenureMonths) {
+        this(accountId, principal, interestRate, tenureMonths, LocalDate.now());
+    }
+
+    Loan(String accountId, double principal, double interestRate, int tenureMonths, LocalDate startDate) {
+        this(accountId, Money.toMinor(principal, Money.DEFAULT_SCALE), interestRate, tenureMonths, -1, startDate);
+    }
+
+    // outstandingAmount < 0 means a new loan owing its full total
+    Loan(String accountId, long principal, double interestRate, int tenureMonths, long outstandingAmount,
+         LocalDate startDate) {
         this.accountId = accountId;
         this.principal = principal;
         this.interestRate = interestRate;
         this.tenureMonths = tenureMonths;
-        this.outstandingAmount = calculateTotalPayable();
+        this.startDate = startDate;
+        this.totalPayable = calculateTotalPayable();
+        this.installment = tenureMonths > 0 ? (totalPayable + tenureMonths - 1) / tenureMonths : totalPayable;
+        this.outstandingAmount = outstandingAmount < 0 ? totalPayable : outstandingAmount;
     }
 
-    private double calculateTotalPayable() {
-        return principal + (principal * interestRate * tenureMonths / 12);
+    private long calculateTotalPayable() {
+        return principal + Math.round(principal * interestRate * tenureMonths / 12);
     }
 
     public void repay(double amount) {
+        repayMinor(Money.toMinor(amount, Money.DEFAULT_SCALE));
+    }
+
+    public void repayMinor(long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Repayment amount must be positive");
         }
@@ -61,14 +383,41 @@ class Loan {
 
 
     public double getOutstandingAmount() {
+        return Money.toMajor(outstandingAmount, Money.DEFAULT_SCALE);
+    }
+
+    public long getOutstandingMinor() {
         return outstandingAmount;
     }
 
     public double getPrincipal() {
+        return Money.toMajor(principal, Money.DEFAULT_SCALE);
+    }
+
+    public long getPrincipalMinor() {
         return principal;
     }
 
     public double getInterestRate() {
         return interestRate;
     }
+
+    public int getTenureMonths() {
+        return tenureMonths;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    // Equal monthly share of the flat total, rounded up so the last one is never larger
+    public long getInstallmentMinor() {
+        return installment;
+    }
+
+    // Due date of the earliest installment that repayments so far have not fully covered
+    public LocalDate getNextDueDate() {
+        long covered = installment == 0 ? 0 : (totalPayable - outstandingAmount) / installment;
+        return startDate.plusMonths(Math.min(Math.max(covered, 0), Math.max(tenureMonths - 1, 0)) + 1);
+    }
 }
@@ -0,0 +1,201 @@
+package com.example.bankaccount;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Per-operation result counters and latency histograms. Threads record into a fixed set of
+// recorders picked by thread id, so the hot path is a few atomic adds with no locks or
+// allocation (a recorder's histogram for an operation is created on its first use), and
+// threads only share a recorder with the few others on the same stripe. The set never grows,
+// however many threads come and go, which matters when every request runs on its own
+// virtual thread. Snapshots add the recorders up; they are not atomic across threads, so a
+// snapshot taken while operations are in flight can be off by those few.
+public final class Metrics {
+    public enum Operation {
+        DEPOSIT, WITHDRAW, TRANSFER, CONVERT, LOAN_APPLY, LOAN_REPAY, TRANSFER_EXECUTION
+    }
+
+    public enum Result {
+        SUCCESS, AUTHENTICATION_FAILED, INVALID_AMOUNT, INSUFFICIENT_FUNDS, ACCOUNT_LOCKED, UNKNOWN_ACCOUNT,
+        UNSUPPORTED_CURRENCY, EXISTING_LOAN, NO_ACTIVE_LOAN
+    }
+
+    private static final int MIN_RECORDERS = 8;
+    private static final int RECORDERS_PER_CORE = 2;
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Result[] RESULTS = Result.values();
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle HISTOGRAMS = MethodHandles.arrayElementVarHandle(long[][].class);
+
+    private final Recorder[] recorders;
+    private final int mask;
+
+    public Metrics() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int size = Integer.highestOneBit(Math.max(cores * RECORDERS_PER_CORE, MIN_RECORDERS) - 1) << 1;
+        this.recorders = new Recorder[size];
+        for (int i = 0; i < size; i++) {
+            recorders[i] = new Recorder();
+        }
+        this.mask = size - 1;
+    }
+
+    private static final class DefaultHolder {
+        static final Metrics INSTANCE = new Metrics();
+    }
+
+    // Shared by every component that is not given its own
+    public static Metrics getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    // Records one operation that started at startNanos (System.nanoTime) and has just finished
+    public void record(Operation operation, Result result, long startNanos) {
+        recorderFor(Thread.currentThread()).record(operation, result, System.nanoTime() - startNanos);
+    }
+
+    // Thread ids are handed out in sequence, so consecutive threads land on consecutive recorders
+    @SuppressWarnings("deprecation") // Thread.threadId() is not available before Java 19
+    private Recorder recorderFor(Thread thread) {
+        return recorders[(int) thread.getId() & mask];
+    }
+
+    int recorderCount() {
+        return recorders.length;
+    }
+
+    public Snapshot snapshot() {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : OPERATIONS) {
+            long[] results = new long[RESULTS.length];
+            long[] buckets = new long[LatencyHistogram.BUCKETS];
+            LatencyHistogram latency = new LatencyHistogram();
+            for (Recorder recorder : recorders) {
+                recorder.addTo(operation, results, buckets, latency);
+            }
+            Map<Result, Long> byResult = new EnumMap<>(Result.class);
+            for (Result result : RESULTS) {
+                if (results[result.ordinal()] != 0) {
+                    byResult.put(result, results[result.ordinal()]);
+                }
+            }
+            stats.put(operation, new OperationStats(operation, Collections.unmodifiableMap(byResult), latency));
+        }
+        return new Snapshot(System.currentTimeMillis(), Collections.unmodifiableMap(stats));
+    }
+
+    // Prints a snapshot to out every period on a daemon thread until the returned handle is closed
+    public AutoCloseable dumpEvery(Duration period, PrintStream out) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Dump period must be positive");
+        }
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = period.toNanos();
+        dumper.scheduleAtFixedRate(() -> out.print(snapshot().format()), nanos, nanos, TimeUnit.NANOSECONDS);
+        return dumper::shutdownNow;
+    }
+
+    public record OperationStats(Operation operation, Map<Result, Long> results, LatencyHistogram latency) {
+        public long count() {
+            return latency.getCount();
+        }
+
+        public long count(Result result) {
+            return results.getOrDefault(result, 0L);
+        }
+
+        public long failures() {
+            return count() - count(Result.SUCCESS);
+        }
+    }
+
+    public record Snapshot(long timestampMillis, Map<Operation, OperationStats> operations) {
+        public OperationStats get(Operation operation) {
+            return operations.get(operation);
+        }
+
+        // One line per operation that has run: counts, latency percentiles in microseconds and
+        // failures by reason
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.ROOT, "%-18s %10s %10s %s%n", "operation", "count", "failed",
+                    "latency us (p50 / p99 / p99.9 / max)"));
+            for (OperationStats stats : operations.values()) {
+                if (stats.count() == 0) {
+                    continue;
+                }
+                LatencyHistogram latency = stats.latency();
+                text.append(String.format(Locale.ROOT, "%-18s %10d %10d %.1f / %.1f / %.1f / %.1f",
+                        stats.operation(), stats.count(), stats.failures(),
+                        latency.valueAtPercentile(50) / 1e3, latency.valueAtPercentile(99) / 1e3,
+                        latency.valueAtPercentile(99.9) / 1e3, latency.getMax() / 1e3));
+                for (Map.Entry<Result, Long> entry : stats.results().entrySet()) {
+                    if (entry.getKey() != Result.SUCCESS) {
+                        text.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+                    }
+                }
+                text.append(System.lineSeparator());
+            }
+            return text.toString();
+        }
+    }
+
+    // Shared by every thread on its stripe, so each counter is updated with an atomic add and
+    // the maximum with a CAS loop; snapshot threads read each counter whole.
+    private static final class Recorder {
+        private final long[] results = new long[OPERATIONS.length * RESULTS.length];
+        private final long[][] histograms = new long[OPERATIONS.length][];
+        private final long[] sums = new long[OPERATIONS.length];
+        private final long[] maxima = new long[OPERATIONS.length];
+
+        void record(Operation operation, Result result, long nanos) {
+            int op = operation.ordinal();
+            long value = Math.max(0, nanos);
+            LONGS.getAndAdd(results, op * RESULTS.length + result.ordinal(), 1L);
+            long[] buckets = (long[]) HISTOGRAMS.getAcquire(histograms, op);
+            if (buckets == null) {
+                long[] created = new long[LatencyHistogram.BUCKETS];
+                long[] raced = (long[]) HISTOGRAMS.compareAndExchange(histograms, op, null, created);
+                buckets = raced == null ? created : raced;
+            }
+            LONGS.getAndAdd(buckets, LatencyHistogram.indexOf(value), 1L);
+            LONGS.getAndAdd(sums, op, value);
+            long max = (long) LONGS.getOpaque(maxima, op);
+            while (value > max) {
+                long witness = (long) LONGS.compareAndExchange(maxima, op, max, value);
+                if (witness == max) {
+                    break;
+                }
+                max = witness;
+            }
+        }
+
+        void addTo(Operation operation, long[] resultCounts, long[] buckets, LatencyHistogram latency) {
+            int op = operation.ordinal();
+            long[] recorded = (long[]) HISTOGRAMS.getAcquire(histograms, op);
+            if (recorded == null) {
+                return;
+            }
+            for (int r = 0; r < RESULTS.length; r++) {
+                resultCounts[r] += (long) LONGS.getOpaque(results, op * RESULTS.length + r);
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = (long) LONGS.getOpaque(recorded, i);
+            }
+            latency.add(buckets, (long) LONGS.getOpaque(sums, op), (long) LONGS.getOpaque(maxima, op));
+        }
+    }
+}
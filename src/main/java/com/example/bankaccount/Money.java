@@ -0,0 +1,167 @@
+package com.example.bankaccount;
+
+import java.util.Currency;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Money implements Comparable<Money> {
+    public static final int DEFAULT_SCALE = 2;
+    // The most fraction digits any ISO 4217 currency uses (CLF, UYW)
+    public static final int MAX_SCALE = 4;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+    private static final Map<String, Integer> SCALES = new ConcurrentHashMap<>();
+
+    private final long minorUnits;
+    private final String currency;
+    private final int scale;
+
+    private Money(long minorUnits, String currency, int scale) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+        this.scale = scale;
+    }
+
+    public static Money of(double amount, String currency) {
+        int scale = scaleOf(currency);
+        return new Money(toMinor(amount, scale), currency, scale);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency, scaleOf(currency));
+    }
+
+    public static int scaleOf(String currency) {
+        Integer cached = SCALES.get(currency);
+        if (cached != null) {
+            return cached;
+        }
+        int scale;
+        try {
+            scale = Currency.getInstance(currency).getDefaultFractionDigits();
+        } catch (IllegalArgumentException e) {
+            scale = DEFAULT_SCALE;
+        }
+        if (scale < 0) {
+            scale = DEFAULT_SCALE;
+        }
+        SCALES.putIfAbsent(currency, scale);
+        return scale;
+    }
+
+    // Rejects NaN, infinities and amounts whose minor units do not fit in a long, which
+    // Math.round would otherwise clamp without a word
+    public static long toMinor(double amount, int scale) {
+        return roundToLong(amount * POWERS_OF_TEN[scale], amount);
+    }
+
+    public static double toMajor(long minorUnits, int scale) {
+        return (double) minorUnits / POWERS_OF_TEN[scale];
+    }
+
+    public static long multiply(long minorUnits, double factor) {
+        return roundToLong(minorUnits * factor, factor);
+    }
+
+    private static long roundToLong(double value, double input) {
+        if (!(Math.abs(value) < 0x1p63)) {
+            throw new IllegalArgumentException("Amount out of range: " + input);
+        }
+        return Math.round(value);
+    }
+
+    public static long rescale(long minorUnits, int fromScale, int toScale) {
+        if (fromScale == toScale) {
+            return minorUnits;
+        }
+        if (toScale > fromScale) {
+            return Math.multiplyExact(minorUnits, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        long divisor = POWERS_OF_TEN[fromScale - toScale];
+        long quotient = minorUnits / divisor;
+        long remainder = minorUnits % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(minorUnits);
+        }
+        return quotient;
+    }
+
+    static double scaleFactor(int fromScale, int toScale) {
+        return fromScale >= toScale
+                ? 1.0 / POWERS_OF_TEN[fromScale - toScale]
+                : POWERS_OF_TEN[toScale - fromScale];
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public double toDouble() {
+        return toMajor(minorUnits, scale);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency, scale);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency, scale);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        long unit = POWERS_OF_TEN[scale];
+        long abs = Math.abs(minorUnits);
+        String sign = minorUnits < 0 ? "-" : "";
+        if (scale == 0) {
+            return sign + abs + " " + currency;
+        }
+        String fraction = String.valueOf(abs % unit);
+        while (fraction.length() < scale) {
+            fraction = "0" + fraction;
+        }
+        return sign + (abs / unit) + "." + fraction + " " + currency;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bankaccount;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Salted SHA-256 of an account PIN, encoded as "sha256$<salt>$<hash>" in Base64. Accounts keep
+// only this form, and it is what the journal and snapshots persist, so a PIN never reaches disk
+// in the clear. A four-digit PIN can still be brute forced from its hash, so the data directory
+// stays access-controlled; the salt keeps one table from cracking every account at once.
+final class PinHash {
+    private static final String PREFIX = "sha256$";
+    private static final int SALT_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private PinHash() {
+    }
+
+    // A null PIN yields a null hash, which no PIN matches
+    static String create(String pin) {
+        if (pin == null) {
+            return null;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        return PREFIX + ENCODER.encodeToString(salt) + '$' + ENCODER.encodeToString(digest(salt, pin));
+    }
+
+    static boolean matches(String encoded, String pin) {
+        if (encoded == null || pin == null) {
+            return false;
+        }
+        int split = encoded.indexOf('$', PREFIX.length());
+        byte[] salt = DECODER.decode(encoded.substring(PREFIX.length(), split));
+        byte[] expected = DECODER.decode(encoded.substring(split + 1));
+        return MessageDigest.isEqual(expected, digest(salt, pin));
+    }
+
+    // Journals and snapshots written before PINs were hashed hold the PIN itself
+    static String fromStored(String stored) {
+        return stored == null || stored.startsWith(PREFIX) ? stored : create(stored);
+    }
+
+    private static byte[] digest(byte[] salt, String pin) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(salt);
+            return sha256.digest(pin.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
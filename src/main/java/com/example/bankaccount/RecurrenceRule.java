@@ -0,0 +1,118 @@
+package com.example.bankaccount;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// When a standing order repeats. Each occurrence is computed from the previous one on demand,
+// so a standing order is stored once however many times it runs.
+public final class RecurrenceRule {
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY_ON_DAY, LAST_BUSINESS_DAY
+    }
+
+    private final Frequency frequency;
+    private final int dayOfMonth;
+    private final LocalDate until;
+
+    private RecurrenceRule(Frequency frequency, int dayOfMonth, LocalDate until) {
+        this.frequency = frequency;
+        this.dayOfMonth = dayOfMonth;
+        this.until = until;
+    }
+
+    public static RecurrenceRule daily() {
+        return new RecurrenceRule(Frequency.DAILY, 0, null);
+    }
+
+    // Repeats on the weekday of the start date
+    public static RecurrenceRule weekly() {
+        return new RecurrenceRule(Frequency.WEEKLY, 0, null);
+    }
+
+    // Days past the end of a short month fall on its last day, e.g. the 31st runs on 30 April
+    public static RecurrenceRule monthlyOnDay(int dayOfMonth) {
+        if (dayOfMonth < 1 || dayOfMonth > 31) {
+            throw new IllegalArgumentException("Day of month must be between 1 and 31");
+        }
+        return new RecurrenceRule(Frequency.MONTHLY_ON_DAY, dayOfMonth, null);
+    }
+
+    // Last Monday to Friday of each month
+    public static RecurrenceRule lastBusinessDay() {
+        return new RecurrenceRule(Frequency.LAST_BUSINESS_DAY, 0, null);
+    }
+
+    // Copy of this rule that stops after the given date (inclusive)
+    public RecurrenceRule until(LocalDate lastDate) {
+        return new RecurrenceRule(frequency, dayOfMonth, lastDate);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    // First occurrence on or after start, or null if the rule has already ended
+    public LocalDate firstOnOrAfter(LocalDate start) {
+        LocalDate first = switch (frequency) {
+            case DAILY, WEEKLY -> start;
+            case MONTHLY_ON_DAY, LAST_BUSINESS_DAY -> {
+                LocalDate candidate = inMonth(YearMonth.from(start));
+                yield candidate.isBefore(start) ? inMonth(YearMonth.from(start).plusMonths(1)) : candidate;
+            }
+        };
+        return bounded(first);
+    }
+
+    // Occurrence following previous, or null if the rule has ended
+    public LocalDate nextAfter(LocalDate previous) {
+        LocalDate next = switch (frequency) {
+            case DAILY -> previous.plusDays(1);
+            case WEEKLY -> previous.plusWeeks(1);
+            case MONTHLY_ON_DAY, LAST_BUSINESS_DAY -> inMonth(YearMonth.from(previous).plusMonths(1));
+        };
+        return bounded(next);
+    }
+
+    private LocalDate inMonth(YearMonth month) {
+        if (frequency == Frequency.MONTHLY_ON_DAY) {
+            return month.atDay(Math.min(dayOfMonth, month.lengthOfMonth()));
+        }
+        LocalDate date = month.atEndOfMonth();
+        while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.minusDays(1);
+        }
+        return date;
+    }
+
+    private LocalDate bounded(LocalDate date) {
+        return until != null && date.isAfter(until) ? null : date;
+    }
+
+    // Compact form stored in the journal and snapshots: FREQUENCY:day:until
+    String encode() {
+        return frequency + ":" + dayOfMonth + ":" + (until == null ? "" : until.toString());
+    }
+
+    static RecurrenceRule decode(String encoded) {
+        String[] parts = encoded.split(":", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed recurrence rule: " + encoded);
+        }
+        return new RecurrenceRule(Frequency.valueOf(parts[0]), Integer.parseInt(parts[1]),
+                parts[2].isEmpty() ? null : LocalDate.parse(parts[2]));
+    }
+
+    @Override
+    public String toString() {
+        return "RecurrenceRule{" + encode() + '}';
+    }
+}
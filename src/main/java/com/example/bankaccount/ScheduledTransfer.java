@@ -2,44 +2,308 @@ package com.example.bankaccount;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class ScheduledTransfer {
-    private final List<Transfer> transfers;
+    // Pending transfers bucketed by execution date, so due transfers are popped from the
+    // head of the map without looking at anything scheduled later. A bucket keeps scheduling
+    // order and drops a cancelled transfer in constant time however many share its date.
+    private final NavigableMap<LocalDate, Set<Transfer>> transfers;
+    private final Map<Long, Transfer> transfersById;
+    // Standing orders are stored once; only each order's next occurrence sits in the buckets
+    private final Map<Long, StandingOrder> standingOrders;
+    private int size;
+    private long nextTransferId;
+    private Journal journal;
 
     public ScheduledTransfer() {
-        this.transfers = new ArrayList<>();
+        this.transfers = new TreeMap<>();
+        this.transfersById = new HashMap<>();
+        this.standingOrders = new HashMap<>();
+        this.nextTransferId = 1;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
     }
 
     public void scheduleTransfer(String fromAccount, String toAccount, double amount, LocalDate date) {
         if (date.isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Cannot schedule transfers in the past");
         }
-        transfers.add(new Transfer(fromAccount, toAccount, amount, date));
+        Transfer transfer = new Transfer(nextTransferId++, fromAccount, toAccount, amount, date);
+        // Built first, so an amount the journal cannot hold is refused before the transfer is queued
+        JournalRecord record = journal == null ? null : JournalRecord.schedule(transfer);
+        add(transfer);
+        if (record != null) {
+            journal.appendAndSync(record);
+        }
+    }
+
+    // Repeats from start according to rule until the rule ends or the order is cancelled.
+    // Returns the standing order id.
+    public long scheduleRecurringTransfer(String fromAccount, String toAccount, double amount, LocalDate start,
+                                          RecurrenceRule rule) {
+        if (start.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot schedule transfers in the past");
+        }
+        StandingOrder order = new StandingOrder(nextTransferId++, fromAccount, toAccount, amount, rule);
+        JournalRecord record = journal == null ? null : JournalRecord.standingOrder(order, start);
+        if (!startStandingOrder(order, rule.firstOnOrAfter(start))) {
+            throw new IllegalArgumentException("Recurrence rule ends before the start date");
+        }
+        if (record != null) {
+            journal.appendAndSync(record);
+        }
+        return order.id;
+    }
+
+    public void cancelStandingOrder(long orderId) {
+        if (!stopStandingOrder(orderId)) {
+            throw new IllegalArgumentException("Unknown standing order: " + orderId);
+        }
+        if (journal != null) {
+            journal.appendAndSync(JournalRecord.standingOrderCancel(orderId));
+        }
+    }
+
+    public List<StandingOrder> getStandingOrders() {
+        return new ArrayList<>(standingOrders.values());
     }
 
+    // Pending transfers in execution order: by date, then in the order they were scheduled
     public List<Transfer> getScheduledTransfers() {
-        return new ArrayList<>(transfers);
+        List<Transfer> pending = new ArrayList<>(size);
+        for (Set<Transfer> bucket : transfers.values()) {
+            pending.addAll(bucket);
+        }
+        return pending;
     }
 
+    public int size() {
+        return size;
+    }
+
+    // Executes everything dated today or earlier, so days the job did not run are caught up
     public void executeDueTransfers() {
-        LocalDate today = LocalDate.now();
-        transfers.removeIf(transfer -> {
-            boolean isDueToday = transfer.date.isEqual(today);
-            if (isDueToday) {
-                System.out.println("Executed transfer: " + transfer);
+        executeDueTransfers(LocalDate.now());
+    }
+
+    void executeDueTransfers(LocalDate today) {
+        BankingEvents.ScheduledTransferBatch event = new BankingEvents.ScheduledTransferBatch();
+        event.begin();
+        List<Transfer> due = takeDueTransfers(today);
+        for (Transfer transfer : due) {
+            System.out.println("Executed transfer: " + transfer);
+        }
+        recordDone(due);
+        commitBatch(event, due.size(), 0);
+    }
+
+    // Moves the money for every due transfer through the engine and reports each outcome. An
+    // executed transfer is marked done by the same journal record that moves its money; the
+    // rest are marked once the batch finishes. A crash before a transfer's marker is durable
+    // leaves it pending on recovery, so it runs exactly once.
+    // A transfer that fails is marked done too and is not retried: retrying blindly could move
+    // money days late or loop on a locked account. Its outcome is returned so the caller can
+    // notify the customer or schedule it again. A failed standing order occurrence only skips
+    // that date; the order's next occurrence is queued as usual.
+    public List<TransferExecutionEngine.Outcome> executeDueTransfers(TransferExecutionEngine engine) {
+        BankingEvents.ScheduledTransferBatch event = new BankingEvents.ScheduledTransferBatch();
+        event.begin();
+        List<TransferExecutionEngine.Outcome> outcomes = engine.execute(takeDueTransfers(LocalDate.now()));
+        List<Transfer> failed = new ArrayList<>();
+        for (TransferExecutionEngine.Outcome outcome : outcomes) {
+            if (outcome.status() != TransferExecutionEngine.Status.EXECUTED) {
+                failed.add(outcome.transfer());
+            }
+        }
+        recordDone(failed);
+        commitBatch(event, outcomes.size() - failed.size(), failed.size());
+        return outcomes;
+    }
+
+    private static void commitBatch(BankingEvents.ScheduledTransferBatch event, int executed, int failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.due = executed + failed;
+            event.executed = executed;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    // Removes and returns everything dated on or before today, in execution order. Taking a
+    // standing order's occurrence queues its next one, which is taken too if it is also due.
+    // Nothing is journaled here: until its marker is written a transfer is still pending in
+    // the journal.
+    List<Transfer> takeDueTransfers(LocalDate today) {
+        List<Transfer> due = new ArrayList<>();
+        Map.Entry<LocalDate, Set<Transfer>> bucket;
+        while ((bucket = transfers.firstEntry()) != null && !bucket.getKey().isAfter(today)) {
+            transfers.pollFirstEntry();
+            for (Transfer transfer : bucket.getValue()) {
+                due.add(transfer);
+                size--;
+                if (transfer.standingOrderId != 0) {
+                    advance(standingOrders.get(transfer.standingOrderId), transfer.date);
+                } else {
+                    transfersById.remove(transfer.id);
+                }
+            }
+        }
+        return due;
+    }
+
+    // Journals an execution marker for each transfer and waits until they are all durable
+    void recordDone(List<Transfer> done) {
+        if (journal == null) {
+            return;
+        }
+        long lsn = 0;
+        for (Transfer transfer : done) {
+            if (transfer.standingOrderId != 0) {
+                lsn = journal.append(JournalRecord.occurrenceDone(transfer.standingOrderId, transfer.date));
+            } else if (transfer.id != 0) {
+                lsn = journal.append(JournalRecord.scheduleDone(transfer.id));
+            }
+        }
+        if (lsn > 0) {
+            journal.awaitDurable(lsn);
+        }
+    }
+
+    void restore(Transfer transfer) {
+        add(transfer);
+        nextTransferId = Math.max(nextTransferId, transfer.id + 1);
+    }
+
+    void restoreStandingOrder(StandingOrder order, LocalDate nextDate) {
+        startStandingOrder(order, nextDate);
+        nextTransferId = Math.max(nextTransferId, order.id + 1);
+    }
+
+    private boolean startStandingOrder(StandingOrder order, LocalDate firstDate) {
+        if (firstDate == null) {
+            return false;
+        }
+        standingOrders.put(order.id, order);
+        queueOccurrence(order, firstDate);
+        return true;
+    }
+
+    private boolean stopStandingOrder(long orderId) {
+        StandingOrder order = standingOrders.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        unlink(order.pending);
+        return true;
+    }
+
+    // Queues the occurrence after date, or retires the order once its rule has ended
+    private void advance(StandingOrder order, LocalDate date) {
+        LocalDate next = order.rule.nextAfter(date);
+        if (next == null) {
+            standingOrders.remove(order.id);
+            order.pending = null;
+        } else {
+            queueOccurrence(order, next);
+        }
+    }
+
+    private void queueOccurrence(StandingOrder order, LocalDate date) {
+        order.pending = new Transfer(0, order.id, order.fromAccount, order.toAccount, order.amount, date);
+        add(order.pending);
+    }
+
+    private void add(Transfer transfer) {
+        transfers.computeIfAbsent(transfer.date, date -> new LinkedHashSet<>()).add(transfer);
+        if (transfer.id != 0) {
+            transfersById.put(transfer.id, transfer);
+        }
+        size++;
+    }
+
+    private void remove(long transferId) {
+        unlink(transfersById.remove(transferId));
+    }
+
+    private void unlink(Transfer transfer) {
+        if (transfer == null) {
+            return;
+        }
+        Set<Transfer> bucket = transfers.get(transfer.date);
+        bucket.remove(transfer);
+        if (bucket.isEmpty()) {
+            transfers.remove(transfer.date);
+        }
+        size--;
+    }
+
+    // Markers of one standing order can be journaled out of date order when an earlier
+    // occurrence failed in the same batch, so a marker moves the order past its date at most
+    // once and a stale marker is ignored.
+    private void occurrenceDone(long orderId, LocalDate date) {
+        StandingOrder order = standingOrders.get(orderId);
+        if (order != null && order.pending != null && !order.pending.date.isAfter(date)) {
+            unlink(order.pending);
+            advance(order, date);
+        }
+    }
+
+    void apply(JournalRecord record) {
+        switch (record.getType()) {
+            case SCHEDULE -> restore(new Transfer(record.getReference(), record.getAccountId(),
+                    record.getCounterparty(), record.getScheduledAmount(), record.getScheduledDate()));
+            case SCHEDULE_DONE -> remove(record.getReference());
+            // A transfer made by the execution engine carries its scheduled transfer's marker
+            case TRANSFER -> {
+                if (record.getReference() != 0 && record.getText() == null) {
+                    remove(record.getReference());
+                } else if (record.getReference() != 0) {
+                    occurrenceDone(record.getReference(), LocalDate.parse(record.getText()));
+                }
+            }
+            case STANDING_ORDER -> {
+                StandingOrder order = new StandingOrder(record.getReference(), record.getAccountId(),
+                        record.getCounterparty(), record.getScheduledAmount(), RecurrenceRule.decode(record.getText()));
+                restoreStandingOrder(order, order.rule.firstOnOrAfter(record.getScheduledDate()));
             }
-            return isDueToday;
-        });
+            case OCCURRENCE_DONE -> occurrenceDone(record.getReference(),
+                    LocalDate.ofEpochDay(record.getSecondaryAmount()));
+            case STANDING_ORDER_CANCEL -> stopStandingOrder(record.getReference());
+            default -> {
+            }
+        }
     }
 
     static class Transfer {
+        final long id;
+        // Set on occurrences generated from a standing order, which have no id of their own
+        final long standingOrderId;
         String fromAccount;
         String toAccount;
         double amount;
         LocalDate date;
 
         public Transfer(String fromAccount, String toAccount, double amount, LocalDate date) {
+            this(0, fromAccount, toAccount, amount, date);
+        }
+
+        Transfer(long id, String fromAccount, String toAccount, double amount, LocalDate date) {
+            this(id, 0, fromAccount, toAccount, amount, date);
+        }
+
+        Transfer(long id, long standingOrderId, String fromAccount, String toAccount, double amount, LocalDate date) {
+            this.id = id;
+            this.standingOrderId = standingOrderId;
             this.fromAccount = fromAccount;
             this.toAccount = toAccount;
             this.amount = amount;
@@ -52,3 +316,39 @@ public class ScheduledTransfer {
         }
     }
 }
+
+class StandingOrder {
+    final long id;
+    final String fromAccount;
+    final String toAccount;
+    final double amount;
+    final RecurrenceRule rule;
+    // The one occurrence currently queued; later ones are generated as this one is taken
+    ScheduledTransfer.Transfer pending;
+
+    StandingOrder(long id, String fromAccount, String toAccount, double amount, RecurrenceRule rule) {
+        this.id = id;
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amount = amount;
+        this.rule = rule;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public RecurrenceRule getRule() {
+        return rule;
+    }
+
+    // Date of the next queued occurrence, or null once the order has finished
+    public LocalDate getNextDate() {
+        return pending == null ? null : pending.date;
+    }
+
+    @Override
+    public String toString() {
+        return "Standing order from " + fromAccount + " to " + toAccount + " of " + amount + " " + rule;
+    }
+}
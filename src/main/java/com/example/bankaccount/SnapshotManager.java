@@ -0,0 +1,302 @@
+package com.example.bankaccount;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Periodically folds sealed journal segments into a compact binary snapshot and then deletes
+// them, so recovery loads one snapshot and replays only the short journal tail. The fold runs
+// on shadow components rebuilt from the previous snapshot, never on the live ones, so writers
+// keep appending to the journal while a checkpoint is in progress.
+public class SnapshotManager implements Closeable {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int MAGIC = 0x42534E50;
+    private static final int VERSION = 6;
+
+    private final Journal journal;
+    private final Path directory;
+    private final ReentrantLock checkpointLock;
+    private ScheduledExecutorService scheduler;
+
+    public SnapshotManager(Journal journal) {
+        this.journal = journal;
+        this.directory = journal.getDirectory();
+        this.checkpointLock = new ReentrantLock();
+    }
+
+    // Seals the active segment, folds every sealed record into a new snapshot and truncates the
+    // journal behind it. Returns the LSN the snapshot covers.
+    public long checkpoint() {
+        checkpointLock.lock();
+        try {
+            long boundary = journal.rotate();
+            AccountRegistry registry = new AccountRegistry(1);
+            LoanManagement loanManagement = new LoanManagement();
+            ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+            long snapshotLsn = load(directory, registry, loanManagement, scheduledTransfer);
+            long lastLsn = Journal.replay(directory, snapshotLsn, boundary, record -> {
+                registry.apply(record);
+                loanManagement.apply(record);
+                scheduledTransfer.apply(record);
+            });
+            if (lastLsn > snapshotLsn) {
+                write(directory, lastLsn, registry, loanManagement, scheduledTransfer);
+            }
+            journal.deleteSegmentsThrough(lastLsn);
+            deleteSnapshotsBefore(directory, lastLsn);
+            return lastLsn;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    public void start(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Snapshot period must be positive");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Snapshots already scheduled");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpoint, period, period, unit);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Loads the latest snapshot, replays the journal written after it and attaches a journal
+    // opened on the same directory.
+    public static Journal recover(Path directory, AccountRegistry registry, LoanManagement loanManagement,
+                                  ScheduledTransfer scheduledTransfer) {
+        long snapshotLsn = load(directory, registry, loanManagement, scheduledTransfer);
+        return Journal.recoverAfter(directory, snapshotLsn, registry, loanManagement, scheduledTransfer);
+    }
+
+    static long latestSnapshotLsn(Path directory) {
+        List<Path> snapshots = snapshots(directory);
+        return snapshots.isEmpty() ? 0 : lsnOf(snapshots.get(snapshots.size() - 1));
+    }
+
+    static List<Path> snapshots(Path directory) {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).sorted().forEach(snapshots::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return snapshots;
+    }
+
+    private static long load(Path directory, AccountRegistry registry, LoanManagement loanManagement,
+                             ScheduledTransfer scheduledTransfer) {
+        List<Path> snapshots = snapshots(directory);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        Path snapshot = snapshots.get(snapshots.size() - 1);
+        CRC32 checksum = new CRC32();
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot)), checksum);
+             DataInputStream in = new DataInputStream(checked)) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > VERSION) {
+                throw new IllegalStateException("Unrecognised snapshot: " + snapshot);
+            }
+            long lsn = in.readLong();
+            int accountCount = in.readInt();
+            for (int i = 0; i < accountCount; i++) {
+                // Version 3 and earlier stored the PIN itself; restoreAccount hashes it
+                BankAccount account = AccountRegistry.restoreAccount(in.readUTF(), in.readUTF(), in.readLong(),
+                        in.readLong(), in.readLong(), in.readUTF());
+                if (in.readBoolean()) {
+                    account.lockAccount();
+                }
+                // Version 5 and earlier did not record accrual state
+                if (version >= 6) {
+                    account.restoreAccrual(in.readLong(), in.readDouble());
+                }
+                registry.restore(account);
+            }
+            int loanCount = in.readInt();
+            for (int i = 0; i < loanCount; i++) {
+                String accountId = in.readUTF();
+                long principal = in.readLong();
+                double interestRate = in.readDouble();
+                int tenureMonths = in.readInt();
+                long outstanding = in.readLong();
+                // Version 2 and earlier did not record start dates; date such loans from today
+                LocalDate startDate = version >= 3 ? LocalDate.ofEpochDay(in.readLong()) : LocalDate.now();
+                loanManagement.restore(new Loan(accountId, principal, interestRate, tenureMonths, outstanding,
+                        startDate));
+            }
+            // Scheduled amounts are stored at MAX_SCALE since version 5, DEFAULT_SCALE before
+            int amountScale = version >= 5 ? Money.MAX_SCALE : Money.DEFAULT_SCALE;
+            int transferCount = in.readInt();
+            for (int i = 0; i < transferCount; i++) {
+                long id = in.readLong();
+                String fromAccount = in.readUTF();
+                String toAccount = in.readUTF();
+                double amount = Money.toMajor(in.readLong(), amountScale);
+                scheduledTransfer.restore(new ScheduledTransfer.Transfer(id, fromAccount, toAccount, amount,
+                        LocalDate.ofEpochDay(in.readLong())));
+            }
+            // Version 1 snapshots predate standing orders
+            int orderCount = version >= 2 ? in.readInt() : 0;
+            for (int i = 0; i < orderCount; i++) {
+                long id = in.readLong();
+                String fromAccount = in.readUTF();
+                String toAccount = in.readUTF();
+                double amount = Money.toMajor(in.readLong(), amountScale);
+                RecurrenceRule rule = RecurrenceRule.decode(in.readUTF());
+                scheduledTransfer.restoreStandingOrder(new StandingOrder(id, fromAccount, toAccount, amount, rule),
+                        LocalDate.ofEpochDay(in.readLong()));
+            }
+            long expected = checksum.getValue();
+            if (in.readLong() != expected) {
+                throw new IllegalStateException("Snapshot checksum mismatch: " + snapshot);
+            }
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(Path directory, long lsn, AccountRegistry registry, LoanManagement loanManagement,
+                              ScheduledTransfer scheduledTransfer) {
+        Path target = snapshotPath(directory, lsn);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 checksum = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)), checksum));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+            List<BankAccount> accounts = registry.getAccounts();
+            out.writeInt(accounts.size());
+            for (BankAccount account : accounts) {
+                out.writeUTF(account.getAccountId());
+                out.writeUTF(account.getCurrency());
+                out.writeLong(JournalRecord.accountReference(account));
+                out.writeLong(account.getBalanceMinor());
+                out.writeLong(account.getOverdraftLimitMinor());
+                out.writeUTF(account.pinHash());
+                out.writeBoolean(account.isLocked());
+                out.writeLong(account.getAccruedThroughDay());
+                out.writeDouble(account.getUnpostedInterest());
+            }
+            List<Loan> loans = loanManagement.getLoans();
+            out.writeInt(loans.size());
+            for (Loan loan : loans) {
+                out.writeUTF(loan.accountId);
+                out.writeLong(loan.getPrincipalMinor());
+                out.writeDouble(loan.getInterestRate());
+                out.writeInt(loan.getTenureMonths());
+                out.writeLong(loan.getOutstandingMinor());
+                out.writeLong(loan.getStartDate().toEpochDay());
+            }
+            // Standing order occurrences are regenerated from their orders, not stored
+            List<ScheduledTransfer.Transfer> transfers = new ArrayList<>();
+            for (ScheduledTransfer.Transfer transfer : scheduledTransfer.getScheduledTransfers()) {
+                if (transfer.standingOrderId == 0) {
+                    transfers.add(transfer);
+                }
+            }
+            out.writeInt(transfers.size());
+            for (ScheduledTransfer.Transfer transfer : transfers) {
+                out.writeLong(transfer.id);
+                out.writeUTF(transfer.fromAccount);
+                out.writeUTF(transfer.toAccount);
+                out.writeLong(Money.toMinor(transfer.amount, Money.MAX_SCALE));
+                out.writeLong(transfer.date.toEpochDay());
+            }
+            List<StandingOrder> orders = scheduledTransfer.getStandingOrders();
+            out.writeInt(orders.size());
+            for (StandingOrder order : orders) {
+                out.writeLong(order.id);
+                out.writeUTF(order.fromAccount);
+                out.writeUTF(order.toAccount);
+                out.writeLong(Money.toMinor(order.amount, Money.MAX_SCALE));
+                out.writeUTF(order.rule.encode());
+                out.writeLong(order.getNextDate().toEpochDay());
+            }
+            out.writeLong(checksum.getValue());
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // The rename has to be on disk before checkpoint deletes the segments it replaces, or a
+        // power cut could keep the deletions and lose the snapshot
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Journal.forceDirectory(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteSnapshotsBefore(Path directory, long lsn) {
+        try {
+            for (Path snapshot : snapshots(directory)) {
+                if (lsnOf(snapshot) < lsn) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Path snapshotPath(Path directory, long lsn) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+    }
+
+    private static long lsnOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
@@ -1,31 +1,339 @@
 package com.example.bankaccount;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 public class TransactionHistory {
-    private final List<String> transactions;
+    private static final int TIME_INDEX_SHIFT = 6;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // Every character a formatted "timestamp - " prefix can hold, lower-cased
+    private static final String PREFIX_CHARS = "0123456789-:t. ";
+
+    // Local date-time of each transaction as nanoseconds since 1970-01-01T00:00, non-decreasing
+    private long[] timestamps;
+    // Timestamp of every 64th transaction, for locating a time range without touching every entry
+    private long[] timeIndex;
+    private int size;
+    private final List<String> details;
+    // Token -> ascending positions of the transactions whose details contain it. Positions
+    // only ever grow, so appending keeps every posting list sorted.
+    private final Map<String, Postings> index;
 
     public TransactionHistory() {
-        this.transactions = new ArrayList<>();
+        this.timestamps = new long[16];
+        this.timeIndex = new long[4];
+        this.details = new ArrayList<>();
+        this.index = new HashMap<>();
     }
 
     public void addTransaction(String transaction) {
-        transactions.add(LocalDateTime.now() + " - " + transaction);
+        addTransaction(LocalDateTime.now(), transaction);
+    }
+
+    // A clock that steps backwards (DST end, NTP correction) is clamped to the previous
+    // timestamp so the history stays sorted by time.
+    void addTransaction(LocalDateTime time, String transaction) {
+        int position = size;
+        long timestamp = toNanos(time);
+        if (position > 0 && timestamp < timestamps[position - 1]) {
+            timestamp = timestamps[position - 1];
+        }
+        if (position == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, position * 2);
+        }
+        timestamps[position] = timestamp;
+        if ((position & ((1 << TIME_INDEX_SHIFT) - 1)) == 0) {
+            int slot = position >>> TIME_INDEX_SHIFT;
+            if (slot == timeIndex.length) {
+                timeIndex = Arrays.copyOf(timeIndex, slot * 2);
+            }
+            timeIndex[slot] = timestamp;
+        }
+        size++;
+        details.add(transaction);
+        for (String token : tokenize(transaction)) {
+            index.computeIfAbsent(token, key -> new Postings()).add(position);
+        }
     }
 
     public List<String> getTransactions() {
-        return new ArrayList<>(transactions);
+        List<String> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactions.add(format(i));
+        }
+        return transactions;
+    }
+
+    public int size() {
+        return size;
     }
 
+    // Transactions with from <= time < to, in insertion order. Pass 0 as the first cursor and
+    // the returned nextCursor for each following page.
+    public Page between(LocalDateTime from, LocalDateTime to, int pageSize, int cursor) {
+        checkPaging(pageSize, cursor);
+        long start = toNanos(from);
+        long end = toNanos(to);
+        int position = Math.max(cursor, lowerBound(start));
+        List<String> entries = new ArrayList<>(Math.min(pageSize, Math.max(size - position, 0)));
+        while (position < size && timestamps[position] < end && entries.size() < pageSize) {
+            entries.add(format(position++));
+        }
+        int nextCursor = position < size && timestamps[position] < end ? position : -1;
+        return new Page(entries, nextCursor);
+    }
+
+    // Case-insensitive substring match on the formatted "timestamp - details" entry. A keyword
+    // that could reach into the timestamp prefix is checked against every formatted entry;
+    // otherwise only transactions holding an indexed token that contains each query token are
+    // checked. Finding those tokens walks the whole vocabulary once per query token.
     public List<String> filterTransactionsByKeyword(String keyword) {
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        List<String> terms = tokenize(needle);
         List<String> filtered = new ArrayList<>();
-        for (String transaction : transactions) {
-            if (transaction.toLowerCase().contains(keyword.toLowerCase())) {
-                filtered.add(transaction);
+        if (mayMatchPrefix(needle)) {
+            for (int i = 0; i < size; i++) {
+                String entry = format(i);
+                if (entry.toLowerCase(Locale.ROOT).contains(needle)) {
+                    filtered.add(entry);
+                }
+            }
+            return filtered;
+        }
+        if (terms.isEmpty()) {
+            for (int i = 0; i < size; i++) {
+                if (details.get(i).toLowerCase(Locale.ROOT).contains(needle)) {
+                    filtered.add(format(i));
+                }
+            }
+            return filtered;
+        }
+        Postings candidates = null;
+        for (String term : terms) {
+            Postings containing = Postings.union(postingsContaining(term));
+            candidates = candidates == null ? containing : Postings.intersect(List.of(candidates, containing));
+        }
+        boolean exact = terms.size() == 1 && terms.get(0).equals(needle);
+        for (int i = 0; i < candidates.size; i++) {
+            int position = candidates.positions[i];
+            if (exact || details.get(position).toLowerCase(Locale.ROOT).contains(needle)) {
+                filtered.add(format(position));
             }
         }
         return filtered;
     }
+
+    // Transactions containing every term, in insertion order, starting at cursor
+    public Page searchAll(List<String> terms, int pageSize, int cursor) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : terms) {
+            Postings postings = index.get(term.toLowerCase(Locale.ROOT));
+            if (postings == null) {
+                return page(Postings.EMPTY, pageSize, cursor);
+            }
+            lists.add(postings);
+        }
+        return page(lists.isEmpty() ? Postings.EMPTY : Postings.intersect(lists), pageSize, cursor);
+    }
+
+    // Transactions containing at least one of the terms, in insertion order, starting at cursor
+    public Page searchAny(List<String> terms, int pageSize, int cursor) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : terms) {
+            Postings postings = index.get(term.toLowerCase(Locale.ROOT));
+            if (postings != null) {
+                lists.add(postings);
+            }
+        }
+        return page(Postings.union(lists), pageSize, cursor);
+    }
+
+    private Page page(Postings matches, int pageSize, int cursor) {
+        checkPaging(pageSize, cursor);
+        int start = matches.ceiling(cursor);
+        int end = Math.min(start + pageSize, matches.size);
+        List<String> entries = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            entries.add(format(matches.positions[i]));
+        }
+        int nextCursor = end < matches.size ? matches.positions[end] : -1;
+        return new Page(entries, nextCursor);
+    }
+
+    private static void checkPaging(int pageSize, int cursor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        if (cursor < 0) {
+            throw new IllegalArgumentException("Cursor must not be negative");
+        }
+    }
+
+    // First position whose timestamp is >= timestamp: a binary search over the sparse index
+    // picks the block, then a short scan inside it finds the entry.
+    private int lowerBound(long timestamp) {
+        int low = 0;
+        int high = (size + (1 << TIME_INDEX_SHIFT) - 1) >>> TIME_INDEX_SHIFT;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeIndex[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int position = Math.max(low - 1, 0) << TIME_INDEX_SHIFT;
+        while (position < size && timestamps[position] < timestamp) {
+            position++;
+        }
+        return position;
+    }
+
+    // A match that starts in the prefix either stays inside it, so the needle holds only prefix
+    // characters, or runs on into the details, so the needle begins with the tail of " - "
+    static boolean mayMatchPrefix(String needle) {
+        if (needle.startsWith(" ") || needle.startsWith("- ") || needle.contains(" - ")) {
+            return true;
+        }
+        for (int i = 0; i < needle.length(); i++) {
+            if (PREFIX_CHARS.indexOf(needle.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String format(int position) {
+        return fromNanos(timestamps[position]) + " - " + details.get(position);
+    }
+
+    static long toNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + time.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    private List<Postings> postingsContaining(String term) {
+        Postings exact = index.get(term);
+        List<Postings> lists = new ArrayList<>();
+        if (exact != null) {
+            lists.add(exact);
+        }
+        for (Map.Entry<String, Postings> entry : index.entrySet()) {
+            if (entry.getValue() != exact && entry.getKey().contains(term)) {
+                lists.add(entry.getValue());
+            }
+        }
+        return lists;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // One page of results. nextCursor is passed back to fetch the following page, or is -1
+    // once the results are exhausted.
+    public record Page(List<String> transactions, int nextCursor) {
+        public boolean hasMore() {
+            return nextCursor >= 0;
+        }
+    }
+
+    private static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        int[] positions = new int[4];
+        int size;
+
+        void add(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        // Index of the first position >= value
+        int ceiling(int value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (positions[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        static Postings intersect(List<Postings> lists) {
+            Postings shortest = lists.get(0);
+            for (Postings list : lists) {
+                if (list.size < shortest.size) {
+                    shortest = list;
+                }
+            }
+            Postings result = new Postings();
+            outer:
+            for (int i = 0; i < shortest.size; i++) {
+                int position = shortest.positions[i];
+                for (Postings list : lists) {
+                    if (list != shortest) {
+                        int at = list.ceiling(position);
+                        if (at == list.size || list.positions[at] != position) {
+                            continue outer;
+                        }
+                    }
+                }
+                result.add(position);
+            }
+            return result;
+        }
+
+        static Postings union(List<Postings> lists) {
+            if (lists.size() == 1) {
+                return lists.get(0);
+            }
+            int total = 0;
+            for (Postings list : lists) {
+                total += list.size;
+            }
+            int[] merged = new int[total];
+            int offset = 0;
+            for (Postings list : lists) {
+                System.arraycopy(list.positions, 0, merged, offset, list.size);
+                offset += list.size;
+            }
+            Arrays.sort(merged);
+            Postings result = new Postings();
+            for (int position : merged) {
+                result.add(position);
+            }
+            return result;
+        }
+    }
 }
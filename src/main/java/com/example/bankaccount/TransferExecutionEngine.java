@@ -0,0 +1,128 @@
+package com.example.bankaccount;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Executes batches of due scheduled transfers against an AccountRegistry. Transfers are
+// partitioned by source account: each account's transfers run in scheduling order on one
+// worker, while different accounts run in parallel on a work-stealing pool. Workers only write
+// their own slots of the outcome array, and money moves through the registry's stripe locks,
+// so there is no global lock. A leaf task waits for the journal once, for the last record its
+// transfers wrote, instead of parking its worker for a force after every transfer.
+public class TransferExecutionEngine {
+    private static final int PARTITIONS_PER_TASK = 8;
+
+    public enum Status {
+        EXECUTED, INSUFFICIENT_FUNDS, ACCOUNT_LOCKED, UNKNOWN_ACCOUNT, INVALID_AMOUNT
+    }
+
+    public record Outcome(ScheduledTransfer.Transfer transfer, Status status) {
+    }
+
+    private final AccountRegistry registry;
+    private final ForkJoinPool pool;
+
+    public TransferExecutionEngine(AccountRegistry registry) {
+        this(registry, ForkJoinPool.commonPool());
+    }
+
+    public TransferExecutionEngine(AccountRegistry registry, ForkJoinPool pool) {
+        this.registry = registry;
+        this.pool = pool;
+    }
+
+    // Outcomes are returned in the same order as the transfers
+    public List<Outcome> execute(List<ScheduledTransfer.Transfer> transfers) {
+        Map<String, List<Integer>> bySource = new LinkedHashMap<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            bySource.computeIfAbsent(transfers.get(i).fromAccount, account -> new ArrayList<>()).add(i);
+        }
+        List<List<Integer>> partitions = new ArrayList<>(bySource.values());
+        Status[] statuses = new Status[transfers.size()];
+        if (!partitions.isEmpty()) {
+            pool.invoke(new PartitionTask(transfers, partitions, 0, partitions.size(), statuses));
+        }
+        List<Outcome> outcomes = new ArrayList<>(statuses.length);
+        for (int i = 0; i < statuses.length; i++) {
+            outcomes.add(new Outcome(transfers.get(i), statuses[i]));
+        }
+        return outcomes;
+    }
+
+    // Transfers run without the customer's PIN: a standing order is authorised when it is
+    // scheduled, so the registry does not ask for it again.
+    // The transfer's journal LSN is raised into durable[0]; the caller waits for it
+    Status executeOne(ScheduledTransfer.Transfer transfer, long[] durable) {
+        long start = System.nanoTime();
+        Status status = attempt(transfer, durable);
+        registry.getMetrics().record(Metrics.Operation.TRANSFER_EXECUTION, result(status), start);
+        return status;
+    }
+
+    private Status attempt(ScheduledTransfer.Transfer transfer, long[] durable) {
+        BankAccount source = registry.getAccount(transfer.fromAccount);
+        BankAccount target = registry.getAccount(transfer.toAccount);
+        if (source == null || target == null) {
+            return Status.UNKNOWN_ACCOUNT;
+        }
+        long amount = Money.toMinor(transfer.amount, source.getScale());
+        if (amount <= 0) {
+            return Status.INVALID_AMOUNT;
+        }
+        // Locks are checked by the registry under the stripe locks, not here, so a lock that
+        // lands while the batch runs still stops the transfer
+        return switch (registry.transfer(transfer.fromAccount, transfer.toAccount, amount, null, transfer, durable)) {
+            case SUCCESS -> Status.EXECUTED;
+            case ACCOUNT_LOCKED -> Status.ACCOUNT_LOCKED;
+            default -> Status.INSUFFICIENT_FUNDS;
+        };
+    }
+
+    private static Metrics.Result result(Status status) {
+        return switch (status) {
+            case EXECUTED -> Metrics.Result.SUCCESS;
+            case INSUFFICIENT_FUNDS -> Metrics.Result.INSUFFICIENT_FUNDS;
+            case ACCOUNT_LOCKED -> Metrics.Result.ACCOUNT_LOCKED;
+            case UNKNOWN_ACCOUNT -> Metrics.Result.UNKNOWN_ACCOUNT;
+            case INVALID_AMOUNT -> Metrics.Result.INVALID_AMOUNT;
+        };
+    }
+
+    private final class PartitionTask extends RecursiveAction {
+        private final List<ScheduledTransfer.Transfer> transfers;
+        private final List<List<Integer>> partitions;
+        private final int from;
+        private final int to;
+        private final Status[] statuses;
+
+        PartitionTask(List<ScheduledTransfer.Transfer> transfers, List<List<Integer>> partitions, int from, int to,
+                      Status[] statuses) {
+            this.transfers = transfers;
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+            this.statuses = statuses;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITIONS_PER_TASK) {
+                long[] durable = {0};
+                for (int p = from; p < to; p++) {
+                    for (int index : partitions.get(p)) {
+                        statuses[index] = executeOne(transfers.get(index), durable);
+                    }
+                }
+                registry.sync(durable[0]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PartitionTask(transfers, partitions, from, mid, statuses),
+                    new PartitionTask(transfers, partitions, mid, to, statuses));
+        }
+    }
+}
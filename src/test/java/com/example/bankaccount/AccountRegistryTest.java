@@ -0,0 +1,208 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class AccountRegistryTest {
+    private static final String PIN = "1234";
+
+    private AccountRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccountRegistry();
+        registry.openAccount("ACC1", 1000.0, "USD", 0.0, PIN);
+        registry.openAccount("ACC2", 500.0, "USD", 0.0, "9999");
+    }
+
+    @Test
+    void openAccount_RegistersAccount() {
+        assertAll(
+                () -> assertEquals(2, registry.size()),
+                () -> assertNotNull(registry.getAccount("ACC1")),
+                () -> assertNull(registry.getAccount("MISSING"))
+        );
+    }
+
+    @Test
+    void setLedger_OnlyBeforeAccountsAreRegistered(@TempDir Path directory) {
+        AccountRegistry empty = new AccountRegistry();
+        Ledger ledger = Ledger.open(directory);
+        empty.setLedger(ledger);
+        BankAccount account = empty.openAccount("ACC1", 10.0, "USD", 0.0, PIN);
+        account.deposit(1.0, PIN);
+        BankAccount elsewhere = new BankAccount("ACC9", 10.0, "USD", 0.0, PIN);
+        elsewhere.deposit(1.0, PIN);
+
+        assertAll(
+                () -> assertSame(ledger, empty.getLedger()),
+                () -> assertEquals(1, new AccountLedger(Ledger.open(directory), "ACC1", 2).size()),
+                () -> assertThrows(IllegalStateException.class, () -> registry.setLedger(ledger)),
+                () -> assertThrows(IllegalStateException.class, () -> empty.register(elsewhere))
+        );
+    }
+
+    @Test
+    void openAccount_DuplicateIdThrows() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> registry.openAccount("ACC1", 10.0, "USD", 0.0, PIN));
+        assertEquals("Account already exists: ACC1", exception.getMessage());
+    }
+
+    @Test
+    void stripeCount_IsPowerOfTwo() {
+        AccountRegistry small = new AccountRegistry(100);
+
+        assertEquals(128, small.getStripeCount());
+        assertEquals(64, new AccountRegistry(1).getStripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new AccountRegistry(0));
+    }
+
+    @Test
+    void depositAndWithdraw_UpdateBalance() {
+        assertTrue(registry.deposit("ACC1", 250.0, PIN));
+        assertTrue(registry.withdraw("ACC1", 50.0, PIN));
+        assertFalse(registry.withdraw("ACC1", 5000.0, PIN));
+
+        assertEquals(1200.0, registry.getBalance("ACC1"), 0.001);
+        assertEquals(2, registry.getTransactionHistory("ACC1").size());
+    }
+
+    @Test
+    void operationsOnUnknownAccount_Throw() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> registry.deposit("MISSING", 10.0, PIN));
+        assertEquals("Unknown account: MISSING", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> registry.transfer("ACC1", "MISSING", 10.0, PIN));
+    }
+
+    @Test
+    void transfer_CreditsTargetWithDifferentPin() {
+        boolean result = registry.transfer("ACC1", "ACC2", 300.0, PIN);
+
+        assertAll(
+                () -> assertTrue(result),
+                () -> assertEquals(700.0, registry.getBalance("ACC1"), 0.001),
+                () -> assertEquals(800.0, registry.getBalance("ACC2"), 0.001)
+        );
+    }
+
+    @Test
+    void transfer_WrongPinLeavesBalancesUnchanged() {
+        assertFalse(registry.transfer("ACC1", "ACC2", 300.0, "0000"));
+
+        assertEquals(1000.0, registry.getBalance("ACC1"), 0.001);
+        assertEquals(500.0, registry.getBalance("ACC2"), 0.001);
+    }
+
+    @Test
+    void lockedAccount_RejectsDepositsWithdrawalsAndTransfers() {
+        Metrics metrics = new Metrics();
+        registry.setMetrics(metrics);
+        registry.enableLockFree("ACC2");
+        registry.lockAccount("ACC1");
+        registry.lockAccount("ACC2");
+
+        assertAll(
+                () -> assertFalse(registry.deposit("ACC1", 10.0, PIN)),
+                () -> assertFalse(registry.withdraw("ACC1", 10.0, PIN)),
+                () -> assertFalse(registry.deposit("ACC2", 10.0, "9999")),
+                () -> assertFalse(registry.withdraw("ACC2", 10.0, "9999")),
+                () -> assertFalse(registry.transfer("ACC1", "ACC2", 10.0, PIN)),
+                () -> assertEquals(1000.0, registry.getBalance("ACC1"), 0.001),
+                () -> assertEquals(500.0, registry.getBalance("ACC2"), 0.001)
+        );
+        Metrics.Snapshot snapshot = metrics.snapshot();
+        assertAll(
+                () -> assertEquals(2, snapshot.get(Metrics.Operation.DEPOSIT).count(Metrics.Result.ACCOUNT_LOCKED)),
+                () -> assertEquals(2, snapshot.get(Metrics.Operation.WITHDRAW).count(Metrics.Result.ACCOUNT_LOCKED)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.TRANSFER).count(Metrics.Result.ACCOUNT_LOCKED))
+        );
+
+        registry.unlockAccount("ACC1", PIN);
+        assertFalse(registry.transfer("ACC1", "ACC2", 10.0, PIN));
+        assertTrue(registry.deposit("ACC1", 10.0, PIN));
+        assertEquals(1010.0, registry.getBalance("ACC1"), 0.001);
+    }
+
+    @Test
+    void concurrentOpposingTransfers_DoNotDeadlockAndConserveMoney() throws Exception {
+        AccountRegistry shared = new AccountRegistry(64);
+        int accounts = 16;
+        for (int i = 0; i < accounts; i++) {
+            shared.openAccount("A" + i, 10_000.0, "USD", 0.0, PIN);
+        }
+        int threads = 8;
+        int iterations = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    int from = (seed + i) % accounts;
+                    int to = (seed * 7 + i * 3 + 1) % accounts;
+                    shared.transfer("A" + from, "A" + to, 1.0, PIN);
+                    shared.transfer("A" + to, "A" + from, 1.0, PIN);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        double total = 0;
+        for (int i = 0; i < accounts; i++) {
+            total += shared.getBalance("A" + i);
+        }
+        assertEquals(accounts * 10_000.0, total, 0.001);
+    }
+
+    @Test
+    void lockFreeAccounts_AcceptConcurrentDepositsWithoutStripeLock() throws Exception {
+        registry.enableLockFree("ACC1");
+        registry.register(new CollectionAccount("COL1", 0.0, "USD", PIN));
+
+        assertTrue(registry.isLockFree("ACC1"));
+        assertTrue(registry.isLockFree("COL1"));
+        assertFalse(registry.isLockFree("ACC2"));
+        assertThrows(IllegalArgumentException.class, () -> registry.enableLockFree("MISSING"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    registry.depositMinor("ACC1", 1, PIN);
+                    registry.depositMinor("COL1", 2, PIN);
+                    registry.withdrawMinor("ACC1", 1, PIN);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100_000, registry.getBalanceMinor("ACC1"));
+        assertEquals(8_000, registry.getBalanceMinor("COL1"));
+    }
+}
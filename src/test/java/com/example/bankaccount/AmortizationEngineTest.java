@@ -0,0 +1,65 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class AmortizationEngineTest {
+    private final AmortizationEngine engine = new AmortizationEngine();
+
+    @Test
+    void schedule_SplitsEachInstallmentIntoPrincipalAndInterest() {
+        // 100,000.00 at 12% over a year: EMI 8,884.88
+        AmortizationEngine.Schedule schedule = engine.schedule(10_000_000, 0.12, 12);
+        List<AmortizationEngine.Installment> installments = schedule.installments();
+
+        long principalPaid = 0;
+        for (AmortizationEngine.Installment installment : installments) {
+            principalPaid += installment.principal();
+            assertEquals(installment.payment(), installment.principal() + installment.interest());
+        }
+        long totalPrincipal = principalPaid;
+        assertAll(
+                () -> assertEquals(888_488, schedule.emi()),
+                () -> assertEquals(100_000, installments.get(0).interest()),
+                () -> assertEquals(788_488, installments.get(0).principal()),
+                () -> assertEquals(10_000_000, totalPrincipal),
+                () -> assertEquals(0, installments.get(11).balance()),
+                () -> assertTrue(Math.abs(installments.get(11).payment() - schedule.emi()) <= 12),
+                () -> assertEquals(schedule.emi() * 12 - 10_000_000, schedule.totalInterest(), 12)
+        );
+    }
+
+    @Test
+    void schedule_InterestFreeLoanRepaysEvenly() {
+        AmortizationEngine.Schedule schedule = engine.schedule(120_000, 0.0, 12);
+
+        assertAll(
+                () -> assertEquals(10_000, schedule.emi()),
+                () -> assertEquals(0, schedule.totalInterest()),
+                () -> assertEquals(0, schedule.installments().get(11).balance())
+        );
+    }
+
+    @Test
+    void schedule_SharesCachedSchedulesAndFactors() {
+        AmortizationEngine.Schedule first = engine.schedule(500_000, 0.08, 24);
+        AmortizationEngine.Schedule second = engine.schedule(500_000, 0.08, 24);
+        engine.schedule(750_000, 0.08, 24);
+
+        assertAll(
+                () -> assertSame(first, second),
+                () -> assertEquals(2, engine.cachedSchedules()),
+                () -> assertEquals(1, engine.cachedFactors())
+        );
+    }
+
+    @Test
+    void schedule_RejectsInvalidTerms() {
+        assertThrows(IllegalArgumentException.class, () -> engine.schedule(0, 0.1, 12));
+        assertThrows(IllegalArgumentException.class, () -> engine.schedule(1000, 0.1, 0));
+        assertThrows(IllegalArgumentException.class, () -> engine.schedule(1000, -0.1, 12));
+    }
+}
@@ -513,4 +513,94 @@ public class BankAccountTest {
                 "Account should unlock with correct PIN after failed attempts");
     }
 
-}
\ No newline at end of file
+    @Test
+    void minorUnitOperations_AreExact() {
+        BankAccount account = new BankAccount("123", 0.0, "USD", 0.0, "1234");
+
+        for (int i = 0; i < 10; i++) {
+            account.deposit(0.1, "1234");
+        }
+        assertTrue(account.withdrawMinor(30, "1234"));
+
+        assertEquals(70, account.getBalanceMinor());
+        assertEquals(0.7, account.getBalance());
+        assertEquals(Money.ofMinor(70, "USD"), account.getBalanceAsMoney());
+    }
+
+    @Test
+    void depositMinor_RejectsNonPositiveAmounts() {
+        assertFalse(account.depositMinor(0, PIN));
+        assertFalse(account.deposit(0.004, PIN), "Amounts that round to zero minor units are rejected");
+        assertEquals(100_000, account.getBalanceMinor());
+    }
+
+    @Test
+    void deposit_RejectsAmountsThatWouldOverflowTheBalance() {
+        BankAccount rich = new BankAccount("RICH", 9e16, "USD", 0.0, PIN);
+        BankAccount source = new BankAccount("SRC", 1e16, "USD", 0.0, PIN);
+
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> account.deposit(1e17, PIN)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> account.deposit(Double.POSITIVE_INFINITY, PIN)),
+                () -> assertEquals(100_000, account.getBalanceMinor()),
+                () -> assertThrows(ArithmeticException.class, () -> rich.deposit(9e16, PIN)),
+                () -> assertThrows(ArithmeticException.class, () -> source.transfer(rich, 5e15, PIN)),
+                () -> assertEquals(1e16, source.getBalance(), "A failed transfer credit is rolled back"),
+                () -> assertEquals(9_000_000_000_000_000_000L, rich.getBalanceMinor())
+        );
+    }
+
+    @Test
+    void transferMinor_RescalesIntoTargetCurrency() {
+        BankAccount yenAccount = new BankAccount("JPY1", 0.0, "JPY", 0.0, "9999");
+
+        assertTrue(account.transferMinor(yenAccount, 12_550, PIN));
+
+        assertEquals(87_450, account.getBalanceMinor());
+        assertEquals(126, yenAccount.getBalanceMinor());
+        assertEquals(0, yenAccount.getScale());
+    }
+
+    @Test
+    void typedAccount_WithdrawRespectsMinimumBalance() {
+        BankAccount savings = new BankAccount("SAV1", 1000.0, "USD", AccountType.SAVINGS, PIN);
+
+        assertAll(
+                () -> assertEquals(AccountType.SAVINGS, savings.getAccountType()),
+                () -> assertFalse(savings.withdraw(500.01, PIN), "Cannot dip below the savings minimum"),
+                () -> assertTrue(savings.withdraw(500.0, PIN)),
+                () -> assertEquals(500.0, savings.getBalance(), 0.001)
+        );
+    }
+
+    @Test
+    void typedAccount_WithdrawUsesOverdraftLimit() {
+        BankAccount current = new BankAccount("CUR1", 200.0, "USD", AccountType.CURRENT, PIN);
+
+        assertEquals(1000.0, current.getOverdraftLimit(), 0.001);
+        assertTrue(current.withdraw(1200.0, PIN));
+        assertFalse(current.withdraw(0.01, PIN));
+        assertEquals(-1000.0, current.getBalance(), 0.001);
+    }
+
+    @Test
+    void concurrentWithdrawals_NeverBreachFloor() throws InterruptedException {
+        BankAccount current = new BankAccount("CUR2", 0.0, "USD", AccountType.CURRENT, PIN);
+        Thread[] workers = new Thread[8];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    current.withdrawMinor(1, PIN);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(-100_000, current.getBalanceMinor());
+        assertEquals(100_000, current.getTransactionHistory().size());
+    }
+}
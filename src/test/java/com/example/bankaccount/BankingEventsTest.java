@@ -0,0 +1,148 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+class BankingEventsTest {
+    private static final String PIN = "1234";
+
+    @TempDir
+    Path directory;
+
+    private Recording start() {
+        Recording recording = new Recording();
+        for (String name : List.of("Transfer", "AccountLockWait", "JournalFlush", "ScheduledTransferBatch",
+                "InterestBatch", "LoanBatch")) {
+            recording.enable("com.example.bankaccount." + name).withThreshold(Duration.ZERO);
+        }
+        recording.start();
+        return recording;
+    }
+
+    private List<RecordedEvent> stop(Recording recording) throws IOException {
+        recording.stop();
+        Path file = directory.resolve("recording.jfr");
+        recording.dump(file);
+        recording.close();
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.example.bankaccount." + name))
+                .toList();
+    }
+
+    @Test
+    void transfer_CarriesAccountsAmountAndOutcome() throws IOException {
+        BankAccount source = new BankAccount("ACC1", 100.0, "USD", 0.0, PIN);
+        BankAccount target = new BankAccount("ACC2", 0.0, "USD", 0.0, PIN);
+        Recording recording = start();
+
+        source.transfer(target, 25.0, PIN);
+        source.transfer(target, 500.0, PIN);
+
+        List<RecordedEvent> events = named(stop(recording), "Transfer");
+        assertAll(
+                () -> assertEquals(2, events.size()),
+                () -> assertEquals("ACC1", events.get(0).getString("fromAccount")),
+                () -> assertEquals("ACC2", events.get(0).getString("toAccount")),
+                () -> assertEquals(2_500, events.get(0).getLong("amount")),
+                () -> assertEquals("USD", events.get(0).getString("currency")),
+                () -> assertTrue(events.get(0).getBoolean("succeeded")),
+                () -> assertFalse(events.get(1).getBoolean("succeeded"))
+        );
+    }
+
+    @Test
+    void contendedStripe_ReportsLockWait() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, PIN));
+        registry.register(new BankAccount("ACC2", 100.0, "USD", 0.0, PIN));
+        ReentrantLock stripe = registry.lockFor("ACC1");
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            stripe.lock();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stripe.unlock();
+            }
+        });
+        Recording recording = start();
+        holder.start();
+        held.await();
+        Thread transfer = new Thread(() -> registry.transfer("ACC1", "ACC2", 10.0, PIN));
+        transfer.start();
+        while (!stripe.hasQueuedThreads()) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        release.countDown();
+        transfer.join();
+        holder.join();
+
+        List<RecordedEvent> waits = named(stop(recording), "AccountLockWait");
+        assertAll(
+                () -> assertEquals(1, waits.size()),
+                () -> assertEquals("ACC1", waits.get(0).getString("accountId")),
+                () -> assertTrue(waits.get(0).getDuration().toMillis() >= 20),
+                () -> assertEquals(110.0, registry.getBalance("ACC2"))
+        );
+    }
+
+    @Test
+    void batchJobsAndFlushes_AreRecorded() throws IOException {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new BankAccount("SAV1", 1_000.0, "USD", AccountType.SAVINGS, PIN));
+        registry.register(new BankAccount("SAV2", 2_000.0, "USD", AccountType.SAVINGS, PIN));
+        ScheduledTransfer scheduled = new ScheduledTransfer();
+        scheduled.scheduleTransfer("SAV1", "SAV2", 10.0, LocalDate.now());
+        scheduled.scheduleTransfer("SAV1", "NOPE", 10.0, LocalDate.now());
+        LoanManagement loans = new LoanManagement();
+        loans.applyForLoan("SAV1", 1_000.0, 0.1, 12);
+        Recording recording = start();
+
+        try (Journal journal = Journal.open(directory.resolve("journal"))) {
+            registry.setJournal(journal);
+            scheduled.executeDueTransfers(new TransferExecutionEngine(registry));
+            new InterestAccrualEngine().accrue(registry, AccountType.SAVINGS, 0.05, 30);
+            loans.aggregatePortfolio();
+            new DelinquencyScanner(loans).scan(LocalDate.now());
+        }
+
+        List<RecordedEvent> events = stop(recording);
+        List<RecordedEvent> batches = named(events, "ScheduledTransferBatch");
+        List<RecordedEvent> interest = named(events, "InterestBatch");
+        List<String> loanJobs = named(events, "LoanBatch").stream().map(event -> event.getString("job")).toList();
+        assertAll(
+                () -> assertEquals(1, batches.size()),
+                () -> assertEquals(2, batches.get(0).getInt("due")),
+                () -> assertEquals(1, batches.get(0).getInt("executed")),
+                () -> assertEquals(1, batches.get(0).getInt("failed")),
+                () -> assertEquals(1, interest.size()),
+                () -> assertEquals("accrual", interest.get(0).getString("job")),
+                () -> assertEquals(2, interest.get(0).getInt("credited")),
+                () -> assertTrue(interest.get(0).getLong("totalInterest") > 0),
+                () -> assertEquals(List.of("portfolio aggregation", "delinquency scan"), loanJobs),
+                () -> assertTrue(named(events, "JournalFlush").stream().anyMatch(event -> event.getLong("bytes") > 0))
+        );
+    }
+}
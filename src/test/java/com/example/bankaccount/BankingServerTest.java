@@ -0,0 +1,324 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+class BankingServerTest {
+    private final AccountRegistry registry = new AccountRegistry();
+    private final LoanManagement loans = new LoanManagement();
+    private final ScheduledTransfer scheduled = new ScheduledTransfer();
+    private static final String ADMIN_TOKEN = "operator-secret";
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private BankingServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new BankingServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), registry,
+                new CurrencyConverter(), loans, scheduled, ADMIN_TOKEN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String pin) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).header(BankingServer.PIN_HEADER, pin).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json, String header, String value)
+            throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).header(header, value)
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private static Map<String, Object> json(HttpResponse<String> response) {
+        return Json.parseObject(response.body());
+    }
+
+    @Test
+    void accounts_OpenDepositWithdrawAndRead() throws Exception {
+        HttpResponse<String> opened = post("/accounts",
+                "{\"accountId\":\"SAV1\",\"balance\":1000,\"currency\":\"USD\",\"type\":\"savings\",\"pin\":\"1234\"}");
+        HttpResponse<String> deposit = post("/accounts/SAV1/deposits", "{\"amount\":250.5,\"pin\":\"1234\"}");
+        HttpResponse<String> belowMinimum = post("/accounts/SAV1/withdrawals", "{\"amount\":1000,\"pin\":\"1234\"}");
+        HttpResponse<String> wrongPin = post("/accounts/SAV1/deposits", "{\"amount\":10,\"pin\":\"0000\"}");
+        HttpResponse<String> account = get("/accounts/SAV1", "1234");
+        HttpResponse<String> history = get("/accounts/SAV1/transactions", "1234");
+
+        assertAll(
+                () -> assertEquals(201, opened.statusCode()),
+                () -> assertEquals("SAVINGS", json(opened).get("type")),
+                () -> assertEquals(200, deposit.statusCode()),
+                () -> assertEquals(1250.5, json(deposit).get("balance")),
+                () -> assertEquals(422, belowMinimum.statusCode()),
+                () -> assertEquals(false, json(belowMinimum).get("success")),
+                () -> assertEquals(422, wrongPin.statusCode()),
+                () -> assertEquals(1250.5, json(account).get("balance")),
+                () -> assertEquals(List.of("Deposited: 250.5"), Json.parse(history.body())),
+                () -> assertEquals("application/json; charset=utf-8",
+                        account.headers().firstValue("Content-Type").orElse(null))
+        );
+    }
+
+    @Test
+    void transfersAndConversions() throws Exception {
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, "1234"));
+        registry.register(new BankAccount("ACC2", 0.0, "USD", 0.0, "5678"));
+
+        HttpResponse<String> transfer = post("/transfers",
+                "{\"fromAccount\":\"ACC1\",\"toAccount\":\"ACC2\",\"amount\":40,\"pin\":\"1234\"}");
+        HttpResponse<String> conversion = get("/conversions?from=USD&to=EUR&amount=10");
+        HttpResponse<String> unsupported = get("/conversions?from=USD&to=XXX&amount=10");
+
+        assertAll(
+                () -> assertEquals(200, transfer.statusCode()),
+                () -> assertEquals(60.0, json(transfer).get("balance")),
+                () -> assertEquals(40.0, registry.getBalance("ACC2")),
+                () -> assertEquals(9.0, (Double) json(conversion).get("converted"), 1e-9),
+                () -> assertEquals(400, unsupported.statusCode()),
+                () -> assertEquals("Unsupported currency", json(unsupported).get("error"))
+        );
+    }
+
+    @Test
+    void loansAndScheduledTransfers() throws Exception {
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, "1234"));
+        registry.register(new BankAccount("ACC2", 0.0, "USD", 0.0, "5678"));
+
+        String application = "{\"accountId\":\"ACC1\",\"amount\":1200,\"interestRate\":0.1,\"tenureMonths\":12,"
+                + "\"pin\":\"1234\"}";
+        HttpResponse<String> applied = post("/loans", application);
+        HttpResponse<String> duplicate = post("/loans", application);
+        HttpResponse<String> repaid = post("/loans/ACC1/repayments", "{\"amount\":200,\"pin\":\"1234\"}");
+        HttpResponse<String> loan = get("/loans/ACC1", "1234");
+        HttpResponse<String> noLoan = get("/loans/ACC2", "5678");
+        HttpResponse<String> schedule = post("/scheduled-transfers", "{\"fromAccount\":\"ACC1\",\"toAccount\":\"ACC2\","
+                + "\"amount\":25,\"date\":\"" + LocalDate.now() + "\",\"pin\":\"1234\"}");
+        HttpResponse<String> pending = get("/scheduled-transfers?fromAccount=ACC1", "1234");
+        HttpResponse<String> noneFromAcc2 = get("/scheduled-transfers?fromAccount=ACC2", "5678");
+        HttpResponse<String> executed = post("/scheduled-transfers/executions", "", BankingServer.ADMIN_HEADER,
+                ADMIN_TOKEN);
+
+        assertAll(
+                () -> assertEquals(201, applied.statusCode()),
+                () -> assertEquals(1320.0, json(applied).get("outstandingAmount")),
+                () -> assertEquals(409, duplicate.statusCode()),
+                () -> assertEquals(1120.0, json(repaid).get("outstandingAmount")),
+                () -> assertEquals(1120.0, json(loan).get("outstandingAmount")),
+                () -> assertEquals(404, noLoan.statusCode()),
+                () -> assertEquals(201, schedule.statusCode()),
+                () -> assertEquals(1, ((List<?>) Json.parse(pending.body())).size()),
+                () -> assertEquals(0, ((List<?>) Json.parse(noneFromAcc2.body())).size()),
+                () -> assertTrue(executed.body().contains("\"status\":\"EXECUTED\""), executed.body()),
+                () -> assertEquals(25.0, registry.getBalance("ACC2"))
+        );
+    }
+
+    @Test
+    void errors_MapToStatusCodes() throws Exception {
+        assertAll(
+                () -> assertEquals(404, get("/nothing-here").statusCode()),
+                () -> assertEquals(404, get("/accounts/NOPE").statusCode()),
+                () -> assertEquals(405, get("/transfers").statusCode()),
+                () -> assertEquals(400, post("/accounts", "{not json").statusCode()),
+                () -> assertEquals(400, post("/accounts", "{\"accountId\":\"A\"}").statusCode()),
+                () -> assertEquals(200, get("/metrics").statusCode())
+        );
+    }
+
+    @Test
+    void accountReadsAndLoans_RequireThePin() throws Exception {
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, "1234"));
+        registry.register(new BankAccount("ACC2", 0.0, "USD", 0.0, "5678"));
+        loans.applyForLoan("ACC1", 1200.0, 0.1, 12);
+
+        assertAll(
+                () -> assertEquals(403, get("/accounts/ACC1").statusCode()),
+                () -> assertEquals(403, get("/accounts/ACC1", "5678").statusCode()),
+                () -> assertEquals(403, get("/accounts/ACC1/transactions").statusCode()),
+                () -> assertEquals(403, get("/loans/ACC1").statusCode()),
+                () -> assertEquals(403, get("/loans/NOPE", "1234").statusCode()),
+                () -> assertEquals(403, post("/loans", "{\"accountId\":\"ACC2\",\"amount\":100,\"interestRate\":0.1,"
+                        + "\"tenureMonths\":12,\"pin\":\"1234\"}").statusCode()),
+                () -> assertEquals(403,
+                        post("/loans/ACC1/repayments", "{\"amount\":200,\"pin\":\"0000\"}").statusCode()),
+                () -> assertEquals(403, post("/scheduled-transfers", "{\"fromAccount\":\"ACC1\",\"toAccount\":\"ACC2\","
+                        + "\"amount\":25,\"date\":\"" + LocalDate.now() + "\",\"pin\":\"5678\"}").statusCode()),
+                () -> assertEquals(1320.0, loans.getLoanDetails("ACC1").getOutstandingAmount()),
+                () -> assertNull(loans.getLoanDetails("ACC2")),
+                () -> assertEquals(0, scheduled.size())
+        );
+    }
+
+    @Test
+    void scheduledTransfers_RequireThePinOrTheOperatorToken() throws Exception {
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, "1234"));
+        registry.register(new BankAccount("ACC2", 0.0, "USD", 0.0, "5678"));
+        scheduled.scheduleTransfer("ACC1", "ACC2", 25.0, LocalDate.now());
+        String executions = "/scheduled-transfers/executions";
+        HttpResponse<String> withoutToken;
+        try (BankingServer unconfigured = new BankingServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                registry, new CurrencyConverter(), loans, scheduled)) {
+            URI target = URI.create("http://127.0.0.1:" + unconfigured.getPort() + executions);
+            withoutToken = client.send(HttpRequest.newBuilder(target).header(BankingServer.ADMIN_HEADER, "")
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        assertAll(
+                () -> assertEquals(403, get("/scheduled-transfers?fromAccount=ACC1").statusCode()),
+                () -> assertEquals(403, get("/scheduled-transfers?fromAccount=ACC1", "5678").statusCode()),
+                () -> assertEquals(400, get("/scheduled-transfers", "1234").statusCode()),
+                () -> assertEquals(403, post(executions, "").statusCode()),
+                () -> assertEquals(403, post(executions, "", BankingServer.ADMIN_HEADER, "guess").statusCode()),
+                () -> assertEquals(403, post(executions, "", BankingServer.PIN_HEADER, "1234").statusCode()),
+                () -> assertEquals(403, withoutToken.statusCode()),
+                () -> assertEquals(1, scheduled.size()),
+                () -> assertEquals(0.0, registry.getBalance("ACC2"))
+        );
+    }
+
+    @Test
+    void hostileRequests_AreRefusedWithoutDetail() throws Exception {
+        String oversized = "{\"amount\":1,\"pin\":\"" + "9".repeat(BankingServer.MAX_BODY_BYTES) + "\"}";
+        HttpResponse<String> tooLarge = post("/transfers", oversized);
+        HttpResponse<String> tooDeep = post("/transfers", "[".repeat(20_000) + "]".repeat(20_000));
+        HttpResponse<String> infinite = post("/transfers",
+                "{\"fromAccount\":\"A\",\"toAccount\":\"B\",\"amount\":1e999,\"pin\":\"1234\"}");
+        AccountRegistry failing = new AccountRegistry() {
+            @Override
+            public BankAccount getAccount(String accountId) {
+                throw new IllegalMonitorStateException("internal detail");
+            }
+        };
+        HttpResponse<String> failed;
+        try (BankingServer other = new BankingServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                failing, new CurrencyConverter(), loans, scheduled)) {
+            failed = client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + other.getPort()
+                    + "/accounts/ACC1")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        assertAll(
+                () -> assertEquals(413, tooLarge.statusCode()),
+                () -> assertEquals(400, tooDeep.statusCode()),
+                () -> assertEquals(400, infinite.statusCode()),
+                () -> assertEquals(500, failed.statusCode()),
+                () -> assertEquals("Internal server error", json(failed).get("error")),
+                () -> assertFalse(failed.body().contains("internal detail"), failed.body())
+        );
+    }
+
+    @Test
+    void pipelinedRequests_AreAnsweredInOrderOnOneConnection() throws Exception {
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, "1234"));
+        String body = "{\"amount\":5,\"pin\":\"1234\"}";
+        String requests = "POST /accounts/ACC1/deposits HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json"
+                + "\r\nContent-Length: " + body.length() + "\r\n\r\n" + body
+                + "GET /accounts/ACC1 HTTP/1.1\r\nHost: localhost\r\nX-Account-Pin: 1234\r\n\r\n"
+                + "GET /nothing-here HTTP/1.1\r\nHost: localhost\r\n\r\n";
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(requests.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                responses.add(readResponse(in));
+            }
+
+            assertAll(
+                    () -> assertTrue(responses.get(0).startsWith("HTTP/1.1 200"), responses.get(0)),
+                    () -> assertTrue(responses.get(0).endsWith("\"balance\":105}"), responses.get(0)),
+                    () -> assertTrue(responses.get(1).contains("\"accountId\":\"ACC1\""), responses.get(1)),
+                    () -> assertTrue(responses.get(2).startsWith("HTTP/1.1 404"), responses.get(2)),
+                    () -> assertFalse(socket.isClosed())
+            );
+        }
+    }
+
+    @Test
+    void concurrentClients_AreServedTogether() {
+        registry.register(new BankAccount("ACC1", 0.0, "USD", 0.0, "1234"));
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/accounts/ACC1/deposits"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1,\"pin\":\"1234\"}")).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+
+        assertAll(
+                () -> assertTrue(responses.stream().allMatch(response -> response.join().statusCode() == 200)),
+                () -> assertEquals(200.0, registry.getBalance("ACC1"))
+        );
+    }
+
+    @Test
+    void requestExecutor_UsesVirtualThreadsWhenAvailable() throws Exception {
+        ExecutorService executor = BankingServer.requestExecutor();
+        try {
+            String threadClass = executor.submit(() -> Thread.currentThread().getClass().getSimpleName()).get();
+            assertEquals(Runtime.version().feature() >= 21, threadClass.contains("Virtual"), threadClass);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Reads one response: headers up to the blank line, then Content-Length bytes of body
+    private static String readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed mid-response");
+            }
+            head.write(b);
+        }
+        String headers = head.toString(StandardCharsets.US_ASCII);
+        int length = 0;
+        for (String line : headers.split("\r\n")) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        return headers + new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
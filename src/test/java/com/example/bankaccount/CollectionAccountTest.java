@@ -0,0 +1,102 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class CollectionAccountTest {
+    private static final String PIN = "1234";
+
+    private CollectionAccount account;
+
+    @BeforeEach
+    void setUp() {
+        account = new CollectionAccount("MERCHANT1", 100.0, "USD", PIN);
+    }
+
+    @Test
+    void deposit_AccumulatesIntoReportedBalance() {
+        assertTrue(account.deposit(25.5, PIN));
+        assertTrue(account.depositMinor(50, PIN));
+
+        assertEquals(12_600, account.getBalanceMinor());
+        assertEquals(126.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    void reconcile_MovesPendingCreditsIntoBase() {
+        account.deposit(40.0, PIN);
+
+        assertEquals(4_000, account.reconcile());
+        assertEquals(0, account.reconcile(), "Nothing left to fold after a reconcile");
+        assertEquals(14_000, account.getBalanceMinor());
+    }
+
+    @Test
+    void withdraw_SeesPendingCredits() {
+        account.deposit(50.0, PIN);
+
+        assertTrue(account.withdraw(150.0, PIN));
+        assertFalse(account.withdraw(0.01, PIN));
+        assertEquals(0, account.getBalanceMinor());
+    }
+
+    @Test
+    void convertBalance_IncludesPendingCredits() {
+        account.deposit(100.0, PIN);
+
+        account.convertBalance(0.5, "EUR");
+
+        assertEquals(100.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    void reconcile_RefusesCreditsThatOverflowTheBalance() {
+        CollectionAccount full = new CollectionAccount("MERCHANT2", 9e16, "USD", PIN);
+
+        assertTrue(full.deposit(9e16, PIN), "Overflow is caught when the credits are drained, not per credit");
+        assertAll(
+                () -> assertEquals(Long.MAX_VALUE, full.getBalanceMinor()),
+                () -> assertThrows(ArithmeticException.class, full::reconcile),
+                () -> assertThrows(ArithmeticException.class, full::reconcile, "The drained credits are put back"),
+                () -> assertThrows(ArithmeticException.class, () -> full.withdraw(1.0, PIN)),
+                () -> assertEquals(Long.MAX_VALUE, full.getBalanceMinor())
+        );
+    }
+
+    @Test
+    void negativeCredits_GoStraightToTheBase() {
+        account.deposit(10.0, PIN);
+
+        account.credit(-2_500);
+
+        assertEquals(8_500, account.getBalanceMinor());
+        assertEquals(1_000, account.reconcile());
+    }
+
+    @Test
+    void concurrentDeposits_AreAllCounted() throws InterruptedException {
+        int threads = 8;
+        int depositsPerThread = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    account.depositMinor(1, PIN);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(10_000 + (long) threads * depositsPerThread, account.getBalanceMinor());
+        assertEquals(threads * depositsPerThread, account.getTransactionHistory().size());
+    }
+}
@@ -31,6 +31,26 @@ class CurrencyConverterTest {
         assertTrue(exception.getMessage().contains("Unsupported currency"));
     }
 
+    @Test
+    void nullCurrency_IsUnsupportedAndMetered() {
+        Metrics metrics = new Metrics();
+        converter.setMetrics(metrics);
+
+        IllegalArgumentException from = assertThrows(IllegalArgumentException.class,
+                () -> converter.convert(null, "USD", 100));
+        IllegalArgumentException to = assertThrows(IllegalArgumentException.class,
+                () -> converter.convertMinor("USD", null, 100));
+
+        assertAll(
+                () -> assertEquals("Unsupported currency", from.getMessage()),
+                () -> assertEquals("Unsupported currency", to.getMessage()),
+                () -> assertEquals(2, metrics.snapshot().get(Metrics.Operation.CONVERT)
+                        .count(Metrics.Result.UNSUPPORTED_CURRENCY)),
+                () -> assertThrows(IllegalArgumentException.class, () -> converter.ordinalOf(null)),
+                () -> assertThrows(IllegalArgumentException.class, () -> converter.updateExchangeRate(null, 1.0))
+        );
+    }
+
     @Test
     void testUpdateExchangeRate() {
         converter.updateExchangeRate("JPY", 110.0);
@@ -201,4 +221,112 @@ class CurrencyConverterTest {
             }
         }
     }
+
+    @Test
+    void convertMinor_AdjustsForCurrencyScale() {
+        converter.updateExchangeRate("JPY", 150.0);
+
+        assertAll(
+                () -> assertEquals(9_000, converter.convertMinor("USD", "EUR", 10_000)),
+                () -> assertEquals(10_000, converter.convertMinor("INR", "USD", 830_000)),
+                () -> assertEquals(15_000, converter.convertMinor("USD", "JPY", 10_000)),
+                () -> assertEquals(10_000, converter.convertMinor("JPY", "USD", 15_000))
+        );
+    }
+
+    @Test
+    void convertMoney_ReturnsAmountInTargetCurrency() {
+        Money converted = converter.convert(Money.of(100.0, "USD"), "GBP");
+
+        assertEquals(Money.of(78.0, "GBP"), converted);
+        assertThrows(IllegalArgumentException.class, () -> converter.convert(Money.of(1.0, "USD"), "XXX"));
+    }
+
+    @Test
+    void ordinals_AreStableAcrossUpdates() {
+        int eur = converter.ordinalOf("EUR");
+        converter.updateExchangeRate("JPY", 150.0);
+        converter.updateExchangeRate("EUR", 0.5);
+
+        assertAll(
+                () -> assertEquals(eur, converter.ordinalOf("EUR")),
+                () -> assertEquals(4, converter.ordinalOf("JPY")),
+                () -> assertEquals(50.0, converter.convert(converter.ordinalOf("USD"), eur, 100.0), 0.001),
+                () -> assertEquals(300.0, converter.convert(eur, converter.ordinalOf("JPY"), 1.0), 0.001),
+                () -> assertEquals(300, converter.convertMinor(eur, converter.ordinalOf("JPY"), 100)),
+                () -> assertThrows(IllegalArgumentException.class, () -> converter.convert(9, 0, 1.0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> converter.ordinalOf("XXX"))
+        );
+    }
+
+    @Test
+    void updateExchangeRate_RejectsNonPositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> converter.updateExchangeRate("EUR", 0.0));
+        assertThrows(IllegalArgumentException.class, () -> converter.updateExchangeRate("EUR", -1.0));
+        assertThrows(IllegalArgumentException.class, () -> converter.updateExchangeRate("EUR", Double.NaN));
+        assertEquals(0.9, converter.getExchangeRates().get("EUR"));
+    }
+
+    @Test
+    void concurrentUpdates_ReadersSeeConsistentRates() throws InterruptedException {
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                double rate = i % 2 == 0 ? 2.0 : 4.0;
+                converter.updateExchangeRate("EUR", rate);
+            }
+        });
+        writer.start();
+        boolean consistent = true;
+        while (writer.isAlive()) {
+            double there = converter.convert("USD", "EUR", 1.0);
+            consistent &= there == 0.9 || there == 2.0 || there == 4.0;
+        }
+        writer.join();
+
+        assertTrue(consistent, "Every conversion should use one published rate");
+        assertEquals(4.0, converter.convert("USD", "EUR", 1.0), 0.001);
+    }
+    @Test
+    void convertAll_MatchesPerCallConversion() {
+        int usd = converter.ordinalOf("USD");
+        int eur = converter.ordinalOf("EUR");
+        int inr = converter.ordinalOf("INR");
+        double[] amounts = {100.0, -25.5, 0.0, 8300.0};
+        double[] results = new double[amounts.length];
+
+        converter.convertAll(usd, eur, amounts, results);
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(converter.convert("USD", "EUR", amounts[i]), results[i]);
+        }
+
+        int[] from = {usd, eur, inr, inr};
+        int[] to = {eur, usd, usd, inr};
+        converter.convertAll(from, to, amounts, results);
+        assertAll(
+                () -> assertEquals(90.0, results[0], 0.001),
+                () -> assertEquals(-28.333, results[1], 0.001),
+                () -> assertEquals(0.0, results[2], 0.001),
+                () -> assertEquals(8300.0, results[3], 0.001)
+        );
+    }
+
+    @Test
+    void convertMinorAll_RoundsLikeConvertMinor() {
+        long[] amounts = {10_000, 1, 333, -999};
+        long[] results = new long[amounts.length];
+
+        converter.convertMinorAll(converter.ordinalOf("USD"), converter.ordinalOf("GBP"), amounts, results);
+
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(converter.convertMinor("USD", "GBP", amounts[i]), results[i]);
+        }
+    }
+
+    @Test
+    void convertAll_RejectsMismatchedOrUnknownInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.convertAll(0, 1, new double[2], new double[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.convertAll(new int[]{0, 7}, new int[]{1, 1}, new double[2], new double[2]));
+    }
 }
@@ -0,0 +1,90 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+class DelinquencyScannerTest {
+    private LoanManagement loanManagement;
+    private DelinquencyScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        loanManagement = new LoanManagement();
+        // Interest-free 1,200.00 over 12 months: one 100.00 installment a month
+        loanManagement.applyForLoan("L1", 1200.0, 0.0, 12, LocalDate.of(2025, 1, 1));   // due 2025-02-01
+        loanManagement.applyForLoan("L2", 1200.0, 0.0, 12, LocalDate.of(2024, 12, 1));  // due 2025-01-01
+        loanManagement.applyForLoan("L3", 1200.0, 0.0, 12, LocalDate.of(2024, 10, 1));  // due 2024-11-01
+        loanManagement.applyForLoan("L4", 1200.0, 0.0, 12, LocalDate.of(2025, 1, 15));  // due 2025-02-15
+        scanner = new DelinquencyScanner(loanManagement);
+    }
+
+    @Test
+    void scan_FirstRunReportsEveryDelinquentLoanAtItsBucket() {
+        List<DelinquencyScanner.OverdueEvent> events = scanner.scan(LocalDate.of(2025, 2, 2));
+
+        assertAll(
+                () -> assertEquals(3, events.size()),
+                () -> assertEquals(DelinquencyScanner.AgingBucket.OVERDUE, bucketOf(events, "L1")),
+                () -> assertEquals(DelinquencyScanner.AgingBucket.DAYS_30, bucketOf(events, "L2")),
+                () -> assertEquals(DelinquencyScanner.AgingBucket.DAYS_90, bucketOf(events, "L3")),
+                () -> assertEquals(93, events.stream().filter(e -> e.accountId().equals("L3")).findFirst()
+                        .orElseThrow().daysOverdue())
+        );
+    }
+
+    @Test
+    void scan_LaterRunsReportOnlyLoansCrossingABucket() {
+        scanner.scan(LocalDate.of(2025, 2, 2));
+
+        assertTrue(scanner.scan(LocalDate.of(2025, 2, 3)).isEmpty());
+
+        loanManagement.repayLoan("L1", 100.0);
+        List<DelinquencyScanner.OverdueEvent> events = scanner.scan(LocalDate.of(2025, 3, 4));
+
+        assertAll(
+                () -> assertEquals(3, events.size()),
+                () -> assertEquals(DelinquencyScanner.AgingBucket.OVERDUE, bucketOf(events, "L1")),
+                () -> assertEquals(LocalDate.of(2025, 3, 1), events.stream()
+                        .filter(e -> e.accountId().equals("L1")).findFirst().orElseThrow().dueDate()),
+                () -> assertEquals(DelinquencyScanner.AgingBucket.DAYS_60, bucketOf(events, "L2")),
+                () -> assertEquals(DelinquencyScanner.AgingBucket.OVERDUE, bucketOf(events, "L4")),
+                () -> assertNull(bucketOf(events, "L3"))
+        );
+    }
+
+    @Test
+    void agingBuckets_FollowRepayments() {
+        LocalDate today = LocalDate.of(2025, 2, 2);
+        Map<DelinquencyScanner.AgingBucket, Integer> before = scanner.agingBuckets(today);
+
+        loanManagement.repayLoan("L1", 100.0);
+        loanManagement.repayLoan("L3", 1200.0);
+        Map<DelinquencyScanner.AgingBucket, Integer> after = scanner.agingBuckets(today);
+
+        assertAll(
+                () -> assertEquals(1, before.get(DelinquencyScanner.AgingBucket.OVERDUE)),
+                () -> assertEquals(1, before.get(DelinquencyScanner.AgingBucket.DAYS_30)),
+                () -> assertEquals(0, before.get(DelinquencyScanner.AgingBucket.DAYS_60)),
+                () -> assertEquals(1, before.get(DelinquencyScanner.AgingBucket.DAYS_90)),
+                () -> assertEquals(0, after.get(DelinquencyScanner.AgingBucket.OVERDUE)),
+                () -> assertEquals(1, after.get(DelinquencyScanner.AgingBucket.DAYS_30)),
+                () -> assertEquals(0, after.get(DelinquencyScanner.AgingBucket.DAYS_90))
+        );
+    }
+
+    private static DelinquencyScanner.AgingBucket bucketOf(List<DelinquencyScanner.OverdueEvent> events,
+                                                           String accountId) {
+        for (DelinquencyScanner.OverdueEvent event : events) {
+            if (event.accountId().equals(accountId)) {
+                return event.bucket();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+class InterestAccrualEngineTest {
+    private static final String PIN = "1234";
+
+    private final InterestAccrualEngine engine = new InterestAccrualEngine();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void accrue_MatchesInterestCalculator() {
+        long[] balances = {100_000, 0, -5_000, 250_000};
+        double[] rates = new double[balances.length];
+        Arrays.fill(rates, 0.03);
+        long[] interest = new long[balances.length];
+
+        engine.accrue(balances, rates, 30, interest);
+
+        double expected = new InterestCalculator().applyInterest(1000, 30) - 1000;
+        assertAll(
+                () -> assertEquals(Math.round(expected * 100), interest[0]),
+                () -> assertEquals(0, interest[1]),
+                () -> assertEquals(0, interest[2]),
+                () -> assertEquals(Money.multiply(250_000, 0.03 * 30 / 365), interest[3])
+        );
+    }
+
+    @Test
+    void accrue_ParallelResultMatchesSequentialLoop() {
+        int size = 300_000;
+        SplittableRandom random = new SplittableRandom(7);
+        long[] balances = new long[size];
+        double[] rates = new double[size];
+        for (int i = 0; i < size; i++) {
+            balances[i] = random.nextLong(-100_000, 10_000_000);
+            rates[i] = random.nextDouble(0.0, 0.08);
+        }
+        long[] interest = new long[size];
+
+        new InterestAccrualEngine(new ForkJoinPool(4)).accrue(balances, rates, 1, interest);
+
+        for (int i = 0; i < size; i++) {
+            long expected = balances[i] > 0 ? Money.multiply(balances[i], rates[i] * (1.0 / 365)) : 0;
+            assertEquals(expected, interest[i], "index " + i);
+        }
+    }
+
+    @Test
+    void accrue_RejectsMismatchedColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.accrue(new long[2], new double[1], 1, new long[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.accrue(new long[1], new double[1], -1, new long[1]));
+    }
+
+    @Test
+    void accrue_CreditsOnlyAccountsOfTheGivenType() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new BankAccount("SAV1", 1000.0, "USD", AccountType.SAVINGS, PIN));
+        registry.register(new BankAccount("SAV2", 3650.0, "USD", AccountType.SAVINGS, PIN));
+        registry.register(new BankAccount("CUR1", 1000.0, "USD", AccountType.CURRENT, PIN));
+
+        int credited = engine.accrue(registry, AccountType.SAVINGS, 0.10, 1);
+
+        assertAll(
+                () -> assertEquals(2, credited),
+                () -> assertEquals(1000.27, registry.getBalance("SAV1"), 0.001),
+                () -> assertEquals(3651.0, registry.getBalance("SAV2"), 0.001),
+                () -> assertEquals(1000.0, registry.getBalance("CUR1"), 0.001),
+                () -> assertTrue(registry.getTransactionHistory("SAV2").get(0).endsWith("Interest credited: 1.0"))
+        );
+    }
+
+    @Test
+    void accrue_CompoundsFromRateTable() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new BankAccount("SAV1", 1000.0, "USD", AccountType.SAVINGS, PIN));
+        registry.register(new BankAccount("SAV2", 20000.0, "USD", AccountType.SAVINGS, PIN));
+        registry.register(new BankAccount("CUR1", 1000.0, "USD", AccountType.CURRENT, PIN));
+        registry.openAccount("ACC1", 1000.0, "USD", 0.0, PIN);
+        InterestRateTable rates = InterestRateTable.defaults().withTier(AccountType.SAVINGS, 10_000.0, 0.05);
+
+        int credited = engine.accrue(registry, rates, 365);
+
+        assertAll(
+                () -> assertEquals(2, credited),
+                () -> assertEquals(1000.0 * Math.pow(1 + 0.03 / 365, 365), registry.getBalance("SAV1"), 0.005),
+                () -> assertEquals(20000.0 * Math.pow(1 + 0.05 / 365, 365), registry.getBalance("SAV2"), 0.005),
+                () -> assertEquals(1000.0, registry.getBalance("CUR1"), 0.001),
+                () -> assertEquals(1000.0, registry.getBalance("ACC1"), 0.001)
+        );
+    }
+
+    @Test
+    void accrue_PostsEveryAccountOnceAcrossAllStripes() {
+        int accounts = 5_000;
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry(64);
+            registry.setJournal(journal);
+            for (int i = 0; i < accounts; i++) {
+                registry.register(new BankAccount("SAV" + i, 3650.0, "USD", AccountType.SAVINGS, PIN));
+            }
+            registry.register(new BankAccount("EMPTY", 0.0, "USD", AccountType.SAVINGS, PIN));
+
+            int credited = engine.accrue(registry, AccountType.SAVINGS, 0.10, 1);
+
+            assertAll(
+                    () -> assertEquals(accounts, credited),
+                    () -> assertEquals(1, registry.getTransactionHistory("SAV0").size()),
+                    () -> assertTrue(registry.getTransactionHistory("SAV4999").get(0)
+                            .endsWith("Interest credited: 1.0")),
+                    () -> assertTrue(registry.getTransactionHistory("EMPTY").isEmpty())
+            );
+        }
+
+        long[] interestRecords = new long[1];
+        Journal.replay(directory, record -> {
+            if (record.getType() == JournalRecord.Type.INTEREST) {
+                interestRecords[0]++;
+            }
+        });
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), new ScheduledTransfer())) {
+            double total = 0;
+            for (int i = 0; i < accounts; i++) {
+                total += recovered.getBalance("SAV" + i);
+            }
+            double recoveredTotal = total;
+            assertAll(
+                    () -> assertEquals(accounts, interestRecords[0]),
+                    () -> assertEquals(accounts * 3651.0, recoveredTotal, 0.001)
+            );
+        }
+    }
+
+    @Test
+    void accrue_PostingsSurviveRecovery() {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 3650.0, "USD", 0.0, PIN);
+            registry.register(new BankAccount("SAV1", 3650.0, "USD", AccountType.SAVINGS, PIN));
+
+            engine.accrue(registry, AccountType.SAVINGS, 0.10, 1);
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), new ScheduledTransfer())) {
+            assertAll(
+                    () -> assertEquals(3650.0, recovered.getBalance("ACC1"), 0.001),
+                    () -> assertEquals(3651.0, recovered.getBalance("SAV1"), 0.001)
+            );
+        }
+    }
+}
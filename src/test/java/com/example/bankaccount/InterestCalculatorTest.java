@@ -2,6 +2,14 @@ package com.example.bankaccount;
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 
 class InterestCalculatorTest {
     private InterestCalculator calculator = new InterestCalculator();
@@ -17,4 +25,122 @@ class InterestCalculatorTest {
         double newBalance = calculator.applyInterest(1000, 30); // 30 days
         assertEquals(1002.47, newBalance, 0.01); // Approx value
     }
+
+    @Test
+    void testCalculateInterestCompoundsForAccountType() {
+        InterestCalculator tiered = new InterestCalculator(InterestRateTable.defaults()
+                .withTier(AccountType.SAVINGS, 5000.0, 0.05));
+        assertEquals(1000 * (Math.pow(1 + 0.03 / 365, 30) - 1),
+                tiered.calculateInterest(AccountType.SAVINGS, 1000, 30), 1e-9);
+        assertEquals(10000 * (Math.pow(1 + 0.05 / 365, 30) - 1),
+                tiered.calculateInterest(AccountType.SAVINGS, 10000, 30), 1e-9);
+        assertEquals(1000.0, tiered.applyInterest(AccountType.CURRENT, 1000, 30));
+    }
+
+    @Test
+    void testAccrualOnTouchChargesEachPeriodAtItsBalance() {
+        MutableClock clock = new MutableClock(LocalDate.of(2025, 1, 10));
+        InterestCalculator onTouch = new InterestCalculator(InterestRateTable.defaults(), clock);
+        BankAccount account = new BankAccount("SAV1", 1000.0, "USD", AccountType.SAVINGS, "1234");
+        account.enableInterestAccrual(onTouch);
+
+        clock.advanceDays(10);
+        account.deposit(1000.0, "1234");
+        clock.advanceDays(5);
+
+        double expected = 1000 * (Math.pow(1 + 0.03 / 365, 10) - 1) + 2000 * (Math.pow(1 + 0.03 / 365, 5) - 1);
+        assertEquals(expected, account.getAccruedInterest(), 1e-9);
+        assertEquals(2000.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    void testPostAccruedInterestWaitsForMonthBoundary() {
+        MutableClock clock = new MutableClock(LocalDate.of(2025, 1, 10));
+        InterestCalculator onTouch = new InterestCalculator(InterestRateTable.defaults(), clock);
+        AccountRegistry registry = new AccountRegistry();
+        BankAccount touched = new BankAccount("SAV1", 10000.0, "USD", AccountType.SAVINGS, "1234");
+        BankAccount untouched = new BankAccount("SAV2", 10000.0, "USD", AccountType.SAVINGS, "1234");
+        registry.register(touched);
+        registry.register(untouched);
+        registry.register(new BankAccount("SAV3", 10000.0, "USD", AccountType.SAVINGS, "1234"));
+        touched.enableInterestAccrual(onTouch);
+        untouched.enableInterestAccrual(onTouch);
+
+        clock.advanceDays(5);
+        touched.withdraw(5000.0, "1234");
+        clock.advanceDays(10);
+        assertEquals(0, onTouch.postAccruedInterest(registry));
+
+        clock.advanceDays(7); // 1 February
+        assertEquals(2, onTouch.postAccruedInterest(registry));
+
+        double touchedInterest = 10000 * (Math.pow(1 + 0.03 / 365, 5) - 1) + 5000 * (Math.pow(1 + 0.03 / 365, 17) - 1);
+        double untouchedInterest = 10000 * (Math.pow(1 + 0.03 / 365, 22) - 1);
+        assertAll(
+                () -> assertEquals(5000.0 + Math.floor(touchedInterest * 100) / 100, touched.getBalance(), 1e-9),
+                () -> assertEquals(10000.0 + Math.floor(untouchedInterest * 100) / 100, untouched.getBalance(), 1e-9),
+                () -> assertTrue(touched.getAccruedInterest() < 0.01),
+                () -> assertEquals(10000.0, registry.getBalance("SAV3")),
+                () -> assertEquals(0, onTouch.postAccruedInterest(registry))
+        );
+    }
+
+    @Test
+    void testAccrualResumesAfterMidMonthRestart(@TempDir Path directory) {
+        MutableClock clock = new MutableClock(LocalDate.of(2025, 1, 10));
+        AccountRegistry registry = new AccountRegistry();
+        try (Journal journal = Journal.open(directory)) {
+            registry.setJournal(journal);
+            registry.register(new BankAccount("SAV1", 10000.0, "USD", AccountType.SAVINGS, "1234"));
+            registry.getAccount("SAV1").enableInterestAccrual(
+                    new InterestCalculator(InterestRateTable.defaults(), clock));
+
+            clock.advanceDays(5);
+            registry.withdraw("SAV1", 5000.0, "1234");
+            new SnapshotManager(journal).checkpoint();
+            clock.advanceDays(3);
+            registry.deposit("SAV1", 1000.0, "1234");
+            clock.advanceDays(2); // restart on 20 January
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        InterestCalculator onTouch = new InterestCalculator(InterestRateTable.defaults(), clock);
+        try (Journal journal = SnapshotManager.recover(directory, recovered, new LoanManagement(),
+                new ScheduledTransfer())) {
+            recovered.getAccount("SAV1").enableInterestAccrual(onTouch);
+            clock.advanceDays(12); // 1 February
+            assertEquals(1, onTouch.postAccruedInterest(recovered));
+        }
+
+        double interest = 10000 * (Math.pow(1 + 0.03 / 365, 5) - 1) + 5000 * (Math.pow(1 + 0.03 / 365, 3) - 1)
+                + 6000 * (Math.pow(1 + 0.03 / 365, 14) - 1);
+        assertEquals(6000.0 + Math.floor(interest * 100) / 100, recovered.getBalance("SAV1"), 1e-9);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDate start) {
+            this.instant = start.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        void advanceDays(int days) {
+            instant = instant.plusSeconds(days * 86_400L);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
 }
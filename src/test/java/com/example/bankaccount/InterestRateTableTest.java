@@ -0,0 +1,70 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class InterestRateTableTest {
+    private final InterestRateTable table = InterestRateTable.empty()
+            .withTier(AccountType.SAVINGS, 0.0, 0.02)
+            .withTier(AccountType.SAVINGS, 10_000.0, 0.04)
+            .withTier(AccountType.SAVINGS, 1_000.0, 0.03)
+            .withTier(AccountType.CURRENT, 0.0, 0.12)
+            .withCompounding(AccountType.CURRENT, InterestRateTable.Compounding.MONTHLY);
+
+    @Test
+    void rateFor_PicksHighestTierReached() {
+        assertAll(
+                () -> assertEquals(0.02, table.rateFor(AccountType.SAVINGS, 999.99)),
+                () -> assertEquals(0.03, table.rateFor(AccountType.SAVINGS, 1_000.0)),
+                () -> assertEquals(0.04, table.rateFor(AccountType.SAVINGS, 50_000.0)),
+                () -> assertEquals(0.0, table.rateFor(AccountType.SAVINGS, -5.0)),
+                () -> assertEquals(0.0, InterestRateTable.empty().rateFor(AccountType.SAVINGS, 100.0))
+        );
+    }
+
+    @Test
+    void interestFactor_MatchesRepeatedDailyCompounding() {
+        double balance = 5_000.0;
+        for (int day = 0; day < 90; day++) {
+            balance *= 1 + 0.03 / 365;
+        }
+
+        assertEquals(balance / 5_000.0 - 1, table.interestFactor(AccountType.SAVINGS, 5_000.0, 90), 1e-12);
+    }
+
+    @Test
+    void interestFactor_CompoundsMonthly() {
+        // 365 days is exactly twelve monthly periods
+        assertEquals(Math.pow(1.01, 12) - 1, table.interestFactor(AccountType.CURRENT, 100.0, 365), 1e-12);
+    }
+
+    @Test
+    void interestFactor_BeyondCacheUsesClosedForm() {
+        int days = InterestRateTable.CACHED_DAYS + 600;
+
+        assertAll(
+                () -> assertEquals(Math.pow(1 + 0.02 / 365, days) - 1,
+                        table.interestFactor(AccountType.SAVINGS, 10.0, days), 1e-12),
+                () -> assertEquals(0.0, table.interestFactor(AccountType.SAVINGS, 10.0, 0))
+        );
+    }
+
+    @Test
+    void withTier_ReplacesExistingTierWithoutChangingOriginal() {
+        InterestRateTable updated = table.withTier(AccountType.SAVINGS, 1_000.0, 0.035);
+
+        assertAll(
+                () -> assertEquals(0.035, updated.rateFor(AccountType.SAVINGS, 2_000.0)),
+                () -> assertEquals(0.03, table.rateFor(AccountType.SAVINGS, 2_000.0)),
+                () -> assertEquals(InterestRateTable.Compounding.MONTHLY, updated.compoundingFor(AccountType.CURRENT))
+        );
+    }
+
+    @Test
+    void invalidArguments_AreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> table.withTier(AccountType.SAVINGS, 0.0, -0.01));
+        assertThrows(IllegalArgumentException.class, () -> table.withTier(AccountType.SAVINGS, 0.0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> table.interestFactor(AccountType.SAVINGS, 1.0, -1));
+    }
+}
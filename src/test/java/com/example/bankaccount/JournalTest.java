@@ -0,0 +1,267 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class JournalTest {
+    private static final String PIN = "1234";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedRecords_AreReplayedInOrder() {
+        try (Journal journal = Journal.open(directory)) {
+            journal.append(JournalRecord.deposit("ACC1", 500));
+            journal.append(JournalRecord.transfer("ACC1", "ACC2", 200, 200));
+            journal.appendAndSync(JournalRecord.convert("ACC2", 0.9, "EUR"));
+            assertEquals(3, journal.getDurableLsn());
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        long lastLsn = Journal.replay(directory, records::add);
+
+        assertAll(
+                () -> assertEquals(3, lastLsn),
+                () -> assertEquals(3, records.size()),
+                () -> assertEquals(JournalRecord.Type.DEPOSIT, records.get(0).getType()),
+                () -> assertEquals(500, records.get(0).getAmount()),
+                () -> assertEquals("ACC2", records.get(1).getCounterparty()),
+                () -> assertEquals(0.9, records.get(2).getRate()),
+                () -> assertEquals("EUR", records.get(2).getText()),
+                () -> assertEquals(2, records.get(1).getLsn())
+        );
+    }
+
+    @Test
+    void reopenedJournal_ContinuesLsnSequence() {
+        try (Journal journal = Journal.open(directory)) {
+            journal.appendAndSync(JournalRecord.deposit("ACC1", 1));
+        }
+        try (Journal journal = Journal.open(directory)) {
+            assertEquals(2, journal.appendAndSync(JournalRecord.deposit("ACC1", 2)));
+        }
+    }
+
+    @Test
+    void tornTail_IsIgnoredAndTruncatedOnOpen() throws IOException {
+        try (Journal journal = Journal.open(directory)) {
+            journal.appendAndSync(JournalRecord.deposit("ACC1", 100));
+        }
+        Path segment = Journal.segments(directory).get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (Journal journal = Journal.open(directory)) {
+            journal.appendAndSync(JournalRecord.deposit("ACC1", 200));
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        Journal.replay(directory, records::add);
+        assertEquals(2, records.size());
+        assertEquals(200, records.get(1).getAmount());
+    }
+
+    @Test
+    void concurrentWriters_ShareForces() throws Exception {
+        int threads = 8;
+        int appendsPerThread = 200;
+        try (Journal journal = Journal.open(directory)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        journal.appendAndSync(JournalRecord.deposit("ACC1", 1));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            assertEquals(threads * appendsPerThread, journal.getDurableLsn());
+            assertTrue(journal.getFlushCount() < threads * appendsPerThread,
+                    "Group commit should cover several appends with one force");
+        }
+    }
+
+    @Test
+    void closedJournal_RejectsAppends() {
+        Journal journal = Journal.open(directory);
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.append(JournalRecord.deposit("ACC1", 1)));
+    }
+
+    @Test
+    void recover_RebuildsAccountsAndLoans() {
+        AccountRegistry registry = new AccountRegistry();
+        LoanManagement loans = new LoanManagement();
+        try (Journal journal = Journal.open(directory)) {
+            registry.setJournal(journal);
+            loans.setJournal(journal);
+            registry.openAccount("ACC1", 1000.0, "USD", 0.0, PIN);
+            registry.register(new BankAccount("SAV1", 800.0, "USD", AccountType.SAVINGS, PIN));
+            registry.register(new CollectionAccount("COL1", 0.0, "USD", PIN));
+            registry.deposit("ACC1", 250.0, PIN);
+            registry.withdraw("ACC1", 100.0, PIN);
+            registry.transfer("ACC1", "SAV1", 150.0, PIN);
+            registry.deposit("COL1", 42.0, PIN);
+            registry.convertBalance("SAV1", 0.5, "EUR");
+            registry.lockAccount("SAV1");
+            loans.applyForLoan("ACC1", 1000.0, 0.1, 12);
+            loans.repayLoan("ACC1", 100.0);
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        LoanManagement recoveredLoans = new LoanManagement();
+        try (Journal journal = Journal.recover(directory, recovered, recoveredLoans, new ScheduledTransfer())) {
+            assertAll(
+                    () -> assertEquals(3, recovered.size()),
+                    () -> assertEquals(1000.0, recovered.getBalance("ACC1"), 0.001),
+                    () -> assertEquals(475.0, recovered.getBalance("SAV1"), 0.001),
+                    () -> assertTrue(recovered.getAccount("SAV1").isLocked()),
+                    () -> assertEquals(AccountType.SAVINGS, recovered.getAccount("SAV1").getAccountType()),
+                    () -> assertTrue(recovered.getAccount("COL1") instanceof CollectionAccount),
+                    () -> assertTrue(recovered.isLockFree("COL1")),
+                    () -> assertEquals(42.0, recovered.getBalance("COL1"), 0.001),
+                    () -> assertEquals(1000.0, recoveredLoans.getLoanDetails("ACC1").getOutstandingAmount(), 0.001),
+                    () -> assertSame(journal, recovered.getJournal())
+            );
+
+            recovered.deposit("ACC1", 1.0, PIN);
+            assertEquals(12, journal.getLastLsn());
+        }
+    }
+
+    @Test
+    void recover_PicksUpHistoryFromTheRegistrysLedger(@TempDir Path ledgerDirectory) {
+        AccountRegistry registry = new AccountRegistry();
+        registry.setLedger(Ledger.open(ledgerDirectory));
+        try (Journal journal = Journal.recover(directory, registry, new LoanManagement(), new ScheduledTransfer())) {
+            registry.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+            registry.openAccount("ACC2", 0.0, "USD", 0.0, PIN);
+            registry.deposit("ACC1", 25.0, PIN);
+            registry.transfer("ACC1", "ACC2", 5.0, PIN);
+            registry.postInterest(new BankAccount[]{registry.getAccount("ACC2")}, new long[]{10});
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        recovered.setLedger(Ledger.open(ledgerDirectory));
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), new ScheduledTransfer())) {
+            recovered.deposit("ACC1", 1.0, PIN);
+
+            assertAll(
+                    () -> assertEquals(List.of("Deposited: 25.0", "Withdrew: 5.0", "Transferred: 5.0 to ACC2",
+                            "Deposited: 1.0"), recovered.getTransactionHistory("ACC1")),
+                    () -> assertEquals(List.of("Deposited: 5.0", "Interest credited: 0.1"),
+                            recovered.getTransactionHistory("ACC2")),
+                    () -> assertEquals(5.1, recovered.getBalance("ACC2"), 0.001)
+            );
+        }
+    }
+
+    @Test
+    void recover_KeepsEveryDigitOfThreeDecimalScheduledAmounts() {
+        LocalDate start = LocalDate.now().plusDays(1);
+        try (Journal journal = Journal.open(directory)) {
+            ScheduledTransfer scheduled = new ScheduledTransfer();
+            scheduled.setJournal(journal);
+            scheduled.scheduleTransfer("KWD1", "KWD2", 1.234, start);
+            scheduled.scheduleRecurringTransfer("KWD2", "KWD1", 0.005, start, RecurrenceRule.daily());
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        recovered.openAccount("KWD1", 10.0, "KWD", 0.0, PIN);
+        recovered.openAccount("KWD2", 0.0, "KWD", 0.0, PIN);
+        ScheduledTransfer recoveredTransfers = new ScheduledTransfer();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), recoveredTransfers)) {
+            List<ScheduledTransfer.Transfer> pending = recoveredTransfers.getScheduledTransfers();
+            List<ScheduledTransfer.Transfer> due = recoveredTransfers.takeDueTransfers(start);
+            new TransferExecutionEngine(recovered).execute(due);
+
+            assertAll(
+                    () -> assertEquals(1.234, pending.get(0).amount),
+                    () -> assertEquals(0.005, recoveredTransfers.getStandingOrders().get(0).amount),
+                    () -> assertEquals(8_771, recovered.getAccount("KWD1").getBalanceMinor()),
+                    () -> assertEquals(1_229, recovered.getAccount("KWD2").getBalanceMinor())
+            );
+        }
+    }
+
+    @Test
+    void recover_RestoresChangedPinWithoutStoringPins() throws IOException {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 100.0, "USD", 0.0, "secret-4821");
+            registry.changePin("ACC1", "secret-4821", "secret-7395");
+            assertThrows(SecurityException.class, () -> registry.changePin("ACC1", "secret-4821", "other"));
+        }
+        for (Path segment : Journal.segments(directory)) {
+            String contents = new String(Files.readAllBytes(segment), StandardCharsets.ISO_8859_1);
+            assertFalse(contents.contains("secret-"), "PINs must not be journaled in the clear");
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), new ScheduledTransfer())) {
+            assertAll(
+                    () -> assertTrue(recovered.getAccount("ACC1").authenticate("secret-7395")),
+                    () -> assertFalse(recovered.getAccount("ACC1").authenticate("secret-4821"))
+            );
+        }
+    }
+
+    @Test
+    void recover_ReplaysLockFreeUpdatesInTheOrderTheyWereApplied() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        long balance;
+        try (Journal journal = Journal.open(directory)) {
+            registry.setJournal(journal);
+            registry.register(new CollectionAccount("COL1", 1000.0, "USD", PIN));
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        registry.depositMinor("COL1", 7, PIN);
+                    }
+                    return null;
+                }));
+            }
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    registry.convertBalance("COL1", i % 2 == 0 ? 1.5 : 0.75, "USD");
+                }
+                return null;
+            }));
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+            balance = registry.getBalanceMinor("COL1");
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), new ScheduledTransfer())) {
+            assertEquals(balance, recovered.getBalanceMinor("COL1"));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class JsonTest {
+
+    @Test
+    void parse_ReadsNestedValues() {
+        Map<String, Object> object = Json.parseObject(
+                " {\"id\": \"ACC1\", \"amount\": 12.5, \"tags\": [1, true, null], \"inner\": {\"x\": -3e2}} ");
+
+        assertAll(
+                () -> assertEquals("ACC1", object.get("id")),
+                () -> assertEquals(12.5, object.get("amount")),
+                () -> assertEquals(Arrays.asList(1.0, true, null), object.get("tags")),
+                () -> assertEquals(Map.of("x", -300.0), object.get("inner")),
+                () -> assertTrue(Json.parseObject("  ").isEmpty())
+        );
+    }
+
+    @Test
+    void write_EscapesAndRoundTrips() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("text", "say \"hi\"\n\\ \u0001");
+        value.put("whole", 100.0);
+        value.put("fraction", 0.25);
+        value.put("items", List.of(1L, false));
+        value.put("missing", null);
+
+        String json = Json.write(value);
+
+        assertAll(
+                () -> assertEquals("{\"text\":\"say \\\"hi\\\"\\n\\\\ \\u0001\",\"whole\":100,\"fraction\":0.25,"
+                        + "\"items\":[1,false],\"missing\":null}", json),
+                () -> assertEquals("say \"hi\"\n\\ \u0001", Json.parseObject(json).get("text")),
+                () -> assertEquals("\u00e9", Json.parse("\"\\u00e9\""))
+        );
+    }
+
+    @Test
+    void parse_RejectsMalformedInput() {
+        for (String malformed : List.of("{", "{\"a\" 1}", "{\"a\":1,}", "[1 2]", "\"open", "tru", "{} x", "-")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(malformed), malformed);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("[1]"));
+    }
+
+    @Test
+    void parse_RejectsDeepNestingAndInfiniteNumbers() {
+        String deepest = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        String tooDeep = "[".repeat(100_000) + "]".repeat(100_000);
+
+        assertAll(
+                () -> assertEquals(1, ((List<?>) Json.parse(deepest)).size()),
+                () -> assertThrows(IllegalArgumentException.class, () -> Json.parse("[" + deepest + "]")),
+                () -> assertThrows(IllegalArgumentException.class, () -> Json.parse(tooDeep)),
+                () -> assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":".repeat(100) + "1")),
+                () -> assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"amount\":1e999}")),
+                () -> assertThrows(IllegalArgumentException.class, () -> Json.parse("-1e999"))
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void buckets_CoverEveryValueWithinPrecision() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 1_000, 123_456_789, (1L << 44) - 1}) {
+            int index = LatencyHistogram.indexOf(value);
+            long low = LatencyHistogram.lowestEquivalentValue(index);
+            long high = LatencyHistogram.highestEquivalentValue(index);
+            assertAll(
+                    () -> assertTrue(index < LatencyHistogram.BUCKETS),
+                    () -> assertTrue(low <= value && value <= high, value + " outside " + low + ".." + high),
+                    () -> assertTrue(high - low <= Math.max(0, value / 64), "bucket too wide at " + value)
+            );
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void valueAtPercentile_ReadsTheDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertAll(
+                () -> assertEquals(10_000, histogram.getCount()),
+                () -> assertEquals(5_000_000, histogram.valueAtPercentile(50), 5_000_000 / 64.0),
+                () -> assertEquals(9_900_000, histogram.valueAtPercentile(99), 9_900_000 / 64.0),
+                () -> assertEquals(10_000_000, histogram.valueAtPercentile(100)),
+                () -> assertEquals(10_000_000, histogram.getMax()),
+                () -> assertEquals(1_000, histogram.getMin(), 1_000 / 64.0),
+                () -> assertEquals(5_000_500, histogram.getMean(), 1e-6)
+        );
+    }
+
+    @Test
+    void recordCorrected_BackFillsRequestsHeldUpByAStall() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.recordCorrected(100, 100);
+        }
+        histogram.recordCorrected(10_000, 100);
+
+        // The stall hid 99 requests, due every 100 ns, that would have waited 9,900 ns down to 100 ns
+        assertAll(
+                () -> assertEquals(199, histogram.getCount()),
+                () -> assertTrue(histogram.valueAtPercentile(75) > 4_000),
+                () -> assertEquals(100, histogram.valueAtPercentile(0))
+        );
+    }
+
+    @Test
+    void add_MergesHistograms() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(-5);
+        second.record(1_000_000);
+
+        first.add(second);
+
+        assertAll(
+                () -> assertEquals(3, first.getCount()),
+                () -> assertEquals(0, first.getMin()),
+                () -> assertEquals(1_000_000, first.getMax()),
+                () -> assertEquals(0, new LatencyHistogram().valueAtPercentile(99))
+        );
+    }
+}
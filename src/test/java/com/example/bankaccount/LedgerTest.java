@@ -0,0 +1,223 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+class LedgerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void cursor_ReadsEntriesInAppendOrder() {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger history = new AccountLedger(ledger, "ACC1", 2);
+        long before = System.currentTimeMillis();
+        history.record(Ledger.EntryType.DEPOSIT, 5_000, 15_000, null);
+        history.record(Ledger.EntryType.TRANSFER, 2_000, 13_000, "ACC2");
+        history.record(Ledger.EntryType.CONVERSION, 11_700, 11_700, "EUR");
+
+        LedgerCursor cursor = history.cursor();
+        assertTrue(cursor.next());
+        assertAll(
+                () -> assertEquals(Ledger.EntryType.DEPOSIT, cursor.type()),
+                () -> assertEquals(5_000, cursor.amount()),
+                () -> assertEquals(15_000, cursor.balanceAfter()),
+                () -> assertNull(cursor.counterparty()),
+                () -> assertTrue(cursor.timestamp() >= before),
+                () -> assertEquals("Deposited: 50.0", cursor.describe())
+        );
+        assertTrue(cursor.next());
+        assertEquals("ACC2", cursor.counterparty());
+        assertEquals("Transferred: 20.0 to ACC2", cursor.describe());
+        assertTrue(cursor.next());
+        assertEquals("Converted balance to: 117.0 EUR", cursor.describe());
+        assertFalse(cursor.next());
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    void accounts_SharingLedgerSeeOnlyTheirOwnEntries() {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger first = new AccountLedger(ledger, "ACC1", 2);
+        AccountLedger second = new AccountLedger(ledger, "ACC2", 2);
+        for (int i = 1; i <= 10; i++) {
+            first.record(Ledger.EntryType.DEPOSIT, i, i, null);
+            second.record(Ledger.EntryType.WITHDRAWAL, -i, -i, null);
+        }
+
+        LedgerCursor cursor = second.cursor();
+        long expected = -1;
+        while (cursor.next()) {
+            assertEquals(Ledger.EntryType.WITHDRAWAL, cursor.type());
+            assertEquals(expected--, cursor.amount());
+        }
+        assertEquals(-11, expected);
+        assertEquals(20, ledger.size());
+    }
+
+    @Test
+    void appends_SpillAcrossSegments() {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger history = new AccountLedger(ledger, "ACC1", 2);
+        int entries = 70_000;
+        for (int i = 0; i < entries; i++) {
+            history.record(Ledger.EntryType.DEPOSIT, i, i, null);
+        }
+
+        LedgerCursor cursor = history.cursor();
+        long count = 0;
+        while (cursor.next()) {
+            assertEquals(count++, cursor.amount());
+        }
+        assertEquals(entries, count);
+        assertEquals(2, directory.toFile().list((dir, name) -> name.endsWith(".seg")).length);
+    }
+
+    @Test
+    void concurrentAppends_AreAllLinked() throws InterruptedException {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger history = new AccountLedger(ledger, "ACC1", 2);
+        Thread[] workers = new Thread[8];
+        for (int t = 0; t < workers.length; t++) {
+            int base = t * 10_000;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    history.record(Ledger.EntryType.DEPOSIT, base + i, 0, null);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Set<Long> amounts = new HashSet<>();
+        LedgerCursor cursor = history.cursor();
+        while (cursor.next()) {
+            amounts.add(cursor.amount());
+        }
+        assertEquals(80_000, amounts.size());
+        assertEquals(80_000, history.size());
+    }
+
+    @Test
+    void notes_AreStoredOutOfLineWithoutGrowingTheVocabulary() {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger history = new AccountLedger(ledger, "ACC1", 2);
+        history.record(Ledger.EntryType.TRANSFER, 100, 900, "ACC2");
+        int vocabulary = ledger.intern("probe");
+        for (int i = 0; i < 1_000; i++) {
+            history.record(Ledger.EntryType.NOTE, 0, 900, "Note " + i);
+        }
+
+        assertEquals(vocabulary + 1, ledger.intern("probe-after"));
+        LedgerCursor cursor = history.cursor();
+        assertTrue(cursor.next());
+        assertEquals("ACC2", cursor.counterparty());
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(cursor.next());
+            assertEquals(Ledger.EntryType.NOTE, cursor.type());
+            assertEquals(0, cursor.amount());
+            assertEquals("Note " + i, cursor.describe());
+        }
+    }
+
+    @Test
+    void reopenedLedger_KeepsHistoryAndAppendsAfterIt() {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger first = new AccountLedger(ledger, "ACC1", 2);
+        AccountLedger second = new AccountLedger(ledger, "ACC2", 2);
+        for (int i = 1; i <= 5; i++) {
+            first.record(Ledger.EntryType.DEPOSIT, i, i, null);
+            second.record(Ledger.EntryType.TRANSFER, i, -i, "ACC1");
+        }
+        first.record(Ledger.EntryType.NOTE, 0, 15, "Audited");
+
+        Ledger reopened = Ledger.open(directory);
+        AccountLedger restored = new AccountLedger(reopened, "ACC2", 2);
+        restored.record(Ledger.EntryType.CONVERSION, 90, 90, "EUR");
+
+        assertAll(
+                () -> assertEquals(12, reopened.size()),
+                () -> assertEquals(6, restored.size()),
+                () -> assertEquals(6, new AccountLedger(reopened, "ACC1", 2).size()),
+                () -> assertEquals(0, new AccountLedger(reopened, "ACC3", 2).size())
+        );
+        LedgerCursor cursor = restored.cursor();
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(cursor.next());
+            assertEquals(i, cursor.amount());
+            assertEquals("ACC1", cursor.counterparty());
+        }
+        assertTrue(cursor.next());
+        assertEquals("EUR", cursor.counterparty());
+        assertFalse(cursor.next());
+
+        LedgerCursor notes = new AccountLedger(Ledger.open(directory), "ACC1", 2).cursor();
+        String last = null;
+        while (notes.next()) {
+            last = notes.describe();
+        }
+        assertEquals("Audited", last);
+    }
+
+    @Test
+    void reopenedLedger_RestoresOnlyTheHistoryAfterAClear() {
+        Ledger ledger = Ledger.open(directory);
+        AccountLedger first = new AccountLedger(ledger, "ACC1", 2);
+        AccountLedger second = new AccountLedger(ledger, "ACC2", 2);
+        for (int i = 1; i <= 3; i++) {
+            first.record(Ledger.EntryType.DEPOSIT, i, i, null);
+            second.record(Ledger.EntryType.DEPOSIT, i, i, null);
+        }
+        first.clear();
+        second.clear();
+        first.record(Ledger.EntryType.WITHDRAWAL, 7, -7, null);
+        first.record(Ledger.EntryType.DEPOSIT, 8, 1, null);
+
+        Ledger reopened = Ledger.open(directory);
+        AccountLedger restored = new AccountLedger(reopened, "ACC1", 2);
+        LedgerCursor cursor = restored.cursor();
+
+        assertAll(
+                () -> assertEquals(2, restored.size()),
+                () -> assertEquals(0, new AccountLedger(reopened, "ACC2", 2).size()),
+                () -> assertTrue(cursor.next()),
+                () -> assertEquals(7, cursor.amount()),
+                () -> assertTrue(cursor.next()),
+                () -> assertEquals(8, cursor.amount()),
+                () -> assertFalse(cursor.next())
+        );
+    }
+
+    @Test
+    void cursor_RejectsAccessBeforeNext() {
+        AccountLedger history = new AccountLedger(Ledger.open(directory), "ACC1", 2);
+        history.record(Ledger.EntryType.DEPOSIT, 1, 1, null);
+
+        assertThrows(IllegalStateException.class, () -> history.cursor().amount());
+    }
+
+    @Test
+    void bankAccount_HistoryCursorMatchesTextHistory() {
+        BankAccount account = new BankAccount("LEDGER1", 100.0, "USD", 0.0, "1234");
+        account.deposit(25.0, "1234");
+        account.withdraw(10.0, "1234");
+
+        LedgerCursor cursor = account.historyCursor();
+        assertTrue(cursor.next());
+        assertEquals(12_500, cursor.balanceAfter());
+        assertTrue(cursor.next());
+        assertEquals(Ledger.EntryType.WITHDRAWAL, cursor.type());
+        assertEquals(11_500, cursor.balanceAfter());
+        assertFalse(cursor.next());
+        assertEquals(2, account.getTransactionCount());
+        assertEquals("Withdrew: 10.0", account.getTransactionHistory().get(1));
+    }
+}
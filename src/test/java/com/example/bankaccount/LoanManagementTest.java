@@ -4,6 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 class LoanManagementTest {
     private LoanManagement loanManagement;
@@ -290,4 +296,171 @@ class LoanManagementTest {
 
         assertEquals(0.5, loanManagement.getLoanDetails(accountId).getOutstandingAmount(), 0.0001);
     }
-}
\ No newline at end of file
+
+    @Test
+    void repayLoanMinor_TracksOutstandingInCents() {
+        loanManagement.applyForLoan(ACCOUNT_ID, 1000.0, 0.075, 7);
+        Loan loan = loanManagement.getLoanDetails(ACCOUNT_ID);
+
+        assertEquals(104_375, loan.getOutstandingMinor());
+        assertEquals(100_000, loan.getPrincipalMinor());
+
+        loanManagement.repayLoanMinor(ACCOUNT_ID, 4_375);
+        assertEquals(1000.0, loan.getOutstandingAmount());
+
+        loanManagement.repayLoanMinor(ACCOUNT_ID, 100_000);
+        assertNull(loanManagement.getLoanDetails(ACCOUNT_ID));
+    }
+
+    @Test
+    void concurrentApplicationsAndRepayments_KeepBookConsistent() throws InterruptedException {
+        int accounts = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int a = 0; a < accounts; a++) {
+            String accountId = "ACC" + a;
+            // Two applications race per account; exactly one must win
+            for (int attempt = 0; attempt < 2; attempt++) {
+                executor.submit(() -> {
+                    try {
+                        loanManagement.applyForLoan(accountId, 1200.0, 0.0, 12);
+                    } catch (IllegalStateException expected) {
+                        // Lost the race
+                    }
+                });
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        ExecutorService repayers = Executors.newFixedThreadPool(8);
+        for (int a = 0; a < accounts; a++) {
+            String accountId = "ACC" + a;
+            for (int i = 0; i < 12; i++) {
+                repayers.submit(() -> loanManagement.repayLoanMinor(accountId, 10_000));
+            }
+        }
+        repayers.shutdown();
+        assertTrue(repayers.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (int a = 0; a < accounts; a++) {
+            assertNull(loanManagement.getLoanDetails("ACC" + a));
+        }
+    }
+
+    @Test
+    void quoteEmiSchedule_QuotesLoanTermsWithoutChangingTheLoan() {
+        loanManagement.applyForLoan(ACCOUNT_ID, AMOUNT, INTEREST_RATE, TENURE_MONTHS);
+        Loan loan = loanManagement.getLoanDetails(ACCOUNT_ID);
+        long outstanding = loan.getOutstandingMinor();
+
+        AmortizationEngine.Schedule schedule = loanManagement.quoteEmiSchedule(ACCOUNT_ID);
+
+        assertAll(
+                () -> assertEquals(new AmortizationEngine().emi(loan.getPrincipalMinor(), INTEREST_RATE,
+                        TENURE_MONTHS), schedule.emi()),
+                () -> assertEquals(TENURE_MONTHS, schedule.installments().size()),
+                () -> assertEquals(0, schedule.installments().get(TENURE_MONTHS - 1).balance()),
+                () -> assertEquals(outstanding, loan.getOutstandingMinor()),
+                () -> assertThrows(IllegalArgumentException.class, () -> loanManagement.quoteEmiSchedule("NONE"))
+        );
+    }
+
+    @Test
+    void concurrentApplicationAndRepayment_KeepEveryLoanInTheDueIndex() throws Exception {
+        LocalDate start = LocalDate.of(2025, 1, 10);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20_000; round++) {
+                LoanManagement book = new LoanManagement();
+                book.applyForLoan("OLD", 1200.0, 0.0, 12, start);
+                // The repayment empties the first due date's bucket as the new loan is indexed into it
+                CountDownLatch ready = new CountDownLatch(2);
+                Future<?> repaid = executor.submit(() -> {
+                    ready.countDown();
+                    await(ready);
+                    book.repayLoanMinor("OLD", 10_000);
+                });
+                Future<?> applied = executor.submit(() -> {
+                    ready.countDown();
+                    await(ready);
+                    book.applyForLoan("NEW", 1200.0, 0.0, 12, start);
+                });
+                repaid.get();
+                applied.get();
+
+                assertEquals(1, book.getLoansDueOnOrBefore(start.plusMonths(1)).size(), "round " + round);
+                assertEquals(2, book.getLoansDueOnOrBefore(start.plusMonths(2)).size(), "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void repayLoan_MovesLoanAlongDueDateIndex() {
+        LocalDate start = LocalDate.of(2025, 1, 10);
+        loanManagement.applyForLoan(ACCOUNT_ID, 1200.0, 0.0, 12, start);
+        Loan loan = loanManagement.getLoanDetails(ACCOUNT_ID);
+
+        assertEquals(10_000, loan.getInstallmentMinor());
+        assertEquals(start.plusMonths(1), loan.getNextDueDate());
+        assertEquals(1, loanManagement.getLoansDueOnOrBefore(start.plusMonths(1)).size());
+
+        loanManagement.repayLoan(ACCOUNT_ID, 150.0);
+
+        assertAll(
+                () -> assertEquals(start.plusMonths(2), loan.getNextDueDate()),
+                () -> assertTrue(loanManagement.getLoansDueOnOrBefore(start.plusMonths(1)).isEmpty()),
+                () -> assertEquals(1, loanManagement.getLoansDueOnOrBefore(start.plusMonths(2)).size())
+        );
+    }
+
+    @Test
+    void portfolioSummary_TracksApplicationsAndRepayments() {
+        loanManagement.applyForLoan("A", 1000.0, 0.10, 12);   // owes 1,100.00
+        loanManagement.applyForLoan("B", 2000.0, 0.05, 24);   // owes 2,200.00
+        loanManagement.applyForLoan("C", 500.0, 0.0, 12);     // owes 500.00
+        loanManagement.repayLoan("A", 100.0);
+        loanManagement.repayLoan("C", 500.0);
+
+        LoanManagement.PortfolioSummary summary = loanManagement.getPortfolioSummary();
+
+        assertAll(
+                () -> assertEquals(2, summary.loanCount()),
+                () -> assertEquals(300_000, summary.totalPrincipal()),
+                () -> assertEquals(320_000, summary.totalOutstanding()),
+                () -> assertEquals((0.10 * 1000 + 0.05 * 2200) / 3200, summary.weightedAverageRate(), 1e-12),
+                () -> assertEquals(100_000, summary.outstandingByTenure().get(12)),
+                () -> assertEquals(220_000, summary.outstandingByTenure().get(24))
+        );
+    }
+
+    @Test
+    void aggregatePortfolio_MatchesRunningTotals() {
+        for (int i = 0; i < 5_000; i++) {
+            loanManagement.applyForLoan("ACC" + i, 1000.0 + i, 0.01 * (i % 10), 6 * (1 + i % 5));
+            if (i % 3 == 0) {
+                loanManagement.repayLoan("ACC" + i, 250.0);
+            }
+        }
+
+        LoanManagement.PortfolioSummary running = loanManagement.getPortfolioSummary();
+        LoanManagement.PortfolioSummary aggregated = loanManagement.aggregatePortfolio();
+
+        assertAll(
+                () -> assertEquals(aggregated.loanCount(), running.loanCount()),
+                () -> assertEquals(aggregated.totalPrincipal(), running.totalPrincipal()),
+                () -> assertEquals(aggregated.totalOutstanding(), running.totalOutstanding()),
+                () -> assertEquals(aggregated.weightedAverageRate(), running.weightedAverageRate(), 1e-9),
+                () -> assertEquals(aggregated.outstandingByTenure(), running.outstandingByTenure())
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+class MetricsTest {
+    private static final String PIN = "1234";
+
+    private final Metrics metrics = new Metrics();
+
+    @Test
+    void snapshot_AddsUpEveryThreadsRecorder() throws InterruptedException {
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    metrics.record(Metrics.Operation.DEPOSIT, Metrics.Result.SUCCESS, System.nanoTime());
+                }
+                metrics.record(Metrics.Operation.DEPOSIT, Metrics.Result.AUTHENTICATION_FAILED, System.nanoTime());
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Metrics.OperationStats deposits = metrics.snapshot().get(Metrics.Operation.DEPOSIT);
+        assertAll(
+                () -> assertEquals(4_004, deposits.count()),
+                () -> assertEquals(4_000, deposits.count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(4, deposits.failures()),
+                () -> assertEquals(0, metrics.snapshot().get(Metrics.Operation.WITHDRAW).count())
+        );
+    }
+
+    @Test
+    void shortLivedThreads_ShareAFixedSetOfRecorders() throws InterruptedException {
+        int recorders = metrics.recorderCount();
+        Thread[] workers = new Thread[4 * recorders + 3];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    metrics.record(Metrics.Operation.TRANSFER, Metrics.Result.SUCCESS, System.nanoTime() - i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Metrics.OperationStats transfers = metrics.snapshot().get(Metrics.Operation.TRANSFER);
+        assertAll(
+                () -> assertEquals(recorders, metrics.recorderCount()),
+                () -> assertEquals(workers.length * 1_000L, transfers.count()),
+                () -> assertEquals(workers.length * 1_000L, transfers.count(Metrics.Result.SUCCESS))
+        );
+    }
+
+    @Test
+    void registry_RecordsResultsByReason() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.setMetrics(metrics);
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, PIN));
+        registry.register(new BankAccount("ACC2", 100.0, "USD", 0.0, PIN));
+
+        registry.deposit("ACC1", 50.0, PIN);
+        registry.deposit("ACC1", 50.0, "0000");
+        registry.withdraw("ACC1", 1_000.0, PIN);
+        registry.withdraw("ACC1", -1.0, PIN);
+        registry.transfer("ACC1", "ACC2", 10.0, PIN);
+        assertThrows(IllegalArgumentException.class, () -> registry.transfer("ACC1", "NOPE", 10.0, PIN));
+
+        Metrics.Snapshot snapshot = metrics.snapshot();
+        assertAll(
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.DEPOSIT).count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.DEPOSIT)
+                        .count(Metrics.Result.AUTHENTICATION_FAILED)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.WITHDRAW)
+                        .count(Metrics.Result.INSUFFICIENT_FUNDS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.WITHDRAW).count(Metrics.Result.INVALID_AMOUNT)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.TRANSFER).count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.TRANSFER)
+                        .count(Metrics.Result.UNKNOWN_ACCOUNT))
+        );
+    }
+
+    @Test
+    void loansConversionsAndExecution_AreRecorded() {
+        LoanManagement loans = new LoanManagement();
+        loans.setMetrics(metrics);
+        loans.applyForLoan("ACC1", 1_000.0, 0.1, 12);
+        assertThrows(IllegalStateException.class, () -> loans.applyForLoan("ACC1", 1_000.0, 0.1, 12));
+        loans.repayLoan("ACC1", 100.0);
+        assertThrows(IllegalArgumentException.class, () -> loans.repayLoan("ACC2", 100.0));
+
+        CurrencyConverter converter = new CurrencyConverter();
+        converter.setMetrics(metrics);
+        converter.convert("USD", "EUR", 10.0);
+        assertThrows(IllegalArgumentException.class, () -> converter.convertMinor("USD", "XXX", 10));
+
+        AccountRegistry registry = new AccountRegistry();
+        registry.setMetrics(metrics);
+        registry.register(new BankAccount("ACC1", 100.0, "USD", 0.0, PIN));
+        registry.register(new BankAccount("ACC2", 100.0, "USD", 0.0, PIN));
+        List<ScheduledTransfer.Transfer> due = List.of(
+                new ScheduledTransfer.Transfer("ACC1", "ACC2", 10.0, LocalDate.now()),
+                new ScheduledTransfer.Transfer("ACC1", "ACC2", 500.0, LocalDate.now()));
+        new TransferExecutionEngine(registry).execute(due);
+
+        Metrics.Snapshot snapshot = metrics.snapshot();
+        assertAll(
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.LOAN_APPLY).count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.LOAN_APPLY)
+                        .count(Metrics.Result.EXISTING_LOAN)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.LOAN_REPAY).count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.LOAN_REPAY)
+                        .count(Metrics.Result.NO_ACTIVE_LOAN)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.CONVERT).count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.CONVERT)
+                        .count(Metrics.Result.UNSUPPORTED_CURRENCY)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.TRANSFER_EXECUTION)
+                        .count(Metrics.Result.SUCCESS)),
+                () -> assertEquals(1, snapshot.get(Metrics.Operation.TRANSFER_EXECUTION)
+                        .count(Metrics.Result.INSUFFICIENT_FUNDS)),
+                () -> assertEquals(2, snapshot.get(Metrics.Operation.TRANSFER).count())
+        );
+    }
+
+    @Test
+    void dumpEvery_PrintsSnapshotsUntilClosed() throws Exception {
+        metrics.record(Metrics.Operation.WITHDRAW, Metrics.Result.INSUFFICIENT_FUNDS, System.nanoTime());
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+
+        try (AutoCloseable dump = metrics.dumpEvery(Duration.ofMillis(10), out)) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (buffer.size() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        String text = buffer.toString(StandardCharsets.UTF_8);
+        assertAll(
+                () -> assertTrue(text.contains("WITHDRAW"), text),
+                () -> assertTrue(text.contains("INSUFFICIENT_FUNDS=1"), text),
+                () -> assertFalse(text.contains("DEPOSIT"), text),
+                () -> assertThrows(IllegalArgumentException.class, () -> metrics.dumpEvery(Duration.ZERO, out))
+        );
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void scaleOf_UsesCurrencyFractionDigits() {
+        assertAll(
+                () -> assertEquals(2, Money.scaleOf("USD")),
+                () -> assertEquals(0, Money.scaleOf("JPY")),
+                () -> assertEquals(3, Money.scaleOf("KWD")),
+                () -> assertEquals(Money.DEFAULT_SCALE, Money.scaleOf("ABC"), "Unknown codes fall back to two decimals")
+        );
+    }
+
+    @Test
+    void toMinorAndBack_RoundTripsCents() {
+        assertEquals(10001, Money.toMinor(100.01, 2));
+        assertEquals(100.01, Money.toMajor(10001, 2));
+        assertEquals(-250, Money.toMinor(-2.5, 2));
+        assertEquals(0, Money.toMinor(0.004, 2));
+    }
+
+    @Test
+    void toMinor_RejectsNonFiniteAndOutOfRangeAmounts() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> Money.toMinor(Double.NaN, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> Money.toMinor(Double.POSITIVE_INFINITY, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> Money.toMinor(1e17, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> Money.toMinor(-1e17, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3.0)),
+                () -> assertEquals(9_000_000_000_000_000_000L, Money.toMinor(9e16, 2))
+        );
+    }
+
+    @Test
+    void rescale_RoundsHalfAwayFromZero() {
+        assertAll(
+                () -> assertEquals(12_340, Money.rescale(1234, 2, 3)),
+                () -> assertEquals(12, Money.rescale(1249, 2, 0)),
+                () -> assertEquals(13, Money.rescale(1250, 2, 0)),
+                () -> assertEquals(-13, Money.rescale(-1250, 2, 0)),
+                () -> assertEquals(77, Money.rescale(77, 2, 2))
+        );
+    }
+
+    @Test
+    void arithmetic_IsExactInMinorUnits() {
+        Money sum = Money.of(0.1, "USD").plus(Money.of(0.2, "USD"));
+
+        assertEquals(30, sum.getMinorUnits());
+        assertEquals(Money.of(0.3, "USD"), sum);
+        assertEquals(Money.ofMinor(-10, "USD"), Money.of(0.1, "USD").minus(Money.of(0.2, "USD")));
+    }
+
+    @Test
+    void arithmetic_RejectsCurrencyMismatch() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> Money.of(1.0, "USD").plus(Money.of(1.0, "EUR")));
+        assertEquals("Currency mismatch: USD and EUR", exception.getMessage());
+    }
+
+    @Test
+    void compareTo_OrdersByAmount() {
+        assertTrue(Money.of(1.0, "USD").compareTo(Money.of(2.0, "USD")) < 0);
+        assertEquals(0, Money.of(2.0, "USD").compareTo(Money.ofMinor(200, "USD")));
+        assertTrue(Money.ofMinor(1, "USD").isPositive());
+        assertFalse(Money.ofMinor(0, "USD").isPositive());
+    }
+
+    @Test
+    void toString_FormatsWithCurrencyScale() {
+        assertAll(
+                () -> assertEquals("12.05 USD", Money.ofMinor(1205, "USD").toString()),
+                () -> assertEquals("-0.07 EUR", Money.ofMinor(-7, "EUR").toString()),
+                () -> assertEquals("1500 JPY", Money.ofMinor(1500, "JPY").toString())
+        );
+    }
+}
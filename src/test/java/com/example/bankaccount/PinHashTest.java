@@ -0,0 +1,43 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PinHashTest {
+
+    @Test
+    void create_SaltsEachHash() {
+        String first = PinHash.create("1234");
+        String second = PinHash.create("1234");
+
+        assertAll(
+                () -> assertNotEquals(first, second),
+                () -> assertFalse(first.contains("1234")),
+                () -> assertTrue(PinHash.matches(first, "1234")),
+                () -> assertTrue(PinHash.matches(second, "1234")),
+                () -> assertFalse(PinHash.matches(first, "1235"))
+        );
+    }
+
+    @Test
+    void nullPinsNeverMatch() {
+        assertAll(
+                () -> assertNull(PinHash.create(null)),
+                () -> assertFalse(PinHash.matches(null, "1234")),
+                () -> assertFalse(PinHash.matches(PinHash.create("1234"), null))
+        );
+    }
+
+    @Test
+    void fromStored_HashesLegacyPlaintextPins() {
+        String hash = PinHash.create("1234");
+        String legacy = PinHash.fromStored("1234");
+
+        assertAll(
+                () -> assertSame(hash, PinHash.fromStored(hash)),
+                () -> assertNotEquals("1234", legacy),
+                () -> assertTrue(PinHash.matches(legacy, "1234"))
+        );
+    }
+}
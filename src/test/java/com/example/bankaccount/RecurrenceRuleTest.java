@@ -0,0 +1,83 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void dailyAndWeekly_StepFromPreviousOccurrence() {
+        LocalDate start = LocalDate.of(2025, 3, 5);
+
+        assertAll(
+                () -> assertEquals(start, RecurrenceRule.daily().firstOnOrAfter(start)),
+                () -> assertEquals(LocalDate.of(2025, 3, 6), RecurrenceRule.daily().nextAfter(start)),
+                () -> assertEquals(start, RecurrenceRule.weekly().firstOnOrAfter(start)),
+                () -> assertEquals(LocalDate.of(2025, 3, 12), RecurrenceRule.weekly().nextAfter(start))
+        );
+    }
+
+    @Test
+    void monthlyOnDay_ClampsToShortMonths() {
+        RecurrenceRule rule = RecurrenceRule.monthlyOnDay(31);
+
+        assertAll(
+                () -> assertEquals(LocalDate.of(2025, 1, 31), rule.firstOnOrAfter(LocalDate.of(2025, 1, 10))),
+                () -> assertEquals(LocalDate.of(2025, 2, 28), rule.nextAfter(LocalDate.of(2025, 1, 31))),
+                () -> assertEquals(LocalDate.of(2025, 3, 31), rule.nextAfter(LocalDate.of(2025, 2, 28))),
+                () -> assertEquals(LocalDate.of(2024, 2, 29), rule.firstOnOrAfter(LocalDate.of(2024, 2, 1)))
+        );
+    }
+
+    @Test
+    void monthlyOnDay_StartsNextMonthWhenDayHasPassed() {
+        assertEquals(LocalDate.of(2025, 4, 15),
+                RecurrenceRule.monthlyOnDay(15).firstOnOrAfter(LocalDate.of(2025, 3, 16)));
+    }
+
+    @Test
+    void lastBusinessDay_SkipsWeekends() {
+        RecurrenceRule rule = RecurrenceRule.lastBusinessDay();
+
+        assertAll(
+                // 31 May 2025 is a Saturday
+                () -> assertEquals(LocalDate.of(2025, 5, 30), rule.firstOnOrAfter(LocalDate.of(2025, 5, 1))),
+                // 31 August 2025 is a Sunday
+                () -> assertEquals(LocalDate.of(2025, 8, 29), rule.nextAfter(LocalDate.of(2025, 7, 31))),
+                () -> assertEquals(LocalDate.of(2025, 6, 30), rule.firstOnOrAfter(LocalDate.of(2025, 5, 31)))
+        );
+    }
+
+    @Test
+    void until_EndsTheRuleInclusively() {
+        RecurrenceRule rule = RecurrenceRule.weekly().until(LocalDate.of(2025, 3, 12));
+
+        assertAll(
+                () -> assertEquals(LocalDate.of(2025, 3, 12), rule.nextAfter(LocalDate.of(2025, 3, 5))),
+                () -> assertNull(rule.nextAfter(LocalDate.of(2025, 3, 12))),
+                () -> assertNull(rule.firstOnOrAfter(LocalDate.of(2025, 3, 13)))
+        );
+    }
+
+    @Test
+    void encode_RoundTrips() {
+        RecurrenceRule rule = RecurrenceRule.monthlyOnDay(15).until(LocalDate.of(2026, 1, 1));
+        RecurrenceRule decoded = RecurrenceRule.decode(rule.encode());
+
+        assertAll(
+                () -> assertEquals(RecurrenceRule.Frequency.MONTHLY_ON_DAY, decoded.getFrequency()),
+                () -> assertEquals(15, decoded.getDayOfMonth()),
+                () -> assertEquals(LocalDate.of(2026, 1, 1), decoded.getUntil()),
+                () -> assertNull(RecurrenceRule.decode(RecurrenceRule.daily().encode()).getUntil())
+        );
+    }
+
+    @Test
+    void monthlyOnDay_RejectsInvalidDay() {
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.monthlyOnDay(0));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.monthlyOnDay(32));
+    }
+}
@@ -296,70 +296,142 @@ class ScheduledTransferTest {
     }
 
     @Test
-    public void testExecuteDueTransfersWithConditionalCoverage() {
+    public void testExecuteDueTransfersWithConditionalCoverage() throws Exception {
         LocalDate today = LocalDate.now();
+        ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
 
-        // Reflection-based approach to bypass validation for testing
-        try {
-            // Create a new instance using reflection to bypass constructor validation
-            ScheduledTransfer scheduledTransfer = ScheduledTransfer.class.getDeclaredConstructor().newInstance();
-
-            // Use reflection to directly add transfers to the list
-            java.lang.reflect.Field transfersField = ScheduledTransfer.class.getDeclaredField("transfers");
-            transfersField.setAccessible(true);
-
-            // Get the transfers list
-            List<ScheduledTransfer.Transfer> transfersList =
-                    (List<ScheduledTransfer.Transfer>) transfersField.get(scheduledTransfer);
-
-            // Create Transfer objects directly
-            ScheduledTransfer.Transfer todayTransfer1 = createTransfer("account1", "account2", 100.0, today);
-            ScheduledTransfer.Transfer todayTransfer2 = createTransfer("account3", "account4", 200.0, today);
-            ScheduledTransfer.Transfer futureTransfer = createTransfer("account5", "account6", 300.0, today.plusDays(1));
-            ScheduledTransfer.Transfer pastTransfer = createTransfer("account7", "account8", 400.0, today.minusDays(1));
-
-            // Add transfers directly to the list
-            transfersList.add(todayTransfer1);
-            transfersList.add(todayTransfer2);
-            transfersList.add(futureTransfer);
-            transfersList.add(pastTransfer);
-
-            // Capture system output to verify exact execution
-            java.io.ByteArrayOutputStream outContent = new java.io.ByteArrayOutputStream();
-            System.setOut(new java.io.PrintStream(outContent));
-
-            // Execute due transfers
-            scheduledTransfer.executeDueTransfers();
-
-            // Reset System.out
-            System.setOut(System.out);
-
-            // Verify the output contains exactly the due transfers
-            String output = outContent.toString().trim();
-            String[] executedTransfers = output.split(System.lineSeparator());
-
-            // Verify only the two transfers scheduled for today are reported
-            assertEquals(2, executedTransfers.length, "Should have executed exactly 2 transfers");
-            assertTrue(output.contains("Executed transfer: Transfer from account1 to account2 of 100.0 on " + today),
-                    "First transfer should be executed");
-            assertTrue(output.contains("Executed transfer: Transfer from account3 to account4 of 200.0 on " + today),
-                    "Second transfer should be executed");
-
-            // Verify remaining transfers
-            List<ScheduledTransfer.Transfer> remainingTransfers = scheduledTransfer.getScheduledTransfers();
-            assertEquals(2, remainingTransfers.size(), "Should have 2 transfers remaining");
-
-            // Verify remaining transfers are for future and past dates
-            assertTrue(remainingTransfers.stream()
-                            .anyMatch(t -> t.date.equals(today.plusDays(1))),
-                    "Future transfer should remain");
-            assertTrue(remainingTransfers.stream()
-                            .anyMatch(t -> t.date.equals(today.minusDays(1))),
-                    "Past transfer should remain");
-
-        } catch (Exception e) {
-            fail("Test setup failed: " + e.getMessage());
+        // restore() bypasses the past-date validation, as recovery does
+        scheduledTransfer.restore(createTransfer("account1", "account2", 100.0, today));
+        scheduledTransfer.restore(createTransfer("account3", "account4", 200.0, today));
+        scheduledTransfer.restore(createTransfer("account5", "account6", 300.0, today.plusDays(1)));
+        scheduledTransfer.restore(createTransfer("account7", "account8", 400.0, today.minusDays(1)));
+
+        java.io.ByteArrayOutputStream outContent = new java.io.ByteArrayOutputStream();
+        System.setOut(new java.io.PrintStream(outContent));
+
+        scheduledTransfer.executeDueTransfers();
+
+        System.setOut(System.out);
+
+        String output = outContent.toString().trim();
+        String[] executedTransfers = output.split(System.lineSeparator());
+
+        // Overdue transfers are caught up together with today's, oldest first
+        assertEquals(3, executedTransfers.length, "Should have executed exactly 3 transfers");
+        assertTrue(executedTransfers[0].contains("Transfer from account7 to account8 of 400.0 on " + today.minusDays(1)),
+                "Overdue transfer should be executed first");
+        assertTrue(output.contains("Executed transfer: Transfer from account1 to account2 of 100.0 on " + today),
+                "First transfer should be executed");
+        assertTrue(output.contains("Executed transfer: Transfer from account3 to account4 of 200.0 on " + today),
+                "Second transfer should be executed");
+
+        List<ScheduledTransfer.Transfer> remainingTransfers = scheduledTransfer.getScheduledTransfers();
+        assertEquals(1, remainingTransfers.size(), "Should have 1 transfer remaining");
+        assertEquals(today.plusDays(1), remainingTransfers.get(0).date, "Future transfer should remain");
+    }
+
+    @Test
+    void executeDueTransfers_CatchesUpMissedDays() {
+        LocalDate start = LocalDate.now();
+        for (int day = 0; day < 10; day++) {
+            scheduler.scheduleTransfer("ACC1", "ACC2", day, start.plusDays(day));
+        }
+
+        scheduler.executeDueTransfers(start.plusDays(4));
+
+        assertEquals(5, scheduler.size());
+        assertEquals(start.plusDays(5), scheduler.getScheduledTransfers().get(0).date);
+        assertEquals(5, outputStream.toString().trim().split(System.lineSeparator()).length);
+    }
+
+    @Test
+    void getScheduledTransfers_ReturnsDateOrder() {
+        scheduler.scheduleTransfer("ACC1", "ACC2", 3.0, today.plusDays(3));
+        scheduler.scheduleTransfer("ACC1", "ACC2", 1.0, today.plusDays(1));
+        scheduler.scheduleTransfer("ACC1", "ACC2", 2.0, today.plusDays(1));
+
+        List<ScheduledTransfer.Transfer> pending = scheduler.getScheduledTransfers();
+
+        assertAll(
+                () -> assertEquals(1.0, pending.get(0).amount),
+                () -> assertEquals(2.0, pending.get(1).amount),
+                () -> assertEquals(3.0, pending.get(2).amount)
+        );
+    }
+
+    @Test
+    void scheduleRecurringTransfer_QueuesOnlyNextOccurrence() {
+        long orderId = scheduler.scheduleRecurringTransfer("ACC1", "ACC2", 10.0, today, RecurrenceRule.daily());
+
+        assertAll(
+                () -> assertEquals(1, scheduler.size()),
+                () -> assertEquals(1, scheduler.getStandingOrders().size()),
+                () -> assertEquals(orderId, scheduler.getStandingOrders().get(0).getId()),
+                () -> assertEquals(today, scheduler.getScheduledTransfers().get(0).date)
+        );
+    }
+
+    @Test
+    void executeDueTransfers_GeneratesNextOccurrences() {
+        scheduler.scheduleRecurringTransfer("ACC1", "ACC2", 10.0, today,
+                RecurrenceRule.daily().until(today.plusDays(9)));
+        scheduler.scheduleTransfer("ACC1", "ACC2", 1.0, today.plusDays(2));
+
+        scheduler.executeDueTransfers(today.plusDays(3));
+
+        assertAll(
+                // Four occurrences caught up plus the one-off transfer
+                () -> assertEquals(5, outputStream.toString().trim().split(System.lineSeparator()).length),
+                () -> assertEquals(1, scheduler.size()),
+                () -> assertEquals(today.plusDays(4), scheduler.getStandingOrders().get(0).getNextDate())
+        );
+
+        scheduler.executeDueTransfers(today.plusDays(30));
+
+        assertAll(
+                () -> assertEquals(0, scheduler.size()),
+                () -> assertTrue(scheduler.getStandingOrders().isEmpty())
+        );
+    }
+
+    @Test
+    void cancelStandingOrder_RemovesQueuedOccurrence() {
+        long orderId = scheduler.scheduleRecurringTransfer("ACC1", "ACC2", 10.0, today.plusDays(1),
+                RecurrenceRule.weekly());
+
+        scheduler.cancelStandingOrder(orderId);
+
+        assertAll(
+                () -> assertEquals(0, scheduler.size()),
+                () -> assertTrue(scheduler.getStandingOrders().isEmpty()),
+                () -> assertThrows(IllegalArgumentException.class, () -> scheduler.cancelStandingOrder(orderId))
+        );
+    }
+
+    @Test
+    void cancelStandingOrder_KeepsTheRestOfTheDateInOrder() {
+        LocalDate date = today.plusDays(1);
+        long[] orderIds = new long[5];
+        for (int i = 0; i < orderIds.length; i++) {
+            orderIds[i] = scheduler.scheduleRecurringTransfer("ACC1", "ACC2", i, date, RecurrenceRule.weekly());
         }
+
+        scheduler.cancelStandingOrder(orderIds[1]);
+        scheduler.cancelStandingOrder(orderIds[3]);
+        List<ScheduledTransfer.Transfer> pending = scheduler.getScheduledTransfers();
+
+        assertAll(
+                () -> assertEquals(3, scheduler.size()),
+                () -> assertEquals(0.0, pending.get(0).amount),
+                () -> assertEquals(2.0, pending.get(1).amount),
+                () -> assertEquals(4.0, pending.get(2).amount)
+        );
+    }
+
+    @Test
+    void scheduleRecurringTransfer_RejectsRuleEndingBeforeStart() {
+        assertThrows(IllegalArgumentException.class, () -> scheduler.scheduleRecurringTransfer("ACC1", "ACC2",
+                10.0, today.plusDays(5), RecurrenceRule.daily().until(today.plusDays(1))));
     }
 
     // Helper method to create Transfer using reflection to bypass validation
@@ -0,0 +1,259 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class SnapshotManagerTest {
+    private static final String PIN = "1234";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkpoint_TruncatesSealedSegments() throws IOException {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+            for (int i = 0; i < 10; i++) {
+                registry.deposit("ACC1", 1.0, PIN);
+            }
+
+            long covered = new SnapshotManager(journal).checkpoint();
+
+            assertAll(
+                    () -> assertEquals(11, covered),
+                    () -> assertEquals(1, SnapshotManager.snapshots(directory).size()),
+                    () -> assertEquals(11, SnapshotManager.latestSnapshotLsn(directory)),
+                    () -> assertEquals(1, Journal.segments(directory).size()),
+                    () -> assertEquals(12, Journal.firstLsn(Journal.segments(directory).get(0)))
+            );
+        }
+    }
+
+    @Test
+    void recover_LoadsSnapshotAndReplaysTail() {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            LoanManagement loans = new LoanManagement();
+            ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+            registry.setJournal(journal);
+            loans.setJournal(journal);
+            scheduledTransfer.setJournal(journal);
+            registry.openAccount("ACC1", 1000.0, "USD", 0.0, PIN);
+            registry.register(new BankAccount("SAV1", 800.0, "USD", AccountType.SAVINGS, PIN));
+            registry.register(new CollectionAccount("COL1", 0.0, "USD", PIN));
+            registry.deposit("COL1", 42.0, PIN);
+            registry.transfer("ACC1", "SAV1", 150.0, PIN);
+            registry.convertBalance("SAV1", 0.5, "EUR");
+            registry.lockAccount("SAV1");
+            loans.applyForLoan("ACC1", 1000.0, 0.1, 12);
+            scheduledTransfer.scheduleTransfer("ACC1", "SAV1", 25.0, LocalDate.now().plusDays(3));
+
+            SnapshotManager snapshots = new SnapshotManager(journal);
+            snapshots.checkpoint();
+            registry.withdraw("ACC1", 50.0, PIN);
+            loans.repayLoan("ACC1", 100.0);
+            scheduledTransfer.scheduleTransfer("SAV1", "ACC1", 5.0, LocalDate.now().plusDays(1));
+            snapshots.checkpoint();
+            registry.deposit("ACC1", 10.0, PIN);
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        LoanManagement recoveredLoans = new LoanManagement();
+        ScheduledTransfer recoveredTransfers = new ScheduledTransfer();
+        try (Journal journal = SnapshotManager.recover(directory, recovered, recoveredLoans, recoveredTransfers)) {
+            assertAll(
+                    () -> assertEquals(3, recovered.size()),
+                    () -> assertEquals(810.0, recovered.getBalance("ACC1"), 0.001),
+                    () -> assertEquals(475.0, recovered.getBalance("SAV1"), 0.001),
+                    () -> assertTrue(recovered.getAccount("SAV1").isLocked()),
+                    () -> assertEquals(AccountType.SAVINGS, recovered.getAccount("SAV1").getAccountType()),
+                    () -> assertTrue(recovered.isLockFree("COL1")),
+                    () -> assertEquals(42.0, recovered.getBalance("COL1"), 0.001),
+                    () -> assertEquals(1000.0, recoveredLoans.getLoanDetails("ACC1").getOutstandingAmount(), 0.001),
+                    () -> assertEquals(2, recoveredTransfers.getScheduledTransfers().size()),
+                    () -> assertSame(journal, recovered.getJournal())
+            );
+
+            assertTrue(recovered.deposit("ACC1", 1.0, PIN));
+            assertEquals(14, journal.getLastLsn());
+        }
+    }
+
+    @Test
+    void snapshot_StoresPinHashesOnly() throws IOException {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 100.0, "USD", 0.0, "secret-4821");
+            registry.changePin("ACC1", "secret-4821", "secret-7395");
+            new SnapshotManager(journal).checkpoint();
+        }
+        Path snapshot = SnapshotManager.snapshots(directory).get(0);
+        assertFalse(new String(Files.readAllBytes(snapshot), StandardCharsets.ISO_8859_1).contains("secret-"));
+
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = SnapshotManager.recover(directory, recovered, new LoanManagement(),
+                new ScheduledTransfer())) {
+            assertTrue(recovered.getAccount("ACC1").authenticate("secret-7395"));
+            assertFalse(recovered.getAccount("ACC1").authenticate("secret-4821"));
+        }
+    }
+
+    @Test
+    void recover_RestoresStandingOrders() {
+        LocalDate today = LocalDate.now();
+        long replayed;
+        long cancelled;
+        long snapshotted;
+        try (Journal journal = Journal.open(directory)) {
+            ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+            scheduledTransfer.setJournal(journal);
+            snapshotted = scheduledTransfer.scheduleRecurringTransfer("ACC1", "ACC2", 20.0, today,
+                    RecurrenceRule.weekly());
+            scheduledTransfer.executeDueTransfers(today);
+            new SnapshotManager(journal).checkpoint();
+            replayed = scheduledTransfer.scheduleRecurringTransfer("ACC2", "ACC1", 5.0, today,
+                    RecurrenceRule.daily());
+            cancelled = scheduledTransfer.scheduleRecurringTransfer("ACC2", "ACC1", 1.0, today.plusDays(1),
+                    RecurrenceRule.monthlyOnDay(1));
+            scheduledTransfer.executeDueTransfers(today.plusDays(1));
+            scheduledTransfer.cancelStandingOrder(cancelled);
+        }
+
+        ScheduledTransfer recovered = new ScheduledTransfer();
+        try (Journal journal = SnapshotManager.recover(directory, new AccountRegistry(), new LoanManagement(),
+                recovered)) {
+            assertAll(
+                    () -> assertEquals(2, recovered.getStandingOrders().size()),
+                    () -> assertEquals(2, recovered.size()),
+                    () -> assertEquals(today.plusWeeks(1), nextDate(recovered, snapshotted)),
+                    () -> assertEquals(today.plusDays(2), nextDate(recovered, replayed))
+            );
+        }
+    }
+
+    @Test
+    void checkpoints_KeepEveryDigitOfThreeDecimalScheduledAmounts() {
+        LocalDate start = LocalDate.now().plusDays(1);
+        try (Journal journal = Journal.open(directory)) {
+            ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+            scheduledTransfer.setJournal(journal);
+            scheduledTransfer.scheduleTransfer("KWD1", "KWD2", 1.234, start);
+            scheduledTransfer.scheduleRecurringTransfer("KWD2", "KWD1", 0.005, start, RecurrenceRule.daily());
+            SnapshotManager snapshots = new SnapshotManager(journal);
+            snapshots.checkpoint();
+            // The second checkpoint starts from the first snapshot, so the amounts go through it twice
+            scheduledTransfer.scheduleTransfer("KWD1", "KWD2", 0.001, start);
+            snapshots.checkpoint();
+        }
+
+        ScheduledTransfer recovered = new ScheduledTransfer();
+        try (Journal journal = SnapshotManager.recover(directory, new AccountRegistry(), new LoanManagement(),
+                recovered)) {
+            List<Double> amounts = recovered.getScheduledTransfers().stream()
+                    .map(transfer -> transfer.amount).sorted().toList();
+            assertAll(
+                    () -> assertEquals(journal.getLastLsn(), SnapshotManager.latestSnapshotLsn(directory)),
+                    () -> assertEquals(List.of(0.001, 0.005, 1.234), amounts),
+                    () -> assertEquals(0.005, recovered.getStandingOrders().get(0).amount)
+            );
+        }
+    }
+
+    private static LocalDate nextDate(ScheduledTransfer scheduledTransfer, long orderId) {
+        for (StandingOrder order : scheduledTransfer.getStandingOrders()) {
+            if (order.getId() == orderId) {
+                return order.getNextDate();
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void checkpointWithoutNewRecords_KeepsExistingSnapshot() {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+            SnapshotManager snapshots = new SnapshotManager(journal);
+            long first = snapshots.checkpoint();
+            long second = snapshots.checkpoint();
+
+            assertAll(
+                    () -> assertEquals(first, second),
+                    () -> assertEquals(1, SnapshotManager.snapshots(directory).size())
+            );
+        }
+    }
+
+    @Test
+    void reopenAfterFullTruncation_ContinuesLsnSequence() throws IOException {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+            registry.deposit("ACC1", 1.0, PIN);
+            new SnapshotManager(journal).checkpoint();
+        }
+        for (Path segment : Journal.segments(directory)) {
+            Files.delete(segment);
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = SnapshotManager.recover(directory, recovered, new LoanManagement(),
+                new ScheduledTransfer())) {
+            assertEquals(101.0, recovered.getBalance("ACC1"), 0.001);
+            assertEquals(3, journal.appendAndSync(JournalRecord.deposit("ACC1", 1)));
+        }
+    }
+
+    @Test
+    void writers_ContinueDuringBackgroundCheckpoints() throws Exception {
+        int threads = 4;
+        int depositsPerThread = 500;
+        try (Journal journal = Journal.open(directory);
+             SnapshotManager snapshots = new SnapshotManager(journal)) {
+            AccountRegistry registry = new AccountRegistry();
+            registry.setJournal(journal);
+            registry.openAccount("ACC1", 0.0, "USD", 0.0, PIN);
+            snapshots.start(5, TimeUnit.MILLISECONDS);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = pool.submit(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        registry.deposit("ACC1", 1.0, PIN);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+            snapshots.checkpoint();
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        try (Journal journal = SnapshotManager.recover(directory, recovered, new LoanManagement(),
+                new ScheduledTransfer())) {
+            assertEquals(threads * depositsPerThread, recovered.getBalance("ACC1"), 0.001);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 class TransactionHistoryTest {
@@ -126,6 +127,135 @@ class TransactionHistoryTest {
         }
     }
 
+    @Test
+    void filterTransactionsByKeyword_MatchesSubstringsCaseInsensitively() {
+        history.addTransaction("Transferred 200.0 to Account A002");
+        history.addTransaction("Deposited 100.0 USD");
+        history.addTransaction("Withdrew 50.0");
+
+        assertAll(
+                () -> assertEquals(1, history.filterTransactionsByKeyword("transfer").size()),
+                () -> assertEquals(1, history.filterTransactionsByKeyword("ACCOUNT a0").size()),
+                () -> assertEquals(2, history.filterTransactionsByKeyword("00.0").size()),
+                () -> assertEquals(0, history.filterTransactionsByKeyword("Account A003").size()),
+                () -> assertEquals(3, history.filterTransactionsByKeyword(".").size())
+        );
+    }
+
+    @Test
+    void filterTransactionsByKeyword_AlsoMatchesTheTimestampPrefix() {
+        history.addTransaction(LocalDateTime.of(2024, 3, 15, 10, 30), "Deposited 100.0 USD");
+        history.addTransaction(LocalDateTime.of(2024, 4, 1, 9, 0), "Withdrew 50.0 at 10:30");
+
+        assertAll(
+                () -> assertEquals(1, history.filterTransactionsByKeyword("2024-03-15").size()),
+                () -> assertEquals(2, history.filterTransactionsByKeyword("10:30").size()),
+                () -> assertEquals(1, history.filterTransactionsByKeyword("15T10").size()),
+                () -> assertEquals(1, history.filterTransactionsByKeyword(" - deposited").size()),
+                () -> assertEquals(1, history.filterTransactionsByKeyword(":00 - withdrew 50").size()),
+                () -> assertEquals(2, history.filterTransactionsByKeyword("").size()),
+                () -> assertEquals(1, history.filterTransactionsByKeyword("usd").size()),
+                () -> assertEquals("2024-03-15T10:30 - Deposited 100.0 USD",
+                        history.filterTransactionsByKeyword("03-15").get(0))
+        );
+    }
+
+    @Test
+    void searchAll_RequiresEveryTerm() {
+        history.addTransaction("Deposited 100 USD into A001");
+        history.addTransaction("Deposited 100 EUR into A002");
+        history.addTransaction("Withdrew 100 USD from A001");
+
+        TransactionHistory.Page page = history.searchAll(List.of("usd", "A001"), 10, 0);
+
+        assertAll(
+                () -> assertEquals(2, page.transactions().size()),
+                () -> assertTrue(page.transactions().get(0).endsWith("Deposited 100 USD into A001")),
+                () -> assertFalse(page.hasMore()),
+                () -> assertTrue(history.searchAll(List.of("usd", "missing"), 10, 0).transactions().isEmpty())
+        );
+    }
+
+    @Test
+    void searchAny_PagesThroughMatchesInOrder() {
+        for (int i = 0; i < 25; i++) {
+            history.addTransaction((i % 2 == 0 ? "Deposited " : "Withdrew ") + i + " USD");
+        }
+        history.addTransaction("Converted balance to EUR");
+
+        List<String> seen = new ArrayList<>();
+        int cursor = 0;
+        int pages = 0;
+        do {
+            TransactionHistory.Page page = history.searchAny(List.of("deposited", "eur"), 5, cursor);
+            seen.addAll(page.transactions());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor >= 0);
+
+        assertEquals(3, pages);
+        assertAll(
+                () -> assertEquals(14, seen.size()),
+                () -> assertTrue(seen.get(0).endsWith("Deposited 0 USD")),
+                () -> assertTrue(seen.get(13).endsWith("Converted balance to EUR"))
+        );
+    }
+
+    @Test
+    void search_RejectsInvalidPaging() {
+        history.addTransaction("Deposited 100");
+
+        assertThrows(IllegalArgumentException.class, () -> history.searchAny(List.of("deposited"), 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> history.searchAll(List.of("deposited"), 5, -1));
+    }
+
+    @Test
+    void between_ReturnsHalfOpenRangeInPages() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int day = 0; day < 200; day++) {
+            history.addTransaction(start.plusDays(day), "Deposit day " + day);
+        }
+
+        LocalDateTime from = start.plusDays(31);
+        LocalDateTime to = start.plusDays(60);
+        List<String> seen = new ArrayList<>();
+        int cursor = 0;
+        do {
+            TransactionHistory.Page page = history.between(from, to, 7, cursor);
+            assertTrue(page.transactions().size() <= 7);
+            seen.addAll(page.transactions());
+            cursor = page.nextCursor();
+        } while (cursor >= 0);
+
+        assertAll(
+                () -> assertEquals(29, seen.size()),
+                () -> assertEquals("2024-02-01T00:00 - Deposit day 31", seen.get(0)),
+                () -> assertTrue(seen.get(28).endsWith("Deposit day 59")),
+                () -> assertTrue(history.between(to, from, 10, 0).transactions().isEmpty()),
+                () -> assertFalse(history.between(from, to, 100, 0).hasMore())
+        );
+    }
+
+    @Test
+    void timestamps_RoundTripWithFullPrecision() {
+        LocalDateTime time = LocalDateTime.of(2023, 6, 15, 10, 30, 45, 123_456_789);
+        history.addTransaction(time, "Deposit");
+
+        assertEquals(time + " - Deposit", history.getTransactions().get(0));
+        assertEquals(time, TransactionHistory.fromNanos(TransactionHistory.toNanos(time)));
+    }
+
+    @Test
+    void backwardClockStep_IsClampedToKeepOrder() {
+        LocalDateTime time = LocalDateTime.of(2024, 10, 27, 2, 30);
+        history.addTransaction(time, "First");
+        history.addTransaction(time.minusHours(1), "Second");
+
+        TransactionHistory.Page page = history.between(time, time.plusSeconds(1), 10, 0);
+        assertEquals(2, page.transactions().size());
+        assertEquals(time + " - Second", page.transactions().get(1));
+    }
+
     // Edge case: Empty transaction
 //    @Test
 //    public void testAddEmptyTransaction() {
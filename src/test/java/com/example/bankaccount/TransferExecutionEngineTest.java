@@ -0,0 +1,208 @@
+package com.example.bankaccount;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+class TransferExecutionEngineTest {
+    private static final String PIN = "1234";
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private AccountRegistry registry;
+    private TransferExecutionEngine engine;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccountRegistry();
+        registry.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+        registry.openAccount("ACC2", 0.0, "USD", 0.0, "9999");
+        engine = new TransferExecutionEngine(registry);
+    }
+
+    @Test
+    void execute_ReportsOutcomePerTransfer() {
+        registry.openAccount("LOCKED", 100.0, "USD", 0.0, PIN);
+        registry.lockAccount("LOCKED");
+        List<ScheduledTransfer.Transfer> transfers = List.of(
+                transfer("ACC1", "ACC2", 60.0),
+                transfer("ACC1", "ACC2", 60.0),
+                transfer("LOCKED", "ACC2", 10.0),
+                transfer("ACC1", "MISSING", 1.0),
+                transfer("ACC1", "ACC2", 0.0)
+        );
+
+        List<TransferExecutionEngine.Outcome> outcomes = engine.execute(transfers);
+
+        assertAll(
+                () -> assertEquals(TransferExecutionEngine.Status.EXECUTED, outcomes.get(0).status()),
+                () -> assertEquals(TransferExecutionEngine.Status.INSUFFICIENT_FUNDS, outcomes.get(1).status()),
+                () -> assertEquals(TransferExecutionEngine.Status.ACCOUNT_LOCKED, outcomes.get(2).status()),
+                () -> assertEquals(TransferExecutionEngine.Status.UNKNOWN_ACCOUNT, outcomes.get(3).status()),
+                () -> assertEquals(TransferExecutionEngine.Status.INVALID_AMOUNT, outcomes.get(4).status()),
+                () -> assertSame(transfers.get(2), outcomes.get(2).transfer()),
+                () -> assertEquals(40.0, registry.getBalance("ACC1"), 0.001),
+                () -> assertEquals(60.0, registry.getBalance("ACC2"), 0.001)
+        );
+    }
+
+    @Test
+    void execute_RunsEachSourceAccountInOrder() {
+        // Each source holds 30.0: the first transfer drains it, so the second must fail.
+        // Run out of order, the small transfer would succeed and the large one would not.
+        int accounts = 500;
+        List<ScheduledTransfer.Transfer> transfers = new ArrayList<>();
+        for (int a = 0; a < accounts; a++) {
+            registry.openAccount("SRC" + a, 30.0, "USD", 0.0, PIN);
+        }
+        for (int a = 0; a < accounts; a++) {
+            transfers.add(transfer("SRC" + a, "ACC2", 30.0));
+        }
+        for (int a = 0; a < accounts; a++) {
+            transfers.add(transfer("SRC" + a, "ACC2", 1.0));
+        }
+
+        List<TransferExecutionEngine.Outcome> outcomes = new TransferExecutionEngine(registry, new ForkJoinPool(8))
+                .execute(transfers);
+
+        for (int a = 0; a < accounts; a++) {
+            assertEquals(TransferExecutionEngine.Status.EXECUTED, outcomes.get(a).status());
+            assertEquals(TransferExecutionEngine.Status.INSUFFICIENT_FUNDS, outcomes.get(accounts + a).status());
+        }
+        assertEquals(accounts * 30.0, registry.getBalance("ACC2"), 0.001);
+    }
+
+    @Test
+    void execute_WaitsForTheJournalOncePerTask() {
+        List<Long> waits = Collections.synchronizedList(new ArrayList<>());
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry counting = new AccountRegistry() {
+                @Override
+                void sync(long lsn) {
+                    if (lsn > 0) {
+                        waits.add(lsn);
+                    }
+                    super.sync(lsn);
+                }
+            };
+            counting.setJournal(journal);
+            counting.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+            counting.openAccount("ACC2", 0.0, "USD", 0.0, "9999");
+            List<ScheduledTransfer.Transfer> transfers = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                transfers.add(transfer("ACC1", "ACC2", 1.0));
+            }
+            waits.clear();
+
+            List<TransferExecutionEngine.Outcome> outcomes = new TransferExecutionEngine(counting).execute(transfers);
+
+            assertAll(
+                    () -> assertTrue(outcomes.stream()
+                            .allMatch(outcome -> outcome.status() == TransferExecutionEngine.Status.EXECUTED)),
+                    () -> assertEquals(List.of(journal.getLastLsn()), waits),
+                    () -> assertEquals(journal.getLastLsn(), journal.getDurableLsn()),
+                    () -> assertEquals(50.0, counting.getBalance("ACC2"), 0.001)
+            );
+        }
+    }
+
+    @Test
+    void execute_EmptyBatchReturnsNoOutcomes() {
+        assertTrue(engine.execute(List.of()).isEmpty());
+    }
+
+    @Test
+    void scheduledTransfer_ExecutesDueTransfersThroughEngine() {
+        ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+        scheduledTransfer.scheduleTransfer("ACC1", "ACC2", 25.0, TODAY);
+        scheduledTransfer.scheduleTransfer("ACC1", "ACC2", 25.0, TODAY.plusDays(1));
+
+        List<TransferExecutionEngine.Outcome> outcomes = scheduledTransfer.executeDueTransfers(engine);
+
+        assertAll(
+                () -> assertEquals(1, outcomes.size()),
+                () -> assertEquals(TransferExecutionEngine.Status.EXECUTED, outcomes.get(0).status()),
+                () -> assertEquals(25.0, registry.getBalance("ACC2"), 0.001),
+                () -> assertEquals(1, scheduledTransfer.size())
+        );
+    }
+
+    @Test
+    void recover_DoesNotRepeatExecutedTransfers() {
+        try (Journal journal = Journal.open(directory)) {
+            AccountRegistry journaled = journaledRegistry(journal);
+            ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+            scheduledTransfer.setJournal(journal);
+            scheduledTransfer.scheduleTransfer("ACC1", "ACC2", 30.0, TODAY);
+            scheduledTransfer.scheduleTransfer("ACC1", "ACC2", 500.0, TODAY);
+            scheduledTransfer.scheduleRecurringTransfer("ACC1", "ACC2", 10.0, TODAY, RecurrenceRule.daily());
+
+            scheduledTransfer.executeDueTransfers(new TransferExecutionEngine(journaled));
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        ScheduledTransfer recoveredTransfers = new ScheduledTransfer();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), recoveredTransfers)) {
+            List<TransferExecutionEngine.Outcome> outcomes =
+                    recoveredTransfers.executeDueTransfers(new TransferExecutionEngine(recovered));
+
+            assertAll(
+                    () -> assertTrue(outcomes.isEmpty()),
+                    () -> assertEquals(60.0, recovered.getBalance("ACC1"), 0.001),
+                    () -> assertEquals(40.0, recovered.getBalance("ACC2"), 0.001),
+                    () -> assertEquals(1, recoveredTransfers.size()),
+                    () -> assertEquals(TODAY.plusDays(1), recoveredTransfers.getScheduledTransfers().get(0).date)
+            );
+        }
+    }
+
+    @Test
+    void recover_ResumesTransfersInterruptedBeforeExecution() {
+        try (Journal journal = Journal.open(directory)) {
+            journaledRegistry(journal);
+            ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+            scheduledTransfer.setJournal(journal);
+            scheduledTransfer.scheduleTransfer("ACC1", "ACC2", 30.0, TODAY);
+            scheduledTransfer.scheduleRecurringTransfer("ACC1", "ACC2", 10.0, TODAY, RecurrenceRule.weekly());
+
+            // Crash after the due transfers were claimed but before any of them ran
+            assertEquals(2, scheduledTransfer.takeDueTransfers(TODAY).size());
+        }
+
+        AccountRegistry recovered = new AccountRegistry();
+        ScheduledTransfer recoveredTransfers = new ScheduledTransfer();
+        try (Journal journal = Journal.recover(directory, recovered, new LoanManagement(), recoveredTransfers)) {
+            List<TransferExecutionEngine.Outcome> outcomes =
+                    recoveredTransfers.executeDueTransfers(new TransferExecutionEngine(recovered));
+
+            assertAll(
+                    () -> assertEquals(2, outcomes.size()),
+                    () -> assertEquals(40.0, recovered.getBalance("ACC2"), 0.001),
+                    () -> assertEquals(TODAY.plusWeeks(1), recoveredTransfers.getStandingOrders().get(0).getNextDate())
+            );
+        }
+    }
+
+    private static AccountRegistry journaledRegistry(Journal journal) {
+        AccountRegistry journaled = new AccountRegistry();
+        journaled.setJournal(journal);
+        journaled.openAccount("ACC1", 100.0, "USD", 0.0, PIN);
+        journaled.openAccount("ACC2", 0.0, "USD", 0.0, "9999");
+        return journaled;
+    }
+
+    private static ScheduledTransfer.Transfer transfer(String from, String to, double amount) {
+        return new ScheduledTransfer.Transfer(from, to, amount, TODAY);
+    }
+}